@@ -0,0 +1,25 @@
+package doodlejump;
+
+/**
+ * This Agent interface is a player that the BatchSimulator can put in charge of a headless game instead
+ * of a person at the keyboard. Every tick the simulator fills in the game's Observation and asks the
+ * Agent what to do, and the answer is the input the World is steered by for that tick: the bits of the
+ * Moves to hold (see Move.bit), or 0 to hold nothing. The simulator creates a new Agent for every game,
+ * so an Agent may keep state between ticks, but it should not allocate in act, which is called on
+ * every tick of every game. The baseline agents are IdleAgent, RandomAgent and GreedyAgent.
+ */
+public interface Agent {
+
+    /**
+     * This method is called once before the game's first tick with the game's seed, so that an Agent
+     * that makes random choices can make the same ones every time the game is played.
+     */
+    default void start(long seed) {
+    }
+
+    /**
+     * This method is called before every tick with the Observation of the game as it is now, and
+     * returns the input bits to steer the Doodle by during the tick.
+     */
+    int act(Observation observation);
+}
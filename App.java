@@ -14,19 +14,30 @@ import javafx.stage.Stage;
  *
  * This App class allows our DoodleJump game to appear by initializing the PaneOrganizer which
  * holds all the GUI elements of our game. This class also instantiates a Scene set, associating
- * it with our BorderPane root, adding the scene to the stage, and letting it appear.
+ * it with our BorderPane root, adding the scene to the stage, and letting it appear. When the
+ * application closes, the PaneOrganizer is stopped so that a game in progress can be saved.
  */
 public class App extends Application {
+    private PaneOrganizer organizer;
 
     @Override
     public void start(Stage stage) {
         // Instantiate top-level object, set up the scene, and show the stage here.
-        PaneOrganizer organizer = new PaneOrganizer();
-        stage.setScene(new Scene(organizer.getRoot(), Constants.SCENE_WIDTH, Constants.SCENE_HEIGHT));
+        this.organizer = new PaneOrganizer();
+        stage.setScene(new Scene(this.organizer.getRoot(), Constants.SCENE_WIDTH, Constants.SCENE_HEIGHT));
         stage.setTitle("doodlejump");
         stage.show();
     }
 
+    /**
+     * JavaFX calls this method when the application is closing, and the PaneOrganizer is told so that
+     * a game in progress can be saved.
+     */
+    @Override
+    public void stop() {
+        this.organizer.stop();
+    }
+
     /*
      * Here is the mainline! No need to change this.
      */
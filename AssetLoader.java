@@ -0,0 +1,188 @@
+package doodlejump;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javafx.scene.image.Image;
+
+/**
+ * This AssetLoader class loads the game's images without ever making the FX application thread wait.
+ * load returns straight away with a CompletableFuture, and the image is looked for on the loader's own
+ * daemon thread, in order: in the ImageCache of images already decoded; on the classpath, where images
+ * bundled with the game are (the assets directory in the Gradle build); in the disk cache, where every
+ * remote image is kept once it has been downloaded; and finally at its remote URL, if it has one. The
+ * background is bundled, so the game never needs the network for it, and an image that is neither
+ * bundled nor cached on a machine with no network simply leaves whatever placeholder the caller put
+ * up. The memory budget is read from
+ * the doodlejump.assets.budget system property (in megabytes, 64 by default) and the disk cache lives in
+ * the directory named by doodlejump.assets.cache (.doodlejump/assets in the user's home by default). The
+ * time spent loading images that were not already decoded is added up (getLoadNanos), and the Game
+ * reports it in its TickStats, so a slow cold start shows up over JMX and in the stats dump; if
+ * doodlejump.assets.log is true, how long each image took and where it came from is printed as well.
+ */
+public class AssetLoader {
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final int READ_TIMEOUT_MILLIS = 5000;
+
+    private ImageCache cache;
+    private Path diskCache;
+    private ExecutorService executor;
+    private boolean log;
+    private volatile long loadNanos;
+
+    /**
+     * This AssetLoader constructor is called in the PaneOrganizer constructor, and sets the loader up from
+     * the system properties described above.
+     */
+    public AssetLoader() {
+        this(new ImageCache(Long.getLong("doodlejump.assets.budget", 64) << 20),
+                Paths.get(System.getProperty("doodlejump.assets.cache",
+                        Paths.get(System.getProperty("user.home"), ".doodlejump", "assets").toString())),
+                Boolean.getBoolean("doodlejump.assets.log"));
+    }
+
+    /**
+     * This AssetLoader constructor uses the given ImageCache and disk cache directory, which is created
+     * when the first remote image that is not bundled is downloaded.
+     */
+    public AssetLoader(ImageCache cache, Path diskCache, boolean log) {
+        this.cache = cache;
+        this.diskCache = diskCache;
+        this.log = log;
+        this.executor = Executors.newSingleThreadExecutor((Runnable task) -> {
+            Thread thread = new Thread(task, "asset-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * This method starts loading the image with the given name, which is looked up on the classpath, or,
+     * failing that, downloaded from remoteUrl (which may be null for bundled-only assets). The future
+     * completes on the loader's thread, so a caller that touches the scene graph should continue with
+     * javafx.application.Platform::runLater as the executor. It completes exceptionally if the image
+     * could not be found anywhere.
+     */
+    public CompletableFuture<Image> load(String name, String remoteUrl) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return this.find(name, remoteUrl);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not load " + name + ": " + e.getMessage(), e);
+            }
+        }, this.executor);
+    }
+
+    /**
+     * This helper method runs on the loader's thread, and looks the image up in each place in turn.
+     */
+    private Image find(String name, String remoteUrl) throws IOException {
+        Image image = this.cache.get(name);
+        if (image != null) {
+            return image;
+        }
+        long start = System.nanoTime();
+        String source = "classpath";
+        try (InputStream bundled = AssetLoader.class.getResourceAsStream("/" + name)) {
+            if (bundled != null) {
+                image = decode(name, bundled);
+            }
+        }
+        if (image == null) {
+            if (remoteUrl == null) {
+                throw new IOException("not on the classpath");
+            }
+            Path cached = this.diskCache.resolve(cacheName(remoteUrl, name));
+            source = "disk cache";
+            if (!Files.exists(cached)) {
+                this.download(remoteUrl, cached);
+                source = "network";
+            }
+            try (InputStream in = Files.newInputStream(cached)) {
+                image = decode(name, in);
+            }
+        }
+        this.cache.put(name, image);
+        long nanos = System.nanoTime() - start;
+        this.loadNanos += nanos; // only ever written on the loader's thread
+        if (this.log) {
+            System.out.printf("Loaded %s from %s in %.1f ms%n", name, source, nanos / 1e6);
+        }
+        return image;
+    }
+
+    /**
+     * This helper method downloads remoteUrl into the given file of the disk cache, through a temporary
+     * file that is only moved into place once it is complete.
+     */
+    private void download(String remoteUrl, Path file) throws IOException {
+        Files.createDirectories(this.diskCache);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        URLConnection connection = new URL(remoteUrl).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+        try (InputStream in = connection.getInputStream()) {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * This method stops the loader's thread once no more assets will be loaded.
+     */
+    public void close() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * This accessor method returns how long, in nanoseconds, the loader has spent altogether loading
+     * images that were not already decoded: on startup, how long the game took to get its background.
+     */
+    public long getLoadNanos() {
+        return this.loadNanos;
+    }
+
+    /**
+     * This accessor method returns the ImageCache of decoded images.
+     */
+    public ImageCache getCache() {
+        return this.cache;
+    }
+
+    private static Image decode(String name, InputStream in) throws IOException {
+        Image image = new Image(in);
+        if (image.isError()) {
+            throw new IOException("could not decode " + name, image.getException());
+        }
+        return image;
+    }
+
+    /**
+     * This helper method returns the disk cache file name for remoteUrl: a hash of the URL, so that two
+     * assets never share a file, followed by the asset's name for anyone looking in the directory.
+     */
+    private static String cacheName(String remoteUrl, String name) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(remoteUrl.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex + "-" + Paths.get(name).getFileName();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is always available", e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package doodlejump;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * This BatchSimulator class plays many independent headless games as fast as the CPU allows,
+ * instead of one tick every Constants.DURATION of wall-clock time like the Game's GameLoop. Each
+ * game is its own World with its own seed, stepped with a fixed timestep of DURATION
+ * in a tight loop, and the games are spread over the cores with a ForkJoinPool. The results (score,
+ * ticks survived and cause of death) are returned in seed order, so a batch is reproducible no
+ * matter how the work was scheduled. Every game is played by its own Agent, which is shown an
+ * Observation of the game before each tick and steers the Doodle through it. The main method runs a
+ * batch from the command line and prints a summary along with the simulated tick rate, and the
+ * SurvivalStats of the batch, which is what we tune Y_OFFSET_MIN/MAX and the platform mix with.
+ */
+public class BatchSimulator {
+    private ForkJoinPool pool;
+    private long maxTicks;
+    private Supplier<Agent> agents;
+    private LongAdder poolAcquisitions;
+    private LongAdder poolHits;
+
+    /**
+     * This BatchSimulator constructor creates a simulator whose games are played by IdleAgents.
+     */
+    public BatchSimulator(int parallelism, long maxTicks) {
+        this(parallelism, maxTicks, IdleAgent::new);
+    }
+
+    /**
+     * This BatchSimulator constructor creates a ForkJoinPool with the given number of worker threads.
+     * Every game is cut off after maxTicks ticks if the Doodle is still alive by then, and is played by
+     * a new Agent from the given Supplier.
+     */
+    public BatchSimulator(int parallelism, long maxTicks, Supplier<Agent> agents) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.maxTicks = maxTicks;
+        this.agents = agents;
+        this.poolAcquisitions = new LongAdder();
+        this.poolHits = new LongAdder();
+    }
+
+    /**
+     * This method simulates the given number of games in parallel and returns their results. The
+     * seed of the i-th game is derived from baseSeed and i with GameRandom.seedFor, and the i-th
+     * result in the returned array always belongs to the i-th game.
+     */
+    public GameResult[] run(long baseSeed, int games) {
+        GameResult[] results = new GameResult[games];
+        this.pool.submit(() -> IntStream.range(0, games).parallel()
+                .forEach((int i) -> results[i] = this.simulate(GameRandom.seedFor(baseSeed, i))))
+                .join();
+        return results;
+    }
+
+    /**
+     * This method plays a single headless game with the given seed on the calling thread, stepping
+     * the World until the game ends or the tick limit is reached. Before every tick
+     * the game's Observation is refilled and the Agent's answer becomes the World's input.
+     */
+    public GameResult simulate(long seed) {
+        World world = new World(seed, WorldListener.NONE);
+        Agent agent = this.agents.get();
+        Observation observation = new Observation(Observation.DEFAULT_PLATFORMS, Observation.DEFAULT_HAZARDS);
+        agent.start(seed);
+        while (!world.isGameOver() && world.getTicks() < this.maxTicks) {
+            observation.fill(world);
+            world.setInput(agent.act(observation));
+            world.update();
+        }
+        this.poolAcquisitions.add(world.getPlatformPool().getAcquisitions());
+        this.poolHits.add(world.getPlatformPool().getHits());
+        DeathCause cause = world.isGameOver() ? world.getDeathCause() : DeathCause.TICK_LIMIT;
+        return new GameResult(seed, world.getScore(), world.getTicks(), cause);
+    }
+
+    /**
+     * This accessor method returns the fraction of platform spawns, over every game simulated so far,
+     * that were served by a recycled Platform from the game's PlatformPool.
+     */
+    public double getPoolHitRate() {
+        long acquisitions = this.poolAcquisitions.sum();
+        return acquisitions == 0 ? 0 : (double) this.poolHits.sum() / acquisitions;
+    }
+
+    /**
+     * This method shuts the simulator's worker threads down once no more batches will be run.
+     */
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+
+    /**
+     * This helper method returns a Supplier of the baseline Agent with the given name: "idle",
+     * "random" or "greedy".
+     */
+    public static Supplier<Agent> agentNamed(String name) {
+        switch (name) {
+            case "idle":
+                return IdleAgent::new;
+            case "random":
+                return RandomAgent::new;
+            case "greedy":
+                return GreedyAgent::new;
+            default:
+                throw new IllegalArgumentException("Unknown agent " + name + " (expected idle, random or greedy)");
+        }
+    }
+
+    /**
+     * This mainline runs a batch from the command line. The optional arguments are the number of
+     * games, the tick limit per game, the base seed, the number of threads and the agent (see
+     * agentNamed), in that order.
+     */
+    public static void main(String[] argv) {
+        int games = argv.length > 0 ? Integer.parseInt(argv[0]) : 1000;
+        long maxTicks = argv.length > 1 ? Long.parseLong(argv[1]) : 10000;
+        long baseSeed = argv.length > 2 ? Long.parseLong(argv[2]) : 42;
+        int threads = argv.length > 3 ? Integer.parseInt(argv[3]) : Runtime.getRuntime().availableProcessors();
+        String agent = argv.length > 4 ? argv[4] : "idle";
+
+        BatchSimulator simulator = new BatchSimulator(threads, maxTicks, agentNamed(agent));
+        long start = System.nanoTime();
+        GameResult[] results = simulator.run(baseSeed, games);
+        long elapsed = System.nanoTime() - start;
+
+        long totalTicks = 0;
+        long totalScore = 0;
+        int fell = 0;
+        int hit = 0;
+        for (GameResult result : results) {
+            totalTicks += result.getTicks();
+            totalScore += result.getScore();
+            if (result.getCause() == DeathCause.FELL_OFF_SCREEN) {
+                fell++;
+            } else if (result.getCause() == DeathCause.HIT_BY_HAZARD) {
+                hit++;
+            }
+        }
+        System.out.printf("agent=%s games=%d threads=%d ticks=%d elapsed=%.1fms ticks/s=%.0f%n",
+                agent, games, threads, totalTicks, elapsed / 1e6, totalTicks / (elapsed / 1e9));
+        System.out.printf("mean score=%.1f mean ticks=%.1f fell=%d hit=%d tick limit=%d pool hit rate=%.3f%n",
+                (double) totalScore / games, (double) totalTicks / games, fell, hit, games - fell - hit,
+                simulator.getPoolHitRate());
+        System.out.print(new SurvivalStats(results, maxTicks));
+        simulator.shutdown();
+    }
+}
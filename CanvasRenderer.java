@@ -0,0 +1,143 @@
+package doodlejump;
+
+import javafx.geometry.Bounds;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.effect.BlurType;
+import javafx.scene.effect.DropShadow;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+
+/**
+ * This CanvasRenderer class draws the whole game into a single Canvas every frame, instead of keeping
+ * a Rectangle node with its own DropShadow for every Platform like the PaneRenderer does. A DropShadow
+ * on a node costs an off-screen render pass per node per frame, which is what brings machines without
+ * a GPU down to single-digit frame rates; here the glowing Platform is rendered once per PlatformKind,
+ * when the renderer is created, into a sprite image, and each frame is one clear and one drawImage
+ * per visible Platform. The Canvas is transparent, so the gamePane's background still shows through.
+ * The renderer reads the Platforms straight out of the World's PlatformStore each frame, so it has
+ * nothing to do as a WorldListener at all. The score is shown by the Game's ScoreDisplay.
+ */
+public class CanvasRenderer implements GameRenderer {
+    private static final PlatformKind[] KINDS = PlatformKind.values();
+
+    private GraphicsContext graphics;
+    private WritableImage[] sprites;
+    private double[] spriteOffsetX;
+    private double[] spriteOffsetY;
+    private World world;
+    private double alpha;
+    private boolean showDoodle;
+
+    /**
+     * This CanvasRenderer constructor is called in the Game constructor in place of the PaneRenderer.
+     * It creates a Canvas the size of the scene, graphically adds it to the gamePane, and pre-renders
+     * the Platform sprites. It must be called on the FX application thread, since the sprites are
+     * taken with Node.snapshot.
+     */
+    public CanvasRenderer(Pane gamePane) {
+        Canvas canvas = new Canvas(Constants.SCENE_WIDTH, Constants.SCENE_HEIGHT);
+        this.graphics = canvas.getGraphicsContext2D();
+        gamePane.getChildren().add(canvas);
+        this.showDoodle = true;
+        this.createSprites();
+    }
+
+    /**
+     * This helper method is called in the constructor. For every PlatformKind it builds the same
+     * Rectangle the PaneRenderer would (the kind's color, a white stroke and the white glow) and takes
+     * a snapshot of it with a transparent background. The glow reaches past the Rectangle, so the
+     * snapshot's top-left corner is remembered relative to the Rectangle's, and each sprite is drawn
+     * that far up and to the left of its Platform.
+     */
+    private void createSprites() {
+        DropShadow glow = new DropShadow(BlurType.GAUSSIAN, Color.WHITE, Constants.DROPSHADOW_RADIUS, Constants.DROPSHADOW_SPREAD, 0, 0);
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        this.sprites = new WritableImage[KINDS.length];
+        this.spriteOffsetX = new double[KINDS.length];
+        this.spriteOffsetY = new double[KINDS.length];
+        for (int i = 0; i < KINDS.length; i++) {
+            Rectangle platformRect = new Rectangle(Constants.PLATFORM_WIDTH, Constants.PLATFORM_HEIGHT);
+            platformRect.setFill(ViewConstants.colorOf(KINDS[i]));
+            platformRect.setStroke(Color.WHITE);
+            platformRect.setEffect(glow);
+            Bounds bounds = platformRect.getBoundsInParent();
+            this.sprites[i] = platformRect.snapshot(parameters, null);
+            this.spriteOffsetX[i] = bounds.getMinX();
+            this.spriteOffsetY[i] = bounds.getMinY();
+        }
+    }
+
+    /**
+     * This method is called by the Game once per frame. It clears the Canvas and walks the World's
+     * PlatformStore from the bottom up, drawing the sprite for every Platform whose glow is at least
+     * partly on screen at its world y-coordinate plus the camera offset, then fills a rectangle in its
+     * kind's color for every entity on screen, and then draws the Doodle on
+     * top, unless the game has ended. The camera, the Doodle's height and the moving Platforms and entities are
+     * interpolated between the last two ticks by alpha.
+     */
+    @Override
+    public void render(World world, double alpha) {
+        this.world = world;
+        this.alpha = alpha;
+        double camera = lerp(world.getPreviousCameraOffset(), world.getCameraOffset(), alpha);
+        this.graphics.clearRect(0, 0, Constants.SCENE_WIDTH, Constants.SCENE_HEIGHT);
+
+        PlatformStore platforms = world.getPlatforms();
+        int top = platforms.topSequence();
+        for (int sequence = platforms.bottomSequence(); sequence != top; sequence++) {
+            PlatformKind kind = platforms.getKind(sequence);
+            if (kind == null) {
+                continue;
+            }
+            int k = kind.ordinal();
+            double screenY = platforms.getY(sequence) + camera + this.spriteOffsetY[k];
+            if (screenY < Constants.SCENE_HEIGHT && screenY + this.sprites[k].getHeight() > 0) {
+                double x = lerp(platforms.getPreviousX(sequence), platforms.getX(sequence), alpha);
+                this.graphics.drawImage(this.sprites[k], x + this.spriteOffsetX[k], screenY);
+            }
+        }
+
+        EntityStore entities = world.getEntities();
+        for (int i = 0; i < entities.size(); i++) {
+            int slot = entities.getLiveSlot(i);
+            EntityKind kind = entities.getKind(slot);
+            double screenY = lerp(entities.getPreviousY(slot), entities.getY(slot), alpha) + camera;
+            if (screenY < Constants.SCENE_HEIGHT && screenY + kind.getHeight() > 0) {
+                this.graphics.setFill(ViewConstants.colorOf(kind));
+                this.graphics.fillRect(lerp(entities.getPreviousX(slot), entities.getX(slot), alpha), screenY,
+                        kind.getWidth(), kind.getHeight());
+            }
+        }
+
+        if (this.showDoodle) {
+            Doodle doodle = world.getDoodle();
+            this.graphics.setFill(ViewConstants.DOODLE_COLOR);
+            this.graphics.fillRect(doodle.getXLoc(), lerp(doodle.getPreviousYLoc(), doodle.getYLoc(), alpha) + camera,
+                    Constants.DOODLE_WIDTH, Constants.DOODLE_HEIGHT);
+        }
+    }
+
+    /**
+     * This method is called in Game's endGame method. The Doodle is no longer drawn, and the last frame
+     * is drawn again without it.
+     */
+    @Override
+    public void stop() {
+        this.showDoodle = false;
+        if (this.world != null) {
+            this.render(this.world, this.alpha);
+        }
+    }
+
+    /**
+     * This helper method returns the value the given fraction alpha of the way from previous to current.
+     */
+    private static double lerp(double previous, double current, double alpha) {
+        return previous + (current - previous) * alpha;
+    }
+}
@@ -0,0 +1,106 @@
+package doodlejump;
+
+import java.util.Arrays;
+
+/**
+ * This ComponentSet class records which Platforms in a PlatformStore have one component (for instance,
+ * motion), as a sparse set: a dense array of the sequence numbers that have it, in no particular order,
+ * and a sparse array indexed by store slot that gives each one's place in the dense array, or -1.
+ * Adding, removing and looking up a Platform are O(1), and a system that works on one component walks
+ * the dense array from 0 to size, touching only the Platforms that have it however many others there
+ * are. A component's data lives in arrays owned by whoever owns the set, indexed the same way as the
+ * dense array; remove moves the last entry into the gap, and returns where it went, so the owner can
+ * move the data along with it.
+ */
+public class ComponentSet {
+    private int[] dense;
+    private int[] sparse;
+    private int mask;
+    private int size;
+
+    /**
+     * This ComponentSet constructor creates an empty set for a store of the given capacity, which must
+     * be a power of two.
+     */
+    public ComponentSet(int capacity) {
+        this.dense = new int[16];
+        this.resize(capacity);
+    }
+
+    /**
+     * This method adds the given sequence number, which must not already be in the set, and returns its
+     * index in the dense array. The caller puts the component's data at that index.
+     */
+    public int add(int sequence) {
+        if (this.size == this.dense.length) {
+            this.dense = Arrays.copyOf(this.dense, this.size * 2);
+        }
+        int index = this.size++;
+        this.dense[index] = sequence;
+        this.sparse[sequence & this.mask] = index;
+        return index;
+    }
+
+    /**
+     * This method removes the given sequence number if it is in the set. The last entry of the dense
+     * array is moved into the gap; the method returns the gap's index, so that the caller can copy the
+     * data at index size (the old last entry) there, or -1 if the sequence number was not in the set.
+     */
+    public int remove(int sequence) {
+        int index = this.indexOf(sequence);
+        if (index < 0) {
+            return -1;
+        }
+        this.sparse[sequence & this.mask] = -1;
+        int last = this.dense[--this.size];
+        if (index != this.size) {
+            this.dense[index] = last;
+            this.sparse[last & this.mask] = index;
+        }
+        return index;
+    }
+
+    /**
+     * This method returns the index of the given sequence number in the dense array, or -1 if it is not
+     * in the set.
+     */
+    public int indexOf(int sequence) {
+        int index = this.sparse[sequence & this.mask];
+        return index >= 0 && index < this.size && this.dense[index] == sequence ? index : -1;
+    }
+
+    /**
+     * This method is called by the PlatformStore when its ring grows to the given capacity, and rebuilds
+     * the sparse array to match.
+     */
+    public void resize(int capacity) {
+        this.sparse = new int[capacity];
+        Arrays.fill(this.sparse, -1);
+        this.mask = capacity - 1;
+        for (int i = 0; i < this.size; i++) {
+            this.sparse[this.dense[i] & this.mask] = i;
+        }
+    }
+
+    /**
+     * This accessor method returns the sequence number at the given index of the dense array.
+     */
+    public int get(int index) {
+        return this.dense[index];
+    }
+
+    /**
+     * This accessor method returns how many Platforms have the component.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * This accessor method returns the length of the dense array, which the owner's data arrays must be
+     * at least as long as.
+     */
+    public int capacity() {
+        return this.dense.length;
+    }
+}
@@ -1,13 +1,14 @@
 package doodlejump;
 
-import javafx.scene.paint.Color;
-
 /**
  * This is your Constants class. It defines some constants you will need
  * in DoodleJump, using the default values from the demo--you shouldn't
  * need to change any of these values unless you want to experiment. Feel
  * free to add more constants to this class!
  *
+ * Only plain numbers live here, so that the headless World can use them
+ * without JavaFX; the colors used to draw the game are in ViewConstants.
+ *
  * A NOTE ON THE GRAVITY CONSTANT:
  *   Because our y-position is in pixels rather than meters, we'll need our
  *   gravity to be in units of pixels/sec^2 rather than the usual 9.8m/sec^2.
@@ -34,23 +35,35 @@ public class Constants {
     public static final double X_OFFSET = 100;
     public static final double Y_OFFSET_MIN = 20;
     public static final double Y_OFFSET_MAX = 40;
-
-    public static final Color REGULAR_PLATFORM_COLOR = Color.rgb(244,144,172);
-    public static final Color MOVING_PLATFORM_COLOR = Color.rgb(116,93,152);
-
-    public static final Color DISAPPEARING_PLATFORM_COLOR = Color.rgb(114,145,123);
-
-    public static final Color BOUNCY_PLATFORM_COLOR = Color.rgb(209,226,240);
+    public static final double X_OFFSET_HARDEST = 250; // X_OFFSET once the DifficultyCurve is at its hardest
+    public static final double Y_OFFSET_MIN_HARDEST = 40;
+    public static final double Y_OFFSET_MAX_HARDEST = 120;
+    public static final int DIFFICULTY_RAMP_CHUNKS = 40; // chunks climbed before the level is at its hardest
+    public static final double REACH_SLACK = 0.75; // fraction of a full jump's reach a gap may need
+    public static final double DISAPPEARING_SLACK = 0.6; // the same, from a platform that can only be used once
 
     public static final double GAMEOVER_FONT_SIZE = 60;
+    public static final double SCORE_FONT_SIZE = 14;
 
     public static final double DROPSHADOW_RADIUS = 20;
     public static final double DROPSHADOW_SPREAD = 0.5;
     public static final double STARTING_PLATFORM_XLOC = 285;
     public static final double STARTING_PLATFORM_YLOC = 750;
-    public static final double DOODLE_MOVE_OFFSET = 20;
+    public static final double DOODLE_HORIZONTAL_SPEED = 450; // while an arrow key is held (UNITS: pixels/s)
     public static final double DOODLE_STARTING_XLOC = 300;
     public static final double DOODLE_STARTING_YLOC = 550;
-    public static final double MOVINGPLATFORM_DURATION = 100;
-    public static final double MOVINGPLATFORM_OFFSET = 10;
+    public static final double MOVINGPLATFORM_SPEED = 100; // (UNITS: pixels/s)
+    public static final double INDEX_BAND_HEIGHT = 32; // height of one PlatformIndex band (UNITS: pixels)
+    public static final double CHUNK_HEIGHT = 400; // height of one generated PlatformChunk (UNITS: pixels)
+    public static final double INDEX_COLUMN_WIDTH = 64; // width of one entity column of the PlatformIndex (UNITS: pixels)
+
+    public static final int SPRING_REBOUND_VELOCITY = -1500; // (UNITS: pixels/s)
+    public static final int JETPACK_VELOCITY = -900; // while a jetpack is burning (UNITS: pixels/s)
+    public static final int JETPACK_TICKS = 120; // how long a jetpack burns (UNITS: ticks)
+    public static final double MONSTER_SPEED = 60; // (UNITS: pixels/s)
+    public static final int MONSTER_FIRE_TICKS = 120; // ticks between a monster's shots
+    public static final double PROJECTILE_SPEED = 300; // downwards (UNITS: pixels/s)
+    public static final double SPRING_CHANCE = 0.08; // of a regular Platform carrying a spring
+    public static final double JETPACK_CHANCE = 0.01; // of a regular Platform carrying a jetpack
+    public static final double MONSTER_CHANCE_HARDEST = 0.25; // of a chunk having a monster once the level is at its hardest
 }
@@ -0,0 +1,13 @@
+package doodlejump;
+
+/**
+ * This DeathCause enum records why a simulated game ended, and is reported in each GameResult.
+ * FELL_OFF_SCREEN and HIT_BY_HAZARD (touching a monster or a projectile) are how a real game ends;
+ * TICK_LIMIT means a headless run was cut off after its maximum number of ticks while the Doodle was
+ * still alive.
+ */
+public enum DeathCause {
+    FELL_OFF_SCREEN,
+    HIT_BY_HAZARD,
+    TICK_LIMIT
+}
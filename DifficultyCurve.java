@@ -0,0 +1,77 @@
+package doodlejump;
+
+/**
+ * This DifficultyCurve class decides how hard each part of the level is. The difficulty level goes
+ * from 0 at the bottom of the level to 1 once DIFFICULTY_RAMP_CHUNKS chunks have been climbed, and
+ * since the score is counted as the screen scrolls up, it rises with the score. A chunk's level only
+ * depends on its index, so levels stay deterministic and the PlatformGenerator can lay chunks out
+ * ahead of time. At level 0 the rules are the original ones (gaps of Y_OFFSET_MIN to Y_OFFSET_MAX
+ * pixels, X_OFFSET pixels of sideways drift, and the four kinds equally likely); towards level 1 the
+ * gaps widen to the _HARDEST constants, so Platforms grow sparser, and moving Platforms and
+ * disappearing Platforms replace regular Platforms and bouncy Platforms. Every step in between is a
+ * straight line. Monsters follow the same line: none at level 0, and a chance of
+ * MONSTER_CHANCE_HARDEST per chunk at level 1.
+ */
+public final class DifficultyCurve {
+    private static final PlatformKind[] KINDS = PlatformKind.values();
+    private static final double[] EASIEST_WEIGHTS = {0.25, 0.25, 0.25, 0.25}; // in PlatformKind order
+    private static final double[] HARDEST_WEIGHTS = {0.15, 0.35, 0.35, 0.15};
+
+    private DifficultyCurve() {
+    }
+
+    /**
+     * This static method returns the difficulty level, from 0 to 1, of the chunk with the given index.
+     */
+    public static double levelOf(int chunkIndex) {
+        return Math.min(1, (double) chunkIndex / Constants.DIFFICULTY_RAMP_CHUNKS);
+    }
+
+    /**
+     * This static method returns the smallest gap above one Platform to the next at the given level.
+     */
+    public static double minGap(double level) {
+        return lerp(Constants.Y_OFFSET_MIN, Constants.Y_OFFSET_MIN_HARDEST, level);
+    }
+
+    /**
+     * This static method returns the largest gap above one Platform to the next at the given level.
+     */
+    public static double maxGap(double level) {
+        return lerp(Constants.Y_OFFSET_MAX, Constants.Y_OFFSET_MAX_HARDEST, level);
+    }
+
+    /**
+     * This static method returns how far to either side of one Platform the next may be placed at the
+     * given level.
+     */
+    public static double xOffset(double level) {
+        return lerp(Constants.X_OFFSET, Constants.X_OFFSET_HARDEST, level);
+    }
+
+    /**
+     * This static method turns a random number from 0 (inclusive) to 1 (exclusive) into a PlatformKind,
+     * with each kind as likely as the weights for the given level make it.
+     */
+    public static PlatformKind kindOf(double level, double roll) {
+        double cumulative = 0;
+        for (int i = 0; i < KINDS.length - 1; i++) {
+            cumulative += lerp(EASIEST_WEIGHTS[i], HARDEST_WEIGHTS[i], level);
+            if (roll < cumulative) {
+                return KINDS[i];
+            }
+        }
+        return KINDS[KINDS.length - 1];
+    }
+
+    /**
+     * This static method returns the chance that a chunk at the given level has a monster in it.
+     */
+    public static double monsterChance(double level) {
+        return lerp(0, Constants.MONSTER_CHANCE_HARDEST, level);
+    }
+
+    private static double lerp(double easiest, double hardest, double level) {
+        return easiest + (hardest - easiest) * level;
+    }
+}
@@ -1,137 +1,197 @@
 package doodlejump;
 
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
+import java.nio.ByteBuffer;
 
 /**
- * This Doodle class handles the appearance and movement of the Doodle object that is controlled by the user.
- * It is contained by the Game class and is associated with the PlatformHandler class. The class is a
- * wrapper of the Rectangle class.
- * The class contains a constructor in which the Doodle's appearance is set up, an accessor method to return the
- * Rectangle object that is the graphical representation of the Doodle (getDoodleRect), accessor and mutator
+ * This Doodle class handles the position and movement of the Doodle object that is controlled by the user.
+ * It is contained by the World class and is associated with the PlatformHandler class. The class holds
+ * no JavaFX nodes; the PaneRenderer reads its coordinates to position the Rectangle that shows it.
+ * The class contains a constructor in which the Doodle's starting position is set up, an accessor method to
+ * return the Doodle's x-location (getXLoc), accessor and mutator
  * methods to return or change the Doodle's y-location (getYLoc and setYLoc, respectively), a method to update
- * the position of the Doodle according to the Timeline and physics formulas (updatePosition),
- * methods to move the Doodle left and right (moveLeft and moveRight), a method to let the Doodle wrap
+ * the velocity and position of the Doodle by one tick of gravity (applyGravity),
+ * a method to steer the Doodle left or right by the player's input (steer), a method to let the Doodle wrap
  * back around the screen when it moves offscreen left or right (checkWrap), and a method to check if the Doodle
  * has fallen through the bottom of the screen (checkOffscreen).
  */
 public class Doodle {
 
-    private Rectangle doodleRect;
     private double currentVelocity;
+    private double xVelocity; // horizontal velocity from the player's input (UNITS: pixels/s)
+    private double xLoc;
     private double yLoc;
+    private double previousYLoc; // yLoc before the latest applyGravity, for swept collision checks
     private PlatformHandler platformHandler;
 
     /**
-     * This Doodle constructor is called in the Game class's constructor. The Doodle is associated with
-     * the PlatformHandler that's passed in as an argument, and the Rectangle that the Doodle class wraps is
-     * constructed. The value of the current velocity is set to zero, and the original x and y coordinates
-     * to the middle of the bottom of the screen. The method then sets the x- and y-coordinates of the
-     * Rectangle object itself so that they match the Doodle object's coordinates.
+     * This Doodle constructor is called in the World class's constructor. The Doodle is associated with
+     * the PlatformHandler that's passed in as an argument. The value of the current velocity is set to zero,
+     * and the original x and y coordinates to the middle of the bottom of the screen.
      */
     public Doodle(PlatformHandler platformHandler) {
-        this.doodleRect = new Rectangle(Constants.DOODLE_WIDTH, Constants.DOODLE_HEIGHT, Color.PINK);
         this.currentVelocity = 0;
-        double xLoc = Constants.DOODLE_STARTING_XLOC;
+        this.xLoc = Constants.DOODLE_STARTING_XLOC;
         this.yLoc = Constants.DOODLE_STARTING_YLOC;
-        this.doodleRect.setX(xLoc);
-        this.doodleRect.setY(yLoc);
+        this.previousYLoc = this.yLoc;
         this.platformHandler = platformHandler;
     }
 
     /**
-     * This accessor method is called 3 times: once in the Game constructor to add the Rectangle object to gamePane,
-     * once in Game's endGame method to graphically remove the Rectangle, and once in checkIntersection to check if the
-     * Rectangle collides with a Platform. The method returns the Rectangle doodleRect.
+     * This accessor method returns the double value of the Doodle's x-location. It is called in
+     * PlatformHandler's checkIntersection to check if the Doodle collides with a Platform, and by the
+     * PaneRenderer to position the Doodle's Rectangle.
      */
-    public Rectangle getDoodleRect() {
-        return this.doodleRect;
+    public double getXLoc() {
+        return this.xLoc;
     }
 
     /**
-     * This mutator method changes the Doodle object and wrapped Rectangle's y-coordinates to the passed in double
-     * value. The method is called twice: once in this Doodle class's updatePosition method to set the
-     * Doodle and doodle's Rectangle to a new position based on physics equations and gravity; and
-     * another time in the PlatformHandler's scrollPlatforms method to reset the Doodle's y-location
-     * back to the middle of the screen when it goes higher than that point.
+     * This accessor method returns the Doodle's current vertical velocity (UNITS: pixels/s, positive
+     * is downwards).
+     */
+    public double getVelocity() {
+        return this.currentVelocity;
+    }
+
+    /**
+     * This mutator method puts the Doodle at the given world position with the given vertical velocity
+     * in one go, as if it had been standing still there before the current tick. It is used to set up
+     * a Doodle for the benchmarks.
+     */
+    public void setState(double xLoc, double yLoc, double velocity) {
+        this.xLoc = xLoc;
+        this.yLoc = yLoc;
+        this.previousYLoc = yLoc;
+        this.currentVelocity = velocity;
+    }
+
+    /**
+     * This mutator method changes the Doodle object's y-coordinate to the passed in double
+     * value. The method is called by the PlatformHandler's and EntityHandler's collision checks to put the
+     * Doodle back on top of whatever it landed on. Like the Platforms' y-coordinates,
+     * it is a world coordinate: the Doodle keeps climbing towards negative y, and the PlatformHandler's
+     * camera offset is what keeps it on screen.
      */
     public void setYLoc(double yLoc) {
         this.yLoc = yLoc;
-        this.doodleRect.setY(yLoc);
     }
 
     /**
-     * This accessor method returns the double value of the Doodle's y-location. The method is
-     * called twice: one to check whether the Doodle has fallen offscreen in Doodle's checkOffscreen, and once to
-     * check whether the Doodle is above the midpoint of the screen so that it can be reset
-     * to the middle of the screen in PlatformHandler.
+     * This accessor method returns the double value of the Doodle's world y-location. The method is
+     * called to check whether the Doodle has fallen offscreen in Doodle's checkOffscreen, to
+     * check whether the Doodle is above the midpoint of the screen so that the camera follows it
+     * in PlatformHandler, and by the PaneRenderer to position the Doodle's Rectangle.
      */
     public double getYLoc() {
         return this.yLoc;
     }
 
     /**
-     * This method is called in the Timeline in Game. It updates the Doodle's velocity and position to new
-     * hypothetical positions and velocities based on the physical calculation. To check if this position
-     * and velocity should actually be used in game, the updated velocity is passed into checkIntersection and
-     * the velocity returned depends on whether there was an intersection, in which case a rebound velocity
-     * will be reassigned to the currentVelocity instance variable. The method then calls PlatformHandler's
-     * scrollPlatforms method using the new yLoc.
+     * This method applies one tick of gravity: the velocity is increased by gravity and the Doodle is
+     * moved by the new velocity. The new velocity is returned rather than stored, since a collision with
+     * a Platform may still replace it (see setVelocity), and the position it moved from is remembered
+     * (see getPreviousYLoc).
      */
-    public void updatePosition() {
+    public double applyGravity() {
+        this.previousYLoc = this.yLoc;
         double updatedVelocity = this.currentVelocity + Constants.GRAVITY * Constants.DURATION;
         double updatedPosition = this.yLoc + updatedVelocity * Constants.DURATION; //velocity and position are updated
                                                                                    //based on gravity
         this.setYLoc(updatedPosition);
+        return updatedVelocity;
+    }
+
+    /**
+     * This mutator method sets the Doodle's vertical velocity. The World calls it with the velocity
+     * that PlatformHandler's checkIntersection returns.
+     */
+    public void setVelocity(double velocity) {
+        this.currentVelocity = velocity;
+    }
 
-        this.currentVelocity = this.platformHandler.checkIntersection(updatedVelocity); // current velocity either returns
-                                                                                        // updatedVelocity, rebound velocity,
-                                                                                        // or bouncy rebound velocity
-        this.platformHandler.scrollPlatforms(this.yLoc);
+    /**
+     * This accessor method returns the Doodle's world y-location from before the latest applyGravity,
+     * so that PlatformHandler's checkIntersection can check the whole path the Doodle fell along.
+     */
+    public double getPreviousYLoc() {
+        return this.previousYLoc;
     }
 
     /**
-     * This method is called in the Game class in order to graphically handle what happens when the
-     * right key is pressed. When called, the Doodle's x-coordinate is shifted a set offset to the right
-     * by adding the offset value to the current x-coordinate.
+     * This method is called by the World at the start of every tick with the bits of the Moves held
+     * during it (see Move.bit). The Doodle's horizontal velocity is set to DOODLE_HORIZONTAL_SPEED
+     * towards the held arrow key (or to zero if neither or both are held), the Doodle is moved by it for
+     * one tick, and then wrapped around the screen if it went past an edge.
      */
-    public void moveRight() {
-        this.doodleRect.setX(this.doodleRect.getX() + Constants.DOODLE_MOVE_OFFSET);
+    public void steer(int input) {
+        int direction = 0;
+        if ((input & Move.LEFT.bit()) != 0) {
+            direction--;
+        }
+        if ((input & Move.RIGHT.bit()) != 0) {
+            direction++;
+        }
+        this.xVelocity = direction * Constants.DOODLE_HORIZONTAL_SPEED;
+        this.xLoc = this.xLoc + this.xVelocity * Constants.DURATION;
+        this.checkWrap();
     }
 
     /**
-     * This method is called in the Game class's onKeyPress method in order to graphically handle what happens
-     * when the left key is pressed. When called, the Doodle's x-coordinate is shifted a set offset to the left
-     * by subtracting the offset value from the current x-coordinate.
+     * This accessor method returns the Doodle's horizontal velocity from the latest tick (UNITS:
+     * pixels/s, positive is to the right).
      */
-    public void moveLeft() {
-        this.doodleRect.setX(this.doodleRect.getX() - Constants.DOODLE_MOVE_OFFSET);
+    public double getXVelocity() {
+        return this.xVelocity;
     }
 
     /**
-     * This method is called in the onKeyPress method of the Game class after the switch statement
-     * in which the doodle is moved left or right; after being moved, this method checks whether
+     * This method is called in the steer method after the doodle is moved left or right;
+     * after being moved, this method checks whether
      * or not the Doodle has moved offscreen to the left or right. If the Doodle moves offscreen to the
-     * left, the Doodle's x-coordinate is set to the very far right of the screen. If the doodle moves offscreen
+     * left, the Doodle's x-coordinate is set so that it stands at the very far right of the screen. If the doodle moves offscreen
      * to the right, the Doodle's x-coordinate is set to the very far left of the screen. This gives the Doodle
      * wrapping capabilities.
      */
     public void checkWrap() {
-        if (this.doodleRect.getX() < 0) {
-            this.doodleRect.setX(Constants.SCENE_WIDTH);
-        } else if (this.doodleRect.getX() + Constants.DOODLE_WIDTH > Constants.SCENE_WIDTH) {
-            this.doodleRect.setX(0);
+        if (this.xLoc < 0) {
+            this.xLoc = Constants.SCENE_WIDTH - Constants.DOODLE_WIDTH;
+        } else if (this.xLoc + Constants.DOODLE_WIDTH > Constants.SCENE_WIDTH) {
+            this.xLoc = 0;
         }
     }
 
     /**
-     * This method is called in the update method of the Game class, which is called every set duration
-     * of the Timeline. When called, the method returns true if the Doodle has fallen off the bottom of the screen,
-     * meaning the player has lost if the Doodle's y-coordinate is greater than the scene's height. Otherwise,
-     * the method returns false. If returning true, the update method then calls the endGame method.
+     * This method is called by the World's writeState to add the Doodle's position and velocities to a
+     * WorldSnapshot.
+     */
+    void writeState(ByteBuffer buffer) {
+        buffer.putDouble(this.xLoc);
+        buffer.putDouble(this.yLoc);
+        buffer.putDouble(this.previousYLoc);
+        buffer.putDouble(this.currentVelocity);
+        buffer.putDouble(this.xVelocity);
+    }
+
+    /**
+     * This method is called by the World's readState and puts back what writeState wrote.
+     */
+    void readState(ByteBuffer buffer) {
+        this.xLoc = buffer.getDouble();
+        this.yLoc = buffer.getDouble();
+        this.previousYLoc = buffer.getDouble();
+        this.currentVelocity = buffer.getDouble();
+        this.xVelocity = buffer.getDouble();
+    }
+
+    /**
+     * This method is called in the update method of the World class, which is called every set duration
+     * of the Game's GameLoop. When called, the method returns true if the Doodle has fallen off the bottom of the screen,
+     * meaning the player has lost if the Doodle's y-coordinate on screen (its world y-coordinate plus the
+     * PlatformHandler's camera offset) is greater than the scene's height. Otherwise,
+     * the method returns false. If returning true, the World marks the game as over.
      */
     public boolean checkOffScreen() {
-        return this.getYLoc() > Constants.SCENE_HEIGHT;
+        return this.getYLoc() + this.platformHandler.getCameraOffset() > Constants.SCENE_HEIGHT;
     }
 
 }
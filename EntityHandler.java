@@ -0,0 +1,301 @@
+package doodlejump;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This EntityHandler class runs the pickups and hazards in our DoodleJump game: the springs and
+ * jetpacks that the PlatformGenerator leaves on regular Platforms, and the monsters it puts between
+ * Platforms, which fire projectiles down at the Doodle. It is contained by the PlatformHandler, which
+ * calls its systems at the matching points of every tick, and it shares the PlatformHandler's
+ * PlatformIndex as its broad phase. Like the Platforms' systems, every one of these reads the
+ * EntityKind's data rather than checking which kind an entity is:
+ * <pre>
+ *   moveEntities  walks the EntityStore's motion set: monsters pace between the walls and fire when
+ *                 their countdown runs out, projectiles fall
+ *   collide       asks the PlatformIndex which entities the Doodle met this tick and responds: landing
+ *                 on top of something with a rebound bounces, touching a jetpack starts a boost, and
+ *                 touching a hazard any other way ends the game
+ *   cull          removes the entities that fell below the screen
+ * </pre>
+ * The collision query only visits the index cells along the Doodle's path, and at most CONTACTS of
+ * the entities in them are looked at, so a tick costs the same whether 10 or 10000 projectiles are in
+ * flight elsewhere. Contacts are handled in order of height (then x), not in the order the index
+ * happens to hold them, so a game restored from a WorldSnapshot, whose entities may sit in other slots,
+ * plays on exactly as the original would have.
+ */
+public class EntityHandler {
+    private static final int CONTACTS = 16;
+
+    private EntityStore entities;
+    private PlatformIndex index;
+    private Doodle doodle;
+    private WorldListener listener;
+    private int[] contacts;
+    private int[] culled;
+    private double culledBottom;
+    private int boostTicks;
+    private boolean hit;
+
+    /**
+     * This EntityHandler constructor is called in the PlatformHandler constructor with the EntityStore
+     * that holds every entity, the PlatformIndex that files them, and the WorldListener that is told
+     * whenever one appears or disappears.
+     */
+    public EntityHandler(EntityStore entities, PlatformIndex index, WorldListener listener) {
+        this.entities = entities;
+        this.index = index;
+        this.listener = listener;
+        this.contacts = new int[CONTACTS];
+        this.culled = new int[CONTACTS];
+        this.culledBottom = Double.NaN;
+    }
+
+    /**
+     * This method is called by the PlatformHandler's addDoodle, since collide needs to know where the
+     * Doodle is.
+     */
+    public void addDoodle(Doodle doodle) {
+        this.doodle = doodle;
+    }
+
+    /**
+     * This method brings an entity of the given kind into the game with its top-left corner at the given
+     * world coordinates, files it in the PlatformIndex and tells the listener. It is called by the
+     * PlatformHandler for every entity in a new PlatformChunk, and by moveEntities when a monster fires.
+     * The entity's slot is returned.
+     */
+    public int addEntity(EntityKind kind, double xLocation, double yLocation) {
+        int slot = this.entities.spawn(kind, xLocation, yLocation);
+        this.index.addEntity(slot);
+        this.listener.entityAdded(slot, kind);
+        return slot;
+    }
+
+    /**
+     * This method is the movement system, called once every tick by the PlatformHandler's
+     * movePlatforms with the camera offset. It walks the entities that move, and only those: a monster
+     * moves sideways at its speed and turns around at either wall, the way a moving Platform does, and a
+     * projectile falls at its speed. A monster's countdown runs down while it is on screen, and when it
+     * runs out the monster fires a projectile from under its middle and starts counting again. Projectiles
+     * fired this tick join the end of the motion set and first move on the next one. Every moved entity
+     * is re-filed in the PlatformIndex if it has changed cells.
+     */
+    public void moveEntities(double cameraOffset) {
+        int count = this.entities.getMovingCount();
+        for (int i = 0; i < count; i++) {
+            int slot = this.entities.getMovingSlot(i);
+            EntityKind kind = this.entities.getKind(slot);
+            double x = this.entities.getX(slot);
+            double y = this.entities.getY(slot);
+            double velocity = this.entities.getXVelocity(slot);
+            double newX = x + velocity * Constants.DURATION;
+            if (newX < 0) {
+                newX = 0;
+                this.entities.setXVelocity(slot, Math.abs(velocity));
+            } else if (newX > Constants.SCENE_WIDTH - kind.getWidth()) {
+                newX = Constants.SCENE_WIDTH - kind.getWidth();
+                this.entities.setXVelocity(slot, -Math.abs(velocity));
+            }
+            this.entities.moveTo(slot, newX, y + kind.getYSpeed() * Constants.DURATION);
+            this.index.moveEntity(slot, x, y);
+
+            if (kind.getFireTicks() > 0 && y + cameraOffset >= 0 && y + cameraOffset < Constants.SCENE_HEIGHT) {
+                int timer = this.entities.getTimer(slot) - 1;
+                if (timer <= 0) {
+                    timer = kind.getFireTicks();
+                    this.addEntity(EntityKind.PROJECTILE,
+                            newX + (kind.getWidth() - EntityKind.PROJECTILE.getWidth()) / 2, y + kind.getHeight());
+                }
+                this.entities.setTimer(slot, timer);
+            }
+        }
+    }
+
+    /**
+     * This method is the collision response, called by the PlatformHandler's checkIntersection after the
+     * Doodle has been checked against the Platforms, with the velocity that check settled on and whether
+     * the Doodle was falling before it. While a jetpack is burning the Doodle is pushed up at
+     * JETPACK_VELOCITY whatever else happens. The PlatformIndex is asked for every entity the Doodle's
+     * bounding box met on its way from where it was to where it is now, and each one is handled from the
+     * highest down: if the Doodle was falling and was above it, an entity with a rebound (a spring, or a
+     * monster's head) bounces it off, putting it back on top as checkIntersection does for a Platform; a
+     * jetpack starts a boost; any other touch of a hazard, unless the Doodle is boosting, marks it as
+     * hit, which the World ends the game for. Entities that are consumed leave the game once they have
+     * done their thing. The velocity the Doodle should carry on with is returned.
+     */
+    public double collide(double updatedVelocity, boolean falling) {
+        double velocity = updatedVelocity;
+        if (this.boostTicks > 0) {
+            this.boostTicks--;
+            velocity = Constants.JETPACK_VELOCITY;
+        }
+        double fromY = Math.min(this.doodle.getPreviousYLoc(), this.doodle.getYLoc());
+        int count = this.index.findEntityContacts(this.doodle.getXLoc(), fromY, this.doodle.getYLoc(),
+                Constants.DOODLE_WIDTH, Constants.DOODLE_HEIGHT, this.contacts);
+        this.sortContacts(count);
+        for (int i = 0; i < count; i++) {
+            int slot = this.contacts[i];
+            EntityKind kind = this.entities.getKind(slot);
+            double top = this.entities.getY(slot);
+            if (falling && kind.getRebound() != 0 && fromY + Constants.DOODLE_HEIGHT <= top) {
+                this.doodle.setYLoc(Math.max(fromY, top - Constants.DOODLE_HEIGHT));
+                velocity = kind.getRebound();
+                falling = false;
+            } else if (kind.getBoostTicks() > 0) {
+                this.boostTicks = kind.getBoostTicks();
+                velocity = Constants.JETPACK_VELOCITY;
+            } else if (kind.isHazard() && this.boostTicks == 0) {
+                this.hit = true;
+                continue;
+            } else {
+                continue;
+            }
+            if (kind.isConsumed()) {
+                this.despawn(slot);
+            }
+        }
+        return velocity;
+    }
+
+    /**
+     * This helper method puts the first count contacts in order of height, highest (smallest y) first,
+     * then of x. An insertion sort, since there are never more than CONTACTS of them.
+     */
+    private void sortContacts(int count) {
+        for (int i = 1; i < count; i++) {
+            int slot = this.contacts[i];
+            int j = i - 1;
+            while (j >= 0 && this.isBefore(slot, this.contacts[j])) {
+                this.contacts[j + 1] = this.contacts[j];
+                j--;
+            }
+            this.contacts[j + 1] = slot;
+        }
+    }
+
+    private boolean isBefore(int slot, int other) {
+        double y = this.entities.getY(slot);
+        double otherY = this.entities.getY(other);
+        if (y != otherY) {
+            return y < otherY;
+        }
+        double x = this.entities.getX(slot);
+        double otherX = this.entities.getX(other);
+        if (x != otherX) {
+            return x < otherX;
+        }
+        return this.entities.getKind(slot).ordinal() < this.entities.getKind(other).ordinal();
+    }
+
+    /**
+     * This method is the entities' despawn system, called by the PlatformHandler's checkOffscreen with
+     * the camera offset, and removes every entity whose top has dropped below the screen. Unlike
+     * Platforms, entities are not stored from the bottom up, but after every cull none is left below the
+     * bottom edge, and since then the camera can only have risen and an entity can only have fallen by
+     * EntityKind.MAX_Y_SPEED for a tick (or been fired from under a monster that was still on screen).
+     * So only the PlatformIndex bands from the new bottom edge down to that far below the last one can
+     * hold an entity to remove, and only those are looked at: a tick costs the same however many entities
+     * are alive higher up. The first time, and after a restore, the last edge is not known, so the whole
+     * live set is walked once instead, from the end so that the entity moved into a removed one's place
+     * has already been checked.
+     */
+    public void cull(double cameraOffset) {
+        double bottom = Constants.SCENE_HEIGHT - cameraOffset;
+        if (Double.isNaN(this.culledBottom)) {
+            for (int i = this.entities.size() - 1; i >= 0; i--) {
+                int slot = this.entities.getLiveSlot(i);
+                if (this.entities.getY(slot) + cameraOffset > Constants.SCENE_HEIGHT) {
+                    this.despawn(slot);
+                }
+            }
+        } else {
+            double lowest = Math.max(bottom, this.culledBottom)
+                    + EntityKind.MAX_HEIGHT + EntityKind.MAX_Y_SPEED * Constants.DURATION;
+            double highest = bottom - 1; // a pixel of slack for rounding in the test below
+            int count = this.index.findEntitiesInBands(highest, lowest, this.culled);
+            while (count == this.culled.length) {
+                this.culled = new int[this.culled.length * 2];
+                count = this.index.findEntitiesInBands(highest, lowest, this.culled);
+            }
+            for (int i = 0; i < count; i++) {
+                int slot = this.culled[i];
+                if (this.entities.getY(slot) + cameraOffset > Constants.SCENE_HEIGHT) {
+                    this.despawn(slot);
+                }
+            }
+        }
+        this.culledBottom = bottom;
+    }
+
+    /**
+     * This helper method takes the entity in the given slot out of the PlatformIndex, tells the listener
+     * and frees the slot.
+     */
+    private void despawn(int slot) {
+        this.index.removeEntity(slot, this.entities.getX(slot), this.entities.getY(slot));
+        this.listener.entityRemoved(slot);
+        this.entities.despawn(slot);
+    }
+
+    /**
+     * This method is called by the PlatformHandler's writeState to add the boost, whether the Doodle was
+     * hit, and every entity--its kind, where it was and is, its velocity and its countdown--to a
+     * WorldSnapshot.
+     */
+    void writeState(ByteBuffer buffer) {
+        buffer.putInt(this.boostTicks);
+        buffer.put((byte) (this.hit ? 1 : 0));
+        buffer.putInt(this.entities.size());
+        for (int i = 0; i < this.entities.size(); i++) {
+            int slot = this.entities.getLiveSlot(i);
+            buffer.put((byte) this.entities.getKind(slot).ordinal());
+            buffer.putDouble(this.entities.getPreviousX(slot));
+            buffer.putDouble(this.entities.getPreviousY(slot));
+            buffer.putDouble(this.entities.getX(slot));
+            buffer.putDouble(this.entities.getY(slot));
+            buffer.putDouble(this.entities.getXVelocity(slot));
+            buffer.putInt(this.entities.getTimer(slot));
+        }
+    }
+
+    /**
+     * This method is called by the PlatformHandler's readState and puts back what writeState wrote. Every
+     * entity in the game is removed, telling the listener, and the snapshot's entities are added in
+     * their place. The next cull walks them all, since where the last one left off is not saved.
+     */
+    void readState(ByteBuffer buffer) {
+        while (this.entities.size() > 0) {
+            this.despawn(this.entities.getLiveSlot(this.entities.size() - 1));
+        }
+        this.culledBottom = Double.NaN;
+        this.boostTicks = buffer.getInt();
+        this.hit = buffer.get() != 0;
+        EntityKind[] kinds = EntityKind.values();
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            EntityKind kind = kinds[buffer.get()];
+            int slot = this.addEntity(kind, buffer.getDouble(), buffer.getDouble());
+            double x = this.entities.getX(slot);
+            double y = this.entities.getY(slot);
+            this.entities.moveTo(slot, buffer.getDouble(), buffer.getDouble());
+            this.index.moveEntity(slot, x, y);
+            this.entities.setXVelocity(slot, buffer.getDouble());
+            this.entities.setTimer(slot, buffer.getInt());
+        }
+    }
+
+    /**
+     * This accessor method returns true once the Doodle has touched a hazard.
+     */
+    public boolean isHit() {
+        return this.hit;
+    }
+
+    /**
+     * This accessor method returns the EntityStore that holds every entity's data, so that renderers
+     * can read their positions and kinds.
+     */
+    public EntityStore getEntities() {
+        return this.entities;
+    }
+}
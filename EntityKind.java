@@ -0,0 +1,157 @@
+package doodlejump;
+
+/**
+ * This EntityKind enum lists the things besides Platforms that can appear in the level: pickups
+ * (springs and jetpacks) and hazards (monsters and the projectiles they fire). Like PlatformKind, each
+ * kind is pure data describing what an entity of that kind does, and the EntityHandler's systems only
+ * ever read this data:
+ * <pre>
+ *   width, height   its bounding box (UNITS: pixels)
+ *   xSpeed, ySpeed  how fast it moves (UNITS: pixels/s); a monster bounces between the walls and a
+ *                   projectile falls
+ *   rebound         the velocity the Doodle bounces off with when it lands on top, or 0
+ *   boostTicks      how long a jetpack burns once touched, or 0
+ *   hazard          whether touching it (other than by landing on top) ends the game
+ *   consumed        whether it leaves the game once it has done its thing
+ *   fireTicks       ticks between the shots of a monster, or 0
+ *   color           what it is drawn in, as 0xRRGGBB
+ * </pre>
+ * A new pickup or enemy is a new constant here.
+ */
+public enum EntityKind {
+    SPRING(16, 10, 0, 0, Constants.SPRING_REBOUND_VELOCITY, 0, false, false, 0, 0xFAD65C),
+    JETPACK(20, 28, 0, 0, 0, Constants.JETPACK_TICKS, false, true, 0, 0x8CDCFA),
+    MONSTER(36, 30, Constants.MONSTER_SPEED, 0, Constants.REBOUND_VELOCITY, 0, true, true, Constants.MONSTER_FIRE_TICKS, 0xE24848),
+    PROJECTILE(6, 12, 0, Constants.PROJECTILE_SPEED, 0, 0, true, true, 0, 0xFF8C3C);
+
+    /**
+     * The largest width and height of any kind, so that the PlatformIndex knows how far from an entity's
+     * corner it can reach, and the fastest any kind falls, so that the EntityHandler knows how far below
+     * the screen an entity can have got in one tick.
+     */
+    public static final double MAX_WIDTH;
+    public static final double MAX_HEIGHT;
+    public static final double MAX_Y_SPEED;
+
+    static {
+        double width = 0;
+        double height = 0;
+        double ySpeed = 0;
+        for (EntityKind kind : values()) {
+            width = Math.max(width, kind.width);
+            height = Math.max(height, kind.height);
+            ySpeed = Math.max(ySpeed, kind.ySpeed);
+        }
+        MAX_WIDTH = width;
+        MAX_HEIGHT = height;
+        MAX_Y_SPEED = ySpeed;
+    }
+
+    private final double width;
+    private final double height;
+    private final double xSpeed;
+    private final double ySpeed;
+    private final double rebound;
+    private final int boostTicks;
+    private final boolean hazard;
+    private final boolean consumed;
+    private final int fireTicks;
+    private final int color;
+
+    EntityKind(double width, double height, double xSpeed, double ySpeed, double rebound, int boostTicks,
+               boolean hazard, boolean consumed, int fireTicks, int color) {
+        this.width = width;
+        this.height = height;
+        this.xSpeed = xSpeed;
+        this.ySpeed = ySpeed;
+        this.rebound = rebound;
+        this.boostTicks = boostTicks;
+        this.hazard = hazard;
+        this.consumed = consumed;
+        this.fireTicks = fireTicks;
+        this.color = color;
+    }
+
+    /**
+     * This accessor method returns the width of an entity of this kind (UNITS: pixels).
+     */
+    public double getWidth() {
+        return this.width;
+    }
+
+    /**
+     * This accessor method returns the height of an entity of this kind (UNITS: pixels).
+     */
+    public double getHeight() {
+        return this.height;
+    }
+
+    /**
+     * This accessor method returns how fast an entity of this kind moves sideways, or 0
+     * (UNITS: pixels/s).
+     */
+    public double getXSpeed() {
+        return this.xSpeed;
+    }
+
+    /**
+     * This accessor method returns how fast an entity of this kind falls, or 0 (UNITS: pixels/s).
+     */
+    public double getYSpeed() {
+        return this.ySpeed;
+    }
+
+    /**
+     * This accessor method returns whether entities of this kind move, and so belong to the
+     * EntityStore's motion set.
+     */
+    public boolean isMoving() {
+        return this.xSpeed != 0 || this.ySpeed != 0;
+    }
+
+    /**
+     * This accessor method returns the velocity the Doodle bounces off with when it lands on top of an
+     * entity of this kind, or 0 if it does not bounce.
+     */
+    public double getRebound() {
+        return this.rebound;
+    }
+
+    /**
+     * This accessor method returns how many ticks a jetpack of this kind burns for once touched, or 0.
+     */
+    public int getBoostTicks() {
+        return this.boostTicks;
+    }
+
+    /**
+     * This accessor method returns whether touching an entity of this kind, other than by landing on
+     * top, ends the game.
+     */
+    public boolean isHazard() {
+        return this.hazard;
+    }
+
+    /**
+     * This accessor method returns whether an entity of this kind leaves the game once it has done its
+     * thing.
+     */
+    public boolean isConsumed() {
+        return this.consumed;
+    }
+
+    /**
+     * This accessor method returns how many ticks an entity of this kind waits between shots, or 0 if
+     * it never fires.
+     */
+    public int getFireTicks() {
+        return this.fireTicks;
+    }
+
+    /**
+     * This accessor method returns the color an entity of this kind is drawn in, as 0xRRGGBB.
+     */
+    public int getColor() {
+        return this.color;
+    }
+}
@@ -0,0 +1,247 @@
+package doodlejump;
+
+import java.util.Arrays;
+
+/**
+ * This EntityStore class holds the data of every pickup and hazard in the World, in parallel primitive
+ * arrays indexed by slot: the EntityKind's ordinal, the world coordinates of the entity's top-left
+ * corner and where it was before the latest tick, its horizontal velocity, a countdown used by
+ * monsters to time their shots, and a generation number that goes up every time the slot is reused,
+ * so that something following the store (the StateEncoder) can tell a new entity from an old one in
+ * the same slot. Slots are handed out from a free list and given back on despawn, so once the store is
+ * as large as the busiest moment of a game, spawning and despawning allocate nothing, however many
+ * projectiles are flying.
+ * Two ComponentSets index the slots: the live set holds every entity, and the motion set only those
+ * whose kind moves, so the movement system walks exactly the monsters and projectiles and never a
+ * spring.
+ */
+public class EntityStore {
+    private static final int INITIAL_CAPACITY = 64; // must be a power of two
+    private static final byte EMPTY = -1;
+    private static final EntityKind[] KINDS = EntityKind.values();
+
+    private byte[] kinds;
+    private double[] xs;
+    private double[] ys;
+    private double[] previousXs;
+    private double[] previousYs;
+    private double[] xVelocities;
+    private int[] timers;
+    private int[] generations;
+    private int[] free;
+    private int freeCount;
+    private ComponentSet live;
+    private ComponentSet motion;
+
+    /**
+     * This EntityStore constructor creates an empty store.
+     */
+    public EntityStore() {
+        this.allocate(INITIAL_CAPACITY);
+        this.live = new ComponentSet(INITIAL_CAPACITY);
+        this.motion = new ComponentSet(INITIAL_CAPACITY);
+    }
+
+    /**
+     * This method puts a new entity of the given kind with its top-left corner at the given world
+     * coordinates into a free slot, and returns the slot. A monster starts out moving right, with a full
+     * countdown to its first shot.
+     */
+    public int spawn(EntityKind kind, double xLocation, double yLocation) {
+        if (this.freeCount == 0) {
+            this.grow();
+        }
+        int slot = this.free[--this.freeCount];
+        this.kinds[slot] = (byte) kind.ordinal();
+        this.xs[slot] = xLocation;
+        this.ys[slot] = yLocation;
+        this.previousXs[slot] = xLocation;
+        this.previousYs[slot] = yLocation;
+        this.xVelocities[slot] = kind.getXSpeed();
+        this.timers[slot] = kind.getFireTicks();
+        this.generations[slot]++;
+        this.live.add(slot);
+        if (kind.isMoving()) {
+            this.motion.add(slot);
+        }
+        return slot;
+    }
+
+    /**
+     * This method takes the entity in the given slot out of the store and frees the slot.
+     */
+    public void despawn(int slot) {
+        this.kinds[slot] = EMPTY;
+        this.live.remove(slot);
+        this.motion.remove(slot);
+        this.free[this.freeCount++] = slot;
+    }
+
+    /**
+     * This mutator method moves the entity in the given slot, remembering where it was.
+     */
+    public void moveTo(int slot, double xLocation, double yLocation) {
+        this.previousXs[slot] = this.xs[slot];
+        this.previousYs[slot] = this.ys[slot];
+        this.xs[slot] = xLocation;
+        this.ys[slot] = yLocation;
+    }
+
+    /**
+     * This accessor method returns the EntityKind in the given slot, or null if it is free.
+     */
+    public EntityKind getKind(int slot) {
+        byte kind = this.kinds[slot];
+        return kind == EMPTY ? null : KINDS[kind];
+    }
+
+    /**
+     * This accessor method returns the world x-location of the left side of the entity in the given
+     * slot.
+     */
+    public double getX(int slot) {
+        return this.xs[slot];
+    }
+
+    /**
+     * This accessor method returns the world y-location of the top of the entity in the given slot.
+     */
+    public double getY(int slot) {
+        return this.ys[slot];
+    }
+
+    /**
+     * This accessor method returns the x-location of the entity in the given slot before its latest
+     * move.
+     */
+    public double getPreviousX(int slot) {
+        return this.previousXs[slot];
+    }
+
+    /**
+     * This accessor method returns the y-location of the entity in the given slot before its latest
+     * move.
+     */
+    public double getPreviousY(int slot) {
+        return this.previousYs[slot];
+    }
+
+    /**
+     * This accessor method returns the horizontal velocity of the entity in the given slot
+     * (UNITS: pixels/s, positive is right).
+     */
+    public double getXVelocity(int slot) {
+        return this.xVelocities[slot];
+    }
+
+    /**
+     * This mutator method is called by the EntityHandler when a monster turns around at a wall, and when
+     * an entity is restored from a WorldSnapshot.
+     */
+    void setXVelocity(int slot, double velocity) {
+        this.xVelocities[slot] = velocity;
+    }
+
+    /**
+     * This accessor method returns the countdown of the entity in the given slot, in ticks.
+     */
+    public int getTimer(int slot) {
+        return this.timers[slot];
+    }
+
+    /**
+     * This mutator method is called by the EntityHandler as a monster counts down to its next shot, and
+     * when an entity is restored from a WorldSnapshot.
+     */
+    void setTimer(int slot, int ticks) {
+        this.timers[slot] = ticks;
+    }
+
+    /**
+     * This accessor method returns how many entities have been put in the given slot so far.
+     */
+    public int getGeneration(int slot) {
+        return this.generations[slot];
+    }
+
+    /**
+     * This accessor method returns how many entities are in the store.
+     */
+    public int size() {
+        return this.live.size();
+    }
+
+    /**
+     * This accessor method returns the slot of the index-th entity, for index from 0 to size; the
+     * order is arbitrary, and changes when an entity is despawned.
+     */
+    public int getLiveSlot(int index) {
+        return this.live.get(index);
+    }
+
+    /**
+     * This accessor method returns how many entities move.
+     */
+    public int getMovingCount() {
+        return this.motion.size();
+    }
+
+    /**
+     * This accessor method returns the slot of the index-th moving entity, for index from 0 to
+     * getMovingCount.
+     */
+    public int getMovingSlot(int index) {
+        return this.motion.get(index);
+    }
+
+    /**
+     * This accessor method returns how many slots the store has, free or not.
+     */
+    public int capacity() {
+        return this.kinds.length;
+    }
+
+    /**
+     * This helper method creates empty arrays of the given capacity, with every slot free.
+     */
+    private void allocate(int capacity) {
+        this.kinds = new byte[capacity];
+        Arrays.fill(this.kinds, EMPTY);
+        this.xs = new double[capacity];
+        this.ys = new double[capacity];
+        this.previousXs = new double[capacity];
+        this.previousYs = new double[capacity];
+        this.xVelocities = new double[capacity];
+        this.timers = new int[capacity];
+        this.generations = new int[capacity];
+        this.free = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            this.free[i] = capacity - 1 - i; // low slots first
+        }
+        this.freeCount = capacity;
+    }
+
+    /**
+     * This helper method doubles the number of slots, keeping every entity in its slot, and resizes the
+     * ComponentSets to match.
+     */
+    private void grow() {
+        int oldCapacity = this.kinds.length;
+        int capacity = oldCapacity * 2;
+        this.kinds = Arrays.copyOf(this.kinds, capacity);
+        Arrays.fill(this.kinds, oldCapacity, capacity, EMPTY);
+        this.xs = Arrays.copyOf(this.xs, capacity);
+        this.ys = Arrays.copyOf(this.ys, capacity);
+        this.previousXs = Arrays.copyOf(this.previousXs, capacity);
+        this.previousYs = Arrays.copyOf(this.previousYs, capacity);
+        this.xVelocities = Arrays.copyOf(this.xVelocities, capacity);
+        this.timers = Arrays.copyOf(this.timers, capacity);
+        this.generations = Arrays.copyOf(this.generations, capacity);
+        this.free = new int[capacity];
+        for (int i = oldCapacity; i < capacity; i++) {
+            this.free[this.freeCount++] = capacity - 1 - (i - oldCapacity);
+        }
+        this.live.resize(capacity);
+        this.motion.resize(capacity);
+    }
+}
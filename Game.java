@@ -1,9 +1,5 @@
 package doodlejump;
 
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.event.ActionEvent;
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
 import javafx.scene.input.KeyCode;
@@ -14,8 +10,11 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontPosture;
 import javafx.scene.text.FontWeight;
-import javafx.util.Duration;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import javax.management.JMException;
 
 /**
  * This top-level logic class Game handles the user interaction and general
@@ -23,118 +22,285 @@ import java.util.ArrayList;
  * class is contained by the PaneOrganizer and contains its constructor, three
  * private helper methods that allow components of the game to move (startGame),
  * handle the logic of ending the game (endGame), and set up the "game over"
- * message when the game ends (setupLabel). The class also contains a method
- * to handle user key input (onKeyPress) and update the position of the
- * Doodle with the Timeline (update).
+ * message when the game ends (setupLabel). The class also contains methods
+ * to handle user key input (onKeyPress and onKeyRelease), and methods that the GameLoop calls to advance the World by
+ * one fixed step (update) and to draw a frame (render). All of the game's physics live in the headless World;
+ * Game only drives it and asks its GameRenderer to draw the result: a PaneRenderer, or a
+ * CanvasRenderer when the doodlejump.renderer system property is "canvas". Every tick is timed
+ * by a TickStats, which is visible over JMX and, if the doodlejump.stats.file system property
+ * is set, dumped to that file every doodlejump.stats.interval seconds (10 by default). The score is
+ * shown in the PaneOrganizer's ScoreDisplay, which is handed the World's score once per frame. If the
+ * doodlejump.snapshot.file system property is set, a game that is quit part-way through is saved there
+ * as a WorldSnapshot (saveSnapshot) and the next game resumes it.
  */
 public class Game {
     private Pane gamePane;
-    private Doodle doodle;
-    private ArrayList<Platform> platforms;
-    private PlatformHandler platformHandler;
-    private Timeline timeline;
+    private World world;
+    private GameRenderer renderer;
+    private ReplayRecorder recorder;
+    private TickStats stats;
+    private TickStatsDumper statsDumper;
+    private GameLoop loop;
+    private ScoreDisplay scoreDisplay;
+    private AssetLoader assets;
+    private InputState input;
+    private Path snapshotFile;
 
     /**
      * This Game constructor is called in the PaneOrganizer constructor in order to let
      * the DoodleJump game logically begin. The Game is associated with the gamePane instantiated
-     * in the PaneOrganizer, and the PaneOrganizer is also passed in as an arugment so that it
-     * can be associated with the PlatformHandler. The method creates a new ArrayList instance to assign
-     * to an instance variable, a PlatformHandler and Doodle that are assigned to an instance variable,
-     * and a new RegularPlatform on which the Doodle starts bouncing on. This is declared as a
-     * Platform so that the Platform declaration can be used polymorphically later
-     * when generating new platforms. The platform is then added to the ArrayList, and the Doodle is
-     * manually associated with the PlatformHandler using addDoodle. Finally, the doodle is graphically
-     * added to the gamePane and the startGame helper method is called.
+     * in the PaneOrganizer, and the PaneOrganizer is also passed in as an arugment so that the Game
+     * can show the score in its ScoreDisplay and report how long its AssetLoader took. The method creates the GameRenderer that draws the game onto the
+     * gamePane (see createRenderer), then the World that holds the Doodle and Platforms, passing it the renderer so that
+     * the starting platforms appear graphically as they are generated, and so that the level ahead is
+     * laid out on a background thread rather than during a tick (see createWorld). A ReplayRecorder is
+     * started with the World's seed so that the game can be replayed, unless the World was resumed from
+     * a snapshot (a replay has to start from the beginning), and the World is given a TickStats
+     * (see setupStats). Finally, the startGame
+     * helper method is called.
      */
     public Game(Pane gamePane, PaneOrganizer organizer) {
         this.gamePane = gamePane;
-        this.platforms = new ArrayList<>();
-        Platform platform = new RegularPlatform(gamePane, Constants.STARTING_PLATFORM_XLOC, Constants.STARTING_PLATFORM_YLOC);
-        this.platforms.add(platform);
-        this.platformHandler = new PlatformHandler(platform, this.platforms, this.gamePane, organizer);
-        this.doodle = new Doodle(this.platformHandler);
-        this.platformHandler.addDoodle(this.doodle);
-        this.gamePane.getChildren().addAll(this.doodle.getDoodleRect());
+        this.scoreDisplay = organizer.getScoreDisplay();
+        this.assets = organizer.getAssets();
+        this.input = new InputState();
+        this.renderer = this.createRenderer(gamePane);
+        String snapshot = System.getProperty("doodlejump.snapshot.file");
+        this.snapshotFile = snapshot == null ? null : Paths.get(snapshot);
+        this.world = this.createWorld();
+        if (this.world.getTicks() == 0) {
+            this.recorder = new ReplayRecorder(this.world.getSeed());
+        }
+        this.setupStats();
+        this.render(1);
         this.startGame();
     }
 
     /**
-     * This helper method is called in the Game constructor and has no parameters. It creates the
-     * Timeline and KeyFrame associated with the Doodle's vertical movement, calling the update helper
-     * method every set duration. The timeline's cycle count is set to indefinite and the
-     * PlatformHandler's generatePlatforms method is called to fill the screen with semi-randomly
-     * generated platforms.
+     * This helper method is called in the Game constructor and returns the GameRenderer named by the
+     * doodlejump.renderer system property: "canvas" draws the game into one Canvas with pre-rendered
+     * platform sprites, which is much faster without a GPU, and anything else (or nothing) keeps the
+     * node-per-platform PaneRenderer.
+     */
+    private GameRenderer createRenderer(Pane gamePane) {
+        if ("canvas".equals(System.getProperty("doodlejump.renderer"))) {
+            return new CanvasRenderer(gamePane);
+        }
+        return new PaneRenderer(gamePane);
+    }
+
+    /**
+     * This helper method is called in the Game constructor and returns the World to play: the one saved
+     * in the snapshot file if there is one, and otherwise a new World with a seed taken from the clock. A
+     * snapshot that cannot be read is reported and a new game is started instead.
+     */
+    private World createWorld() {
+        if (this.snapshotFile != null && Files.exists(this.snapshotFile)) {
+            try {
+                return WorldSnapshot.load(this.snapshotFile, this.renderer, true);
+            } catch (IOException e) {
+                System.err.println("Could not resume saved game: " + e.getMessage());
+            }
+        }
+        return new World(System.nanoTime(), this.renderer, true);
+    }
+
+    /**
+     * This method is called by the PaneOrganizer when the application is closing. If the game is still
+     * being played and the doodlejump.snapshot.file system property is set, the World is saved there so
+     * the next game resumes it. A game that has ended has already deleted its snapshot (see endGame).
+     */
+    public void saveSnapshot() {
+        if (this.snapshotFile == null || this.world.isGameOver()) {
+            return;
+        }
+        try {
+            new WorldSnapshot().save(this.world, this.snapshotFile);
+        } catch (IOException e) {
+            System.err.println("Could not save game: " + e.getMessage());
+        }
+    }
+
+    /**
+     * This helper method is called in the Game constructor. It creates the TickStats that times every
+     * tick of the World and registers it with JMX, then, if the doodlejump.stats.file system property
+     * is set, starts a TickStatsDumper writing it to that file. Failing to register with JMX is
+     * reported but does not stop the game.
+     */
+    private void setupStats() {
+        this.stats = new TickStats();
+        this.world.setTickStats(this.stats);
+        try {
+            this.stats.registerMBean();
+        } catch (JMException e) {
+            System.err.println("Could not register tick stats: " + e.getMessage());
+        }
+        String file = System.getProperty("doodlejump.stats.file");
+        if (file != null) {
+            long intervalSeconds = Long.getLong("doodlejump.stats.interval", 10);
+            this.statsDumper = new TickStatsDumper(this.stats, Paths.get(file), intervalSeconds * 1000);
+            this.statsDumper.start();
+        }
+    }
+
+    /**
+     * This helper method is called in the Game constructor and has no parameters. It creates and
+     * starts the GameLoop, which calls update once every DURATION of real time and render once per
+     * displayed frame. The World has
+     * already filled the screen with semi-randomly generated platforms in its constructor.
      */
    private void startGame() {
-        KeyFrame kf = new KeyFrame(Duration.seconds(Constants.DURATION),
-                (ActionEvent e) -> this.update());
-       this.timeline = new Timeline(kf);
-       this.timeline.setCycleCount(Animation.INDEFINITE);
-       this.timeline.play();
-       this.platformHandler.generatePlatforms();
+       this.loop = new GameLoop(this);
+       this.loop.start();
    }
 
    /**
      * This method is called when setting up the KeyEvent using a lambda expression in gamePane,
-    * within the PaneOrganizer constructor. Using a switch statement, the method handles the left
-    * and right movement of the Doodle object by calling Doodle's moveLeft
-    * and moveRight method corresponding with the key pressed. The method exits the switch statement
-    * and calls the Doodle's checkWrap method to check for and handle the doodle moving offscreen
-    * such that the doodle graphically wraps back around the screen.
+    * within the PaneOrganizer constructor. The left and right arrow keys are marked as held in the
+    * InputState; the Doodle itself does not move until the next tick reads them (see update).
     */
    public void onKeyPress(KeyEvent event) {
-        KeyCode keyPressed = event.getCode();
-        switch (keyPressed) {
+        Move move = this.moveOf(event.getCode());
+        if (move != null) {
+            this.input.press(move);
+        }
+        event.consume();
+   }
+
+   /**
+     * This method is called when setting up the KeyEvent for released keys in the PaneOrganizer
+     * constructor, and marks the left or right arrow key as no longer held in the InputState.
+     */
+   public void onKeyRelease(KeyEvent event) {
+        Move move = this.moveOf(event.getCode());
+        if (move != null) {
+            this.input.release(move);
+        }
+        event.consume();
+   }
+
+   /**
+     * This helper method is called in onKeyPress and onKeyRelease. Using a switch statement, it turns
+     * the left and right arrow keys into the matching Move, and any other key into null.
+     */
+   private Move moveOf(KeyCode keyCode) {
+        Move move;
+        switch (keyCode) {
             case LEFT:
-                this.doodle.moveLeft();
+                move = Move.LEFT;
                 break;
             case RIGHT:
-                this.doodle.moveRight();
+                move = Move.RIGHT;
                 break;
             default:
+                move = null;
                 break;
         }
-        this.doodle.checkWrap();
-
-        event.consume();
+        return move;
    }
 
     /**
-     * This method is called in the startGame method of the Game class while setting up the Timeline's
-     * KeyFrame such that every set duration, this update method is called. This method calls Doodle's
-     * updatePosition method to move the Doodle according to gravity/interactions with Platforms,
-     * then checks whether the Doodle has fallen offscreen--if so, the helper method
-     * endGame is called to graphically and logically end the game.
+     * This method is called by the GameLoop once for every DURATION of real time that has passed. This
+     * method first polls the InputState for the arrow keys held during this tick and hands them to the
+     * World, recording them, stamped with the number of ticks the World has run, if they changed. It then
+     * calls the World's update method to move the Doodle according to gravity/interactions with
+     * Platforms, and passes the GameRenderer's Rectangle hit rate, the GameLoop's dropped steps and the
+     * time the AssetLoader has spent loading images on to the TickStats, then checks whether the Doodle has fallen offscreen--if so, the helper method
+     * endGame is called to graphically end the game.
      */
    public void update() {
-       this.doodle.updatePosition();
-       if (this.doodle.checkOffScreen()) {
+       int held = this.input.poll();
+       if (held != this.world.getInput()) {
+           if (this.recorder != null) {
+               this.recorder.record(this.world.getTicks(), held);
+           }
+           this.world.setInput(held);
+       }
+       this.world.update();
+       this.stats.setRectHitRate(this.renderer.getRectHitRate());
+       this.stats.setDroppedSteps(this.loop.getDroppedSteps());
+       this.stats.setAssetLoadNanos(this.assets.getLoadNanos());
+       if (this.world.isGameOver()) {
            this.endGame();
        }
    }
 
+    /**
+     * This method is called by the GameLoop once per displayed frame, and asks the GameRenderer to
+     * draw the World. alpha is how far (from 0 to 1) real time has got from the latest tick towards
+     * the next one, and is used to interpolate between the last two ticks. The World's score is then
+     * handed to the ScoreDisplay, which only redraws if it has changed since the last frame.
+     */
+   public void render(double alpha) {
+       this.renderer.render(this.world, alpha);
+       this.scoreDisplay.show(this.world.getScore());
+   }
+
+    /**
+     * This accessor method returns true once the game has ended.
+     */
+   public boolean isOver() {
+       return this.world.isGameOver();
+   }
+
     /**
      * This private helper method is called in the Game class's update method above, and handles what
      * happens in the application when the player's Doodle falls offscreen. Firstly,
-     * the Doodle's Rectangle is graphically removed from the gamePane such that it no longer
-     * would appear, then the Doodle's timeline is stopped so it no longer reacts to gravity.
-     * The method then uses a for-loop to iterate through the ArrayList of Platforms in order to check
-     * for MovingPlatforms. When one is detected using the isMoving boolean that was passed in upon
-     * the Platform's construction, the Timeline of that platform is stopped. Finally, the helper
-     * method setupLabel is called to allow the game
-     * over message to appear onscreen.
+     * the GameLoop is stopped so the Doodle no longer reacts to gravity, then the
+     * GameRenderer's stop method graphically removes the Doodle. The replay recording is finished and, if the doodlejump.replay.dir system
+     * property names a directory, saved there, and a last tick stats dump is written if the stats are
+     * being dumped to a file. A saved snapshot of this game is deleted, since there is nothing left to
+     * resume. Finally, the helper method setupLabel is called to
+     * allow the game over message to appear onscreen.
      */
    private void endGame() {
-       this.gamePane.getChildren().remove(this.doodle.getDoodleRect());
-       this.timeline.stop();
-       for (Platform currentPlatform: this.platforms) {
-           if (currentPlatform.isMoving) {
-               currentPlatform.getTimeline().stop();
-           }
+       this.loop.stop();
+       this.world.close();
+       this.renderer.stop();
+       this.saveReplay();
+       this.deleteSnapshot();
+       if (this.statsDumper != null) {
+           this.statsDumper.stop();
        }
        this.setupLabel();
    }
 
+    /**
+     * This helper method is called in endGame. It finishes the replay recording and writes it to
+     * replay-SEED.djr in the directory named by the doodlejump.replay.dir system property, if set.
+     * A replay that cannot be written is reported but does not stop the game.
+     */
+   private void saveReplay() {
+       if (this.recorder == null) {
+           return;
+       }
+       this.recorder.finish(this.world.getTicks(), this.world.getScore());
+       String dir = System.getProperty("doodlejump.replay.dir");
+       if (dir == null) {
+           return;
+       }
+       try {
+           this.recorder.save(Paths.get(dir, "replay-" + this.world.getSeed() + ".djr"));
+       } catch (IOException e) {
+           System.err.println("Could not save replay: " + e.getMessage());
+       }
+   }
+
+    /**
+     * This helper method is called in endGame, and deletes the snapshot file if there is one. A file
+     * that cannot be deleted is reported but does not stop the game.
+     */
+   private void deleteSnapshot() {
+       if (this.snapshotFile == null) {
+           return;
+       }
+       try {
+           Files.deleteIfExists(this.snapshotFile);
+       } catch (IOException e) {
+           System.err.println("Could not delete saved game: " + e.getMessage());
+       }
+   }
+
     /**
      * This helper method is called in the endGame method, and displays the "Game Over"
      * message when the user's Doodle falls off the screen. The method creates a new instance of
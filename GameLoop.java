@@ -0,0 +1,77 @@
+package doodlejump;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * This GameLoop class runs the Game from an AnimationTimer, which JavaFX calls once per frame at the
+ * display's refresh rate, instead of a Timeline firing every DURATION. Physics and drawing are
+ * decoupled: the real time that has passed is added to an accumulator, and the World is advanced in
+ * fixed steps of exactly Constants.DURATION until less than a step is left over, so the game runs at
+ * the same speed on a 30 Hz or a 144 Hz display and under load. The frame is then drawn with the
+ * leftover fraction of a step, which the GameRenderer uses to interpolate between the last two
+ * physics states, so motion is smooth even when a frame falls between two ticks.
+ * If a frame comes very late (the window was dragged, or the machine stalled), at most
+ * MAX_STEPS_PER_FRAME steps are run to catch up and the rest of the lost time is dropped, rather than
+ * the game freezing while it simulates the whole gap. How many steps have been dropped is passed on
+ * to the Game's TickStats, so stalls show up over JMX and in the stats dump.
+ */
+public class GameLoop extends AnimationTimer {
+    private static final long STEP_NANOS = Math.round(Constants.DURATION * 1e9);
+    private static final int MAX_STEPS_PER_FRAME = 8;
+
+    private Game game;
+    private long lastFrame;
+    private long accumulator;
+    private long droppedSteps;
+
+    /**
+     * This GameLoop constructor is called in the Game's startGame method. The loop does nothing until
+     * start is called.
+     */
+    public GameLoop(Game game) {
+        this.game = game;
+        this.lastFrame = -1;
+    }
+
+    /**
+     * This method is called by JavaFX once per frame with the frame's timestamp in nanoseconds. It
+     * adds the time since the last frame to the accumulator, runs as many fixed steps as it covers
+     * (at most MAX_STEPS_PER_FRAME, dropping anything beyond that), stopping early if the game ends,
+     * and then asks the Game to draw the frame interpolated by the fraction of a step left over. Only
+     * time left over because the frame hit MAX_STEPS_PER_FRAME counts as dropped: once the game is over
+     * the accumulator is simply cleared and the final tick is drawn as it is.
+     */
+    @Override
+    public void handle(long now) {
+        if (this.lastFrame < 0) {
+            this.lastFrame = now;
+        }
+        this.accumulator += now - this.lastFrame;
+        this.lastFrame = now;
+
+        int steps = 0;
+        while (this.accumulator >= STEP_NANOS && steps < MAX_STEPS_PER_FRAME && !this.game.isOver()) {
+            this.game.update();
+            this.accumulator -= STEP_NANOS;
+            steps++;
+        }
+        if (this.game.isOver()) {
+            this.accumulator = 0;
+            this.game.render(1);
+            return;
+        }
+        if (steps == MAX_STEPS_PER_FRAME && this.accumulator >= STEP_NANOS) {
+            this.droppedSteps += this.accumulator / STEP_NANOS;
+            this.accumulator %= STEP_NANOS;
+        }
+        this.game.render((double) this.accumulator / STEP_NANOS);
+    }
+
+    /**
+     * This accessor method returns how many steps' worth of time have been dropped because frames
+     * came too late to catch up on.
+     */
+    public long getDroppedSteps() {
+        return this.droppedSteps;
+    }
+}
@@ -0,0 +1,65 @@
+package doodlejump;
+
+/**
+ * This GameRandom class is the seeded random number generator behind everything random in a game. The
+ * PlatformGenerator makes a new one for every PlatformChunk, seeded with seedFor from the World's seed
+ * and the chunk's index, so a chunk's layout does not depend on how many numbers the chunks before it
+ * drew, and the World itself keeps no generator state at all; the BatchSimulator derives each game's
+ * seed with seedFor too, and the RandomAgent draws its keys from one. It uses the SplitMix64 algorithm
+ * (the same one behind java.util.SplittableRandom), which is fast, shares nothing between threads, and
+ * always produces the same sequence for the same seed, so a game can be reproduced exactly.
+ */
+public class GameRandom {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private long state;
+
+    /**
+     * This GameRandom constructor seeds the generator. Two GameRandoms built with the same seed
+     * return exactly the same numbers.
+     */
+    public GameRandom(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * This method returns a uniformly distributed double between 0 (inclusive) and 1 (exclusive).
+     */
+    public double nextDouble() {
+        return (mix64(this.nextSeed()) >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * This method returns a uniformly distributed int between 0 (inclusive) and bound (exclusive).
+     */
+    public int nextInt(int bound) {
+        return (int) (this.nextDouble() * bound);
+    }
+
+    /**
+     * This method returns a uniformly distributed long.
+     */
+    public long nextLong() {
+        return mix64(this.nextSeed());
+    }
+
+    /**
+     * This static helper method derives the seed of the index-th game in a batch from the batch's
+     * base seed, so that neighbouring games get unrelated sequences.
+     */
+    public static long seedFor(long baseSeed, int index) {
+        return mix64(baseSeed + (index + 1) * GOLDEN_GAMMA);
+    }
+
+    private long nextSeed() {
+        this.state += GOLDEN_GAMMA;
+        return this.state;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
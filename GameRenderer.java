@@ -0,0 +1,33 @@
+package doodlejump;
+
+/**
+ * This GameRenderer interface is what the Game needs from whatever draws the World: it is a
+ * WorldListener, so it hears about Platforms and the score as they change, and it draws the World
+ * after every tick (render) and once more when the game ends (stop). There are two: the
+ * PaneRenderer, which keeps a Rectangle node per Platform and is the default, and the CanvasRenderer,
+ * which draws everything into one Canvas and is picked with -Ddoodlejump.renderer=canvas.
+ */
+public interface GameRenderer extends WorldListener {
+
+    /**
+     * This method draws the World between its latest two ticks: alpha is 0 for the state after the
+     * tick before last and 1 for the state after the latest tick. The Doodle's height, the camera and
+     * the moving Platforms are interpolated; the Doodle's x-location is not, since it only changes in
+     * steps when the player moves it.
+     */
+    void render(World world, double alpha);
+
+    /**
+     * This method is called once when the game ends, and takes the Doodle off the screen.
+     */
+    void stop();
+
+    /**
+     * This accessor method returns the fraction of Platforms that were drawn with a recycled node
+     * rather than a new one, which the Game reports in its TickStats. A renderer that keeps no node
+     * per Platform, like the CanvasRenderer, returns 0.
+     */
+    default double getRectHitRate() {
+        return 0;
+    }
+}
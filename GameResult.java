@@ -0,0 +1,44 @@
+package doodlejump;
+
+/**
+ * This GameResult class holds the outcome of one headless game run by the BatchSimulator: the
+ * seed the game was played with, the final score, how many ticks the Doodle survived, and why the
+ * game ended. It is a small immutable value, created once per game.
+ */
+public class GameResult {
+    private final long seed;
+    private final int score;
+    private final long ticks;
+    private final DeathCause cause;
+
+    /**
+     * This GameResult constructor is called by the BatchSimulator when a game ends.
+     */
+    public GameResult(long seed, int score, long ticks, DeathCause cause) {
+        this.seed = seed;
+        this.score = score;
+        this.ticks = ticks;
+        this.cause = cause;
+    }
+
+    public long getSeed() {
+        return this.seed;
+    }
+
+    public int getScore() {
+        return this.score;
+    }
+
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    public DeathCause getCause() {
+        return this.cause;
+    }
+
+    @Override
+    public String toString() {
+        return "seed=" + this.seed + " score=" + this.score + " ticks=" + this.ticks + " cause=" + this.cause;
+    }
+}
@@ -0,0 +1,282 @@
+package doodlejump;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This GameServer class hosts many headless games at once for clients on the same machine. Clients
+ * connect over a loopback socket and speak the ServerProtocol: they JOIN a game, send INPUT whenever
+ * the keys they hold change, and are sent a STATE delta every tick.
+ * All networking is done by a single I/O thread with a Selector, which accepts connections, reads
+ * frames, starts Worlds on JOIN and passes INPUT to each session's lock-free InputState. Stepping the
+ * games is done by a fixed pool of TickWorker threads, one per core by default; each session belongs to
+ * the worker at its id modulo the pool size for as long as its game lasts, and that worker also writes
+ * the session's STATE frames. A game is never touched by two tick threads, so the only thing the
+ * threads share is each session's input.
+ */
+public class GameServer implements Runnable {
+    private ServerSocketChannel server;
+    private Selector selector;
+    private TickWorker[] workers;
+    private Thread thread;
+    private SplittableRandom seeds;
+    private int nextId;
+    private AtomicInteger connected;
+    private volatile boolean running;
+
+    /**
+     * This GameServer constructor binds the server socket to the given port on the loopback address
+     * (0 picks a free port; see getPort) and creates the given number of TickWorkers. Nothing runs until
+     * start is called.
+     */
+    public GameServer(int port, int workers) throws IOException {
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        this.server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        this.server.configureBlocking(false);
+        this.server.register(this.selector, SelectionKey.OP_ACCEPT);
+        this.workers = new TickWorker[workers];
+        for (int i = 0; i < workers; i++) {
+            this.workers[i] = new TickWorker(i);
+        }
+        this.seeds = new SplittableRandom();
+        this.connected = new AtomicInteger();
+        this.thread = new Thread(this, "server-io");
+    }
+
+    /**
+     * This method starts the TickWorkers and the I/O thread.
+     */
+    public void start() {
+        this.running = true;
+        for (TickWorker worker : this.workers) {
+            worker.start();
+        }
+        this.thread.start();
+    }
+
+    /**
+     * This method is the I/O thread's loop, which waits for connections and frames until stop is called.
+     */
+    @Override
+    public void run() {
+        try {
+            while (this.running) {
+                this.selector.select(100);
+                Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        this.accept();
+                        continue;
+                    }
+                    if (key.isWritable()) {
+                        this.write(key);
+                    }
+                    if (key.isValid() && key.isReadable()) {
+                        this.read(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * This helper method accepts every pending connection and gives each a ServerSession.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = this.server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            ServerSession session = new ServerSession(this.nextId++, channel);
+            session.setKey(channel.register(this.selector, SelectionKey.OP_READ, session));
+            this.connected.incrementAndGet();
+        }
+    }
+
+    /**
+     * This helper method reads what the client sent and handles each whole frame. A client that
+     * disconnects, or sends something that is not the ServerProtocol, is closed.
+     */
+    private void read(SelectionKey key) {
+        ServerSession session = (ServerSession) key.attachment();
+        ByteBuffer in = session.getInbound();
+        try {
+            if (session.getChannel().read(in) < 0) {
+                this.close(key, session);
+                return;
+            }
+            in.flip();
+            while (ServerProtocol.hasFrame(in)) {
+                int end = ServerProtocol.readFrame(in);
+                this.handle(session, in);
+                if (in.position() != end) {
+                    throw new IllegalArgumentException("Bad frame length");
+                }
+            }
+            in.compact();
+        } catch (IOException | RuntimeException e) {
+            this.close(key, session);
+        }
+    }
+
+    /**
+     * This helper method sends what is left of a finished game's frames once the socket can take more.
+     */
+    private void write(SelectionKey key) {
+        ServerSession session = (ServerSession) key.attachment();
+        try {
+            session.flushPending();
+        } catch (IOException e) {
+            this.close(key, session);
+        }
+    }
+
+    /**
+     * This helper method handles one frame from the given session's client. A JOIN while the session
+     * is still playing, or before the last game's frames have all been sent, is ignored.
+     */
+    private void handle(ServerSession session, ByteBuffer in) throws IOException {
+        int type = in.get();
+        switch (type) {
+            case ServerProtocol.JOIN:
+                long seed = in.getLong();
+                if (!session.isPlaying() && !session.hasPendingOutput()) {
+                    session.start(seed != 0 ? seed : this.seeds.nextLong());
+                    this.workers[Math.floorMod(session.getId(), this.workers.length)].add(session);
+                }
+                break;
+            case ServerProtocol.INPUT:
+                session.getInput().hold(in.get() & (Move.LEFT.bit() | Move.RIGHT.bit()));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown frame type " + type);
+        }
+    }
+
+    /**
+     * This helper method closes a session's connection and forgets it.
+     */
+    private void close(SelectionKey key, ServerSession session) {
+        key.cancel();
+        session.close();
+        this.connected.decrementAndGet();
+    }
+
+    /**
+     * This method stops the I/O thread and the TickWorkers and closes every connection.
+     */
+    public void stop() {
+        this.running = false;
+        this.selector.wakeup();
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (TickWorker worker : this.workers) {
+            worker.stop();
+        }
+        for (SelectionKey key : this.selector.keys()) {
+            if (key.attachment() instanceof ServerSession) {
+                ((ServerSession) key.attachment()).close();
+            }
+        }
+        try {
+            this.selector.close();
+            this.server.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * This accessor method returns the port the server is listening on.
+     */
+    public int getPort() {
+        return this.server.socket().getLocalPort();
+    }
+
+    /**
+     * This accessor method returns how many clients are connected.
+     */
+    public int getConnectedCount() {
+        return this.connected.get();
+    }
+
+    /**
+     * This accessor method returns how many games the TickWorkers ticked in their last passes.
+     */
+    public int getSessionCount() {
+        int count = 0;
+        for (TickWorker worker : this.workers) {
+            count += worker.getSessionCount();
+        }
+        return count;
+    }
+
+    /**
+     * This accessor method returns the server's TickWorkers, so that a load test can read how busy
+     * each one has been.
+     */
+    public TickWorker[] getWorkers() {
+        return this.workers;
+    }
+
+    /**
+     * This method returns a one-line summary of how the TickWorkers are keeping up: how many games
+     * they are running, the slowest worker's 50th and 99th percentile and longest pass, against the
+     * Constants.DURATION each pass has, and how many passes overran.
+     */
+    public String report() {
+        long p50 = 0;
+        long p99 = 0;
+        long max = 0;
+        long overruns = 0;
+        for (TickWorker worker : this.workers) {
+            p50 = Math.max(p50, worker.getPasses().getValueAtPercentile(50));
+            p99 = Math.max(p99, worker.getPasses().getValueAtPercentile(99));
+            max = Math.max(max, worker.getPasses().getMax());
+            overruns += worker.getOverruns();
+        }
+        return String.format("%d games on %d workers, tick pass p50 %.3f ms, p99 %.3f ms, max %.3f ms"
+                        + " (budget %.0f ms), %d overruns",
+                this.getSessionCount(), this.workers.length, p50 / 1e6, p99 / 1e6, max / 1e6,
+                Constants.DURATION * 1e3, overruns);
+    }
+
+    /**
+     * This main method runs a server until it is killed, printing a report every five seconds.
+     * Arguments: port (default 7777) and number of TickWorkers (default one per core).
+     */
+    public static void main(String[] argv) throws IOException, InterruptedException {
+        int port = argv.length > 0 ? Integer.parseInt(argv[0]) : 7777;
+        int workers = argv.length > 1 ? Integer.parseInt(argv[1]) : Runtime.getRuntime().availableProcessors();
+        GameServer server = new GameServer(port, workers);
+        server.start();
+        System.out.println("Listening on " + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort());
+        while (true) {
+            TimeUnit.SECONDS.sleep(5);
+            System.out.println(server.getConnectedCount() + " clients, " + server.report());
+        }
+    }
+}
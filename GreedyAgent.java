@@ -0,0 +1,74 @@
+package doodlejump;
+
+/**
+ * This GreedyAgent class is a baseline Agent that steers for the nearest Platform it could land on,
+ * that is the nearest one whose top is below the Doodle's feet, and holds nothing once it is lined
+ * up with it (within DEAD_ZONE of its centre). disappearing Platforms are only chosen if there is
+ * nothing else in view, since landing on one gives a bounce but leaves nothing to land on next time.
+ * Staying alive comes first, though: if a hazard is above the Doodle within HAZARD_LOOKAHEAD, or level
+ * with it, and less than HAZARD_MARGIN from touching it sideways, the agent steers away from it
+ * instead. A monster below the Doodle's feet while it falls is not avoided, since landing on its head
+ * is a bounce.
+ */
+public class GreedyAgent implements Agent {
+    private static final double DEAD_ZONE = Constants.PLATFORM_WIDTH / 4.0;
+    private static final double HAZARD_LOOKAHEAD = 150; // (UNITS: pixels)
+    private static final double HAZARD_MARGIN = 12; // (UNITS: pixels)
+
+    @Override
+    public int act(Observation observation) {
+        int dodge = this.dodge(observation);
+        if (dodge != 0) {
+            return dodge;
+        }
+        int target = -1;
+        for (int i = 0; i < observation.getPlatformCount(); i++) {
+            if (observation.getPlatformDy(i) < 0) {
+                continue;
+            }
+            if (observation.getPlatformKind(i) != PlatformKind.DISAPPEARING) {
+                target = i;
+                break;
+            }
+            if (target < 0) {
+                target = i;
+            }
+        }
+        if (target < 0) {
+            return 0;
+        }
+        double dx = observation.getPlatformDx(target);
+        if (dx > DEAD_ZONE) {
+            return Move.RIGHT.bit();
+        }
+        if (dx < -DEAD_ZONE) {
+            return Move.LEFT.bit();
+        }
+        return 0;
+    }
+
+    /**
+     * This helper method returns the keys that steer the Doodle away from the nearest hazard in its
+     * way, or 0 if none is. The hazards are observed nearest first, so the first one in the way is the
+     * most urgent.
+     */
+    private int dodge(Observation observation) {
+        boolean falling = observation.getVelocity() > 0;
+        for (int i = 0; i < observation.getHazardCount(); i++) {
+            EntityKind kind = observation.getHazardKind(i);
+            double dx = observation.getHazardDx(i);
+            double dy = observation.getHazardDy(i);
+            double level = (Constants.DOODLE_HEIGHT + kind.getHeight()) / 2;
+            if (dy < -HAZARD_LOOKAHEAD - level || dy > level) {
+                continue;
+            }
+            if (falling && kind.getRebound() != 0 && dy > 0) {
+                continue;
+            }
+            if (Math.abs(dx) < (Constants.DOODLE_WIDTH + kind.getWidth()) / 2 + HAZARD_MARGIN) {
+                return dx > 0 ? Move.LEFT.bit() : Move.RIGHT.bit();
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,14 @@
+package doodlejump;
+
+/**
+ * This IdleAgent class is the simplest baseline Agent: it never touches the keys, so the Doodle only
+ * bounces straight up and down. It is what the BatchSimulator used to measure before it had Agents,
+ * and shows how far the level can be climbed by luck alone.
+ */
+public class IdleAgent implements Agent {
+
+    @Override
+    public int act(Observation observation) {
+        return 0;
+    }
+}
@@ -0,0 +1,63 @@
+package doodlejump;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javafx.scene.image.Image;
+
+/**
+ * This ImageCache class keeps decoded Images in memory, so an asset that is asked for again is not read
+ * and decoded again. The cache has a memory budget: each Image is counted as four bytes per pixel, which
+ * is what JavaFX holds it as once decoded, and when the total goes over the budget the least recently
+ * used Images are dropped until it fits again. An Image bigger than the whole budget is never kept. The
+ * AssetLoader's thread and the FX application thread both use the cache, so every method is
+ * synchronized.
+ */
+public class ImageCache {
+    private long budgetBytes;
+    private long usedBytes;
+    private LinkedHashMap<String, Image> images;
+
+    /**
+     * This ImageCache constructor creates an empty cache that holds at most budgetBytes of Images.
+     */
+    public ImageCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+        this.images = new LinkedHashMap<>(16, 0.75f, true); // access order, least recently used first
+    }
+
+    /**
+     * This method returns the Image cached under the given name, or null if there is none.
+     */
+    public synchronized Image get(String name) {
+        return this.images.get(name);
+    }
+
+    /**
+     * This method caches the Image under the given name, then evicts the least recently used Images
+     * while the cache is over its budget.
+     */
+    public synchronized void put(String name, Image image) {
+        Image previous = this.images.put(name, image);
+        if (previous != null) {
+            this.usedBytes -= sizeOf(previous);
+        }
+        this.usedBytes += sizeOf(image);
+        Iterator<Map.Entry<String, Image>> eldest = this.images.entrySet().iterator();
+        while (this.usedBytes > this.budgetBytes && eldest.hasNext()) {
+            this.usedBytes -= sizeOf(eldest.next().getValue());
+            eldest.remove();
+        }
+    }
+
+    /**
+     * This accessor method returns how many bytes the cached Images take up.
+     */
+    public synchronized long getUsedBytes() {
+        return this.usedBytes;
+    }
+
+    private static long sizeOf(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+}
@@ -0,0 +1,60 @@
+package doodlejump;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This InputState class is the hand-off point between the keyboard and the simulation. The FX event
+ * thread (the single producer) calls press and release as arrow keys go down and up, which only set and
+ * clear bits (see Move.bit); nothing about the Doodle changes until the Game calls poll at the start of
+ * the next tick and hands the result to the World. Movement is therefore tied to the simulation clock
+ * rather than to the keyboard's repeat rate, and the same input int can be recorded in a replay or
+ * produced by headless code. No locks are taken and nothing is allocated: the held keys are one
+ * volatile int written only by the producer, and a second, atomic int latches every key pressed since
+ * the last poll, so that a tap shorter than a tick still moves the Doodle for one tick.
+ */
+public class InputState {
+    private volatile int held;
+    private AtomicInteger pressed;
+
+    /**
+     * This InputState constructor is called in the Game constructor. No keys are held to begin with.
+     */
+    public InputState() {
+        this.held = 0;
+        this.pressed = new AtomicInteger();
+    }
+
+    /**
+     * This method is called by the Game when the key for the given Move goes down (and again on every
+     * key repeat, which changes nothing).
+     */
+    public void press(Move move) {
+        int bit = move.bit();
+        this.held = this.held | bit;
+        this.pressed.accumulateAndGet(bit, (current, added) -> current | added);
+    }
+
+    /**
+     * This method is called by the Game when the key for the given Move comes back up.
+     */
+    public void release(Move move) {
+        this.held = this.held & ~move.bit();
+    }
+
+    /**
+     * This method replaces the held keys with the given input bits all at once, as if every key had
+     * been pressed or released to match. The GameServer calls it with the input a client sends.
+     */
+    public void hold(int input) {
+        this.held = input;
+        this.pressed.accumulateAndGet(input, (current, added) -> current | added);
+    }
+
+    /**
+     * This method is called by the Game once at the start of every tick, and returns the bits of every
+     * Move that is held down now or was pressed since the previous poll.
+     */
+    public int poll() {
+        return this.held | this.pressed.getAndSet(0);
+    }
+}
@@ -0,0 +1,100 @@
+package doodlejump;
+
+/**
+ * This JumpEnvelope class is the set of places the Doodle can get to with one ordinary jump, worked
+ * out once from the same physics the World runs. Starting from a Platform at REBOUND_VELOCITY, the jump
+ * arc is stepped tick by tick exactly like Doodle.applyGravity, and for every whole pixel of rise up to
+ * the top of the arc the table records how many ticks pass before the Doodle's feet come back down
+ * through that height, which is how long the player has to steer sideways at DOODLE_HORIZONTAL_SPEED
+ * before landing there. The table is computed when the class is loaded and only read afterwards, so it
+ * is safe to share between the tick thread and the PlatformGenerator's background thread, and checking a
+ * gap is a couple of array reads. Bouncy rebounds reach further, but are never counted on.
+ * canReach also accounts for the kinds of the two Platforms. From a Platform that stays put the player
+ * can bounce in place as long as they like, so a moving Platform above can be waited for until it comes
+ * round. A disappearing Platform can only be used once: the Doodle jumps from wherever it landed, at
+ * once, and a jump that falls short cannot be tried again. So from a disappearing Platform a jump is only
+ * counted on within DISAPPEARING_SLACK of the full jump, and if it is to a moving Platform, that
+ * Platform may be moving away the whole time the Doodle is in the air, which takes its speed off the
+ * Doodle's.
+ */
+public final class JumpEnvelope {
+    private static final int[] TICKS_TO_LAND; // indexed by rise in whole pixels
+    private static final double MAX_RISE;
+
+    static {
+        double[] heights = new double[256];
+        double velocity = Constants.REBOUND_VELOCITY;
+        int ticks = 0;
+        while (heights[ticks] >= 0) { // step the arc until the feet are back below the Platform
+            velocity += Constants.GRAVITY * Constants.DURATION;
+            heights[ticks + 1] = heights[ticks] - velocity * Constants.DURATION;
+            ticks++;
+        }
+        double peak = 0;
+        for (int tick = 0; tick <= ticks; tick++) {
+            peak = Math.max(peak, heights[tick]);
+        }
+        MAX_RISE = peak;
+        TICKS_TO_LAND = new int[(int) Math.floor(peak) + 1];
+        for (int rise = 0; rise < TICKS_TO_LAND.length; rise++) {
+            int tick = ticks;
+            while (heights[tick - 1] < rise) { // the last tick the feet come down through rise
+                tick--;
+            }
+            TICKS_TO_LAND[rise] = tick;
+        }
+    }
+
+    private JumpEnvelope() {
+    }
+
+    /**
+     * This static method returns the highest the Doodle's feet get above the Platform it jumped from.
+     */
+    public static double getMaxRise() {
+        return MAX_RISE;
+    }
+
+    /**
+     * This static method returns how far apart, horizontally, the left edges of two Platforms can be for
+     * the Doodle to jump from the lower one and land on the other, rise pixels higher, by steering the
+     * whole way. The Doodle may start anywhere on the lower Platform, so the reach is the distance
+     * steered plus a Platform's width. It returns -1 if rise is out of reach altogether.
+     */
+    public static double reach(double rise) {
+        return reach(rise, 0);
+    }
+
+    /**
+     * This static method returns the reach, as reach(rise) does, to a Platform that moves away from the
+     * Doodle at the given speed (UNITS: pixels/s) for the whole jump.
+     */
+    public static double reach(double rise, double drift) {
+        if (rise > MAX_RISE) {
+            return -1;
+        }
+        int ticks = TICKS_TO_LAND[(int) Math.ceil(Math.max(0, Math.min(rise, TICKS_TO_LAND.length - 1)))];
+        return ticks * Constants.DURATION * (Constants.DOODLE_HORIZONTAL_SPEED - drift) + Constants.PLATFORM_WIDTH;
+    }
+
+    /**
+     * This static method returns true if a Platform of kind toKind at (toX, toY) can be reached with one
+     * jump from a Platform of kind fromKind at (fromX, fromY), allowing only the given fraction (from 0
+     * to 1) of the full reach and height, so that a player does not need perfect timing, or only
+     * DISAPPEARING_SLACK of it from a Platform that disappears. A moving Platform is only at (toX, toY)
+     * when it is generated; from a Platform the player cannot wait on, it is taken to be moving away.
+     */
+    public static boolean canReach(double fromX, double fromY, PlatformKind fromKind,
+                                   double toX, double toY, PlatformKind toKind, double slack) {
+        double rise = fromY - toY;
+        boolean once = fromKind.isFragile();
+        double allowed = once ? Math.min(slack, Constants.DISAPPEARING_SLACK) : slack;
+        if (rise > MAX_RISE * allowed) {
+            return false;
+        }
+        if (!once && toKind.getSpeed() != 0) {
+            return true; // the player waits for it to come round
+        }
+        return Math.abs(toX - fromX) <= reach(rise, once ? toKind.getSpeed() : 0) * allowed;
+    }
+}
@@ -0,0 +1,113 @@
+package doodlejump;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This LatencyHistogram class records durations in nanoseconds into log-linear buckets, the way
+ * HdrHistogram does: values below 128 are counted exactly, and every power of two above that is split
+ * into 64 buckets, so any recorded value is reported within 1/64 (about 1.6%) of its real size while the
+ * whole range up to about half an hour fits in a fixed array. Recording is a couple of shifts and one
+ * array write, and never allocates.
+ * A histogram has a single writer (the thread ticking the World). Other threads, such as a JMX client
+ * or the TickStatsDumper, may read it at any time; the counts are published with release writes, so a
+ * reader sees a recent, if not perfectly simultaneous, picture.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // 64 buckets per power of two
+    private static final int MAX_SHIFT = 34; // values past 2^41 ns are clamped into the last bucket
+    private static final long MAX_VALUE = (1L << (MAX_SHIFT + SUB_BUCKET_BITS + 1)) - 1;
+
+    private AtomicLongArray counts;
+
+    /**
+     * This LatencyHistogram constructor creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(indexOf(MAX_VALUE) + 1);
+    }
+
+    /**
+     * This method counts one duration of the given number of nanoseconds. Negative values are
+     * counted as zero.
+     */
+    public void record(long nanos) {
+        int index = indexOf(Math.min(Math.max(nanos, 0), MAX_VALUE));
+        this.counts.setRelease(index, this.counts.getPlain(index) + 1);
+    }
+
+    /**
+     * This method returns how many durations have been recorded.
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < this.counts.length(); i++) {
+            count += this.counts.getAcquire(i);
+        }
+        return count;
+    }
+
+    /**
+     * This method returns the duration, in nanoseconds, that the given percentage (0 to 100) of the
+     * recorded durations were at or below, or zero if nothing has been recorded. Like HdrHistogram, it
+     * reports the highest value that falls in the same bucket.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = this.getCount();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < this.counts.length(); i++) {
+            seen += this.counts.getAcquire(i);
+            if (seen >= target) {
+                return highestValueAt(i);
+            }
+        }
+        return highestValueAt(this.counts.length() - 1);
+    }
+
+    /**
+     * This method returns the largest recorded duration, to the precision of its bucket, or zero if
+     * nothing has been recorded.
+     */
+    public long getMax() {
+        for (int i = this.counts.length() - 1; i >= 0; i--) {
+            if (this.counts.getAcquire(i) != 0) {
+                return highestValueAt(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * This method forgets every recorded duration. It must only be called by the writing thread.
+     */
+    public void reset() {
+        for (int i = 0; i < this.counts.length(); i++) {
+            this.counts.setRelease(i, 0);
+        }
+    }
+
+    /**
+     * This helper method returns the bucket a value is counted in. Values below 2 * SUB_BUCKETS map
+     * to themselves; above that, the shift is how many low bits the bucket ignores.
+     */
+    private static int indexOf(long value) {
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * This helper method returns the highest value that is counted in the given bucket.
+     */
+    private static long highestValueAt(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = index - (shift << SUB_BUCKET_BITS);
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
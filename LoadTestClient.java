@@ -0,0 +1,184 @@
+package doodlejump;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+
+/**
+ * This LoadTestClient class measures how many games a GameServer can host. It starts a server in the
+ * same process on a free loopback port, connects the given number of clients, each of which JOINs a
+ * game, changes the keys it holds at random every half second or so and JOINs again whenever its game
+ * ends, and runs them all from one thread with a Selector for the given number of seconds. It then
+ * prints how many STATE updates each client received per second (a server keeping up sends one per
+ * tick, 1 / Constants.DURATION a second), how many bytes a STATE took on average, how many times a
+ * client had to pick up again from a keyframe because the server dropped STATEs it could not take fast
+ * enough, how many cores the
+ * TickWorkers were busy for and so how many games one core can run at full speed, and the server's tick
+ * pass latency. Every client follows its game with a StateDecoder, as a real one would, so decoding is
+ * part of the load, and a STATE the decoder cannot apply ends the run with an error.
+ * Since the clients share the machine with the server, the numbers are a lower bound.
+ */
+public class LoadTestClient {
+    private static final int CHANGE_INPUT_EVERY = 30; // STATEs, on average
+
+    private SocketChannel channel;
+    private ByteBuffer in;
+    private ByteBuffer out;
+    private StateDecoder decoder;
+    private long states;
+    private long stateBytes;
+    private long resyncs;
+    private long games;
+
+    /**
+     * This LoadTestClient constructor connects to the server and sends the first JOIN.
+     */
+    public LoadTestClient(int port, Selector selector) throws IOException {
+        this.channel = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        this.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        this.channel.configureBlocking(false);
+        this.channel.register(selector, SelectionKey.OP_READ, this);
+        this.in = ByteBuffer.allocate(64 * 1024);
+        this.out = ByteBuffer.allocate(64);
+        this.join();
+    }
+
+    /**
+     * This helper method sends a JOIN for a game with a seed of the server's choosing.
+     */
+    private void join() throws IOException {
+        this.out.clear();
+        ServerProtocol.writeJoin(this.out, 0);
+        this.send();
+    }
+
+    /**
+     * This helper method sends an INPUT holding the given Moves.
+     */
+    private void hold(int input) throws IOException {
+        this.out.clear();
+        ServerProtocol.writeInput(this.out, input);
+        this.send();
+    }
+
+    /**
+     * This helper method sends the frame in the outbound buffer. Client frames are a few bytes, so a
+     * non-blocking write that takes only part of one is not worth handling and is treated as an error.
+     */
+    private void send() throws IOException {
+        this.out.flip();
+        this.channel.write(this.out);
+        if (this.out.hasRemaining()) {
+            throw new IOException("Client send buffer is full");
+        }
+    }
+
+    /**
+     * This method is called when the server has sent something. Every whole frame is read: a WELCOME
+     * starts a new StateDecoder, and a STATE is passed to it, after which it may lead to an INPUT change,
+     * or, once the decoder says the game is over, to a new JOIN. A keyframe after the first one of a
+     * game is counted as a resync.
+     */
+    public void read(SplittableRandom random) throws IOException {
+        if (this.channel.read(this.in) < 0) {
+            throw new IOException("Server closed the connection");
+        }
+        this.in.flip();
+        while (ServerProtocol.hasFrame(this.in)) {
+            int end = ServerProtocol.readFrame(this.in);
+            int type = this.in.get();
+            if (type == ServerProtocol.WELCOME) {
+                this.decoder = new StateDecoder();
+            } else if (type == ServerProtocol.STATE) {
+                this.states++;
+                this.stateBytes += end - this.in.position() + 3;
+                if (this.decoder.isStarted() && this.in.get(this.in.position()) == StateEncoder.KEYFRAME) {
+                    this.resyncs++;
+                }
+                ByteBuffer frame = this.in.slice();
+                frame.limit(end - this.in.position());
+                if (!this.decoder.apply(frame) || frame.hasRemaining()) {
+                    throw new IOException("Could not follow the STATE stream");
+                }
+                if (this.decoder.isGameOver()) {
+                    this.games++;
+                    this.join();
+                } else if (random.nextInt(CHANGE_INPUT_EVERY) == 0) {
+                    this.hold(random.nextInt(3)); // nothing, LEFT or RIGHT (see Move.bit)
+                }
+            }
+            this.in.position(end);
+        }
+        this.in.compact();
+    }
+
+    /**
+     * This main method runs the load test. Arguments: number of clients (default 1000), seconds to run
+     * for (default 10) and number of TickWorkers (default one per core).
+     */
+    public static void main(String[] argv) throws IOException {
+        int clients = argv.length > 0 ? Integer.parseInt(argv[0]) : 1000;
+        int seconds = argv.length > 1 ? Integer.parseInt(argv[1]) : 10;
+        int workers = argv.length > 2 ? Integer.parseInt(argv[2]) : Runtime.getRuntime().availableProcessors();
+
+        GameServer server = new GameServer(0, workers);
+        server.start();
+        Selector selector = Selector.open();
+        LoadTestClient[] all = new LoadTestClient[clients];
+        for (int i = 0; i < clients; i++) {
+            all[i] = new LoadTestClient(server.getPort(), selector);
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        long busyBefore = 0;
+        for (TickWorker worker : server.getWorkers()) {
+            busyBefore += worker.getBusyNanos();
+        }
+        long start = System.nanoTime();
+        long end = start + seconds * 1_000_000_000L;
+        while (System.nanoTime() < end) {
+            selector.select(100);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                ((LoadTestClient) key.attachment()).read(random);
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        long busy = -busyBefore;
+        for (TickWorker worker : server.getWorkers()) {
+            busy += worker.getBusyNanos();
+        }
+        String report = server.report();
+        server.stop();
+        selector.close();
+
+        long states = 0;
+        long bytes = 0;
+        long resyncs = 0;
+        long games = 0;
+        for (LoadTestClient client : all) {
+            states += client.states;
+            bytes += client.stateBytes;
+            resyncs += client.resyncs;
+            games += client.games;
+            client.channel.close();
+        }
+        double cores = busy / 1e9 / elapsed;
+        System.out.printf("clients=%d workers=%d elapsed=%.1fs games finished=%d%n", clients, workers, elapsed, games);
+        System.out.printf("updates/s per client=%.1f (target %.1f) bytes per STATE=%.1f resyncs=%d%n",
+                states / elapsed / clients, 1 / Constants.DURATION, (double) bytes / Math.max(states, 1), resyncs);
+        double fullSpeedGames = states / elapsed * Constants.DURATION;
+        System.out.printf("tick workers busy=%.2f cores, full-speed games per core=%.0f%n",
+                cores, fullSpeedGames / Math.max(cores, 1e-9));
+        System.out.println(report);
+    }
+}
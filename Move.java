@@ -0,0 +1,20 @@
+package doodlejump;
+
+/**
+ * This Move enum lists the moves a player can make: steering the Doodle LEFT or RIGHT. Each Move has a
+ * bit (see bit), and the Moves held down during a tick are passed around as an int of those bits: the
+ * InputState collects them from the keyboard, the World steers the Doodle by them at the start of each
+ * tick, and the ReplayRecorder stores them whenever they change, so that the same input can later be
+ * fed back into a headless World by the ReplayPlayer.
+ */
+public enum Move {
+    LEFT,
+    RIGHT;
+
+    /**
+     * This method returns the bit that stands for this Move in an input int.
+     */
+    public int bit() {
+        return 1 << this.ordinal();
+    }
+}
@@ -0,0 +1,326 @@
+package doodlejump;
+
+/**
+ * This Observation class is what an Agent sees of its game on each tick: the Doodle's position and
+ * velocities, the nearest Platforms to it with their kinds, and the nearest hazards (monsters and
+ * projectiles) with theirs, nearest first, found through the PlatformIndex so that only what is near
+ * the Doodle is looked at. The Platforms are given relative to the Doodle: dx is from
+ * the Doodle's centre to the Platform's centre, taking the shorter way around the screen since the
+ * Doodle wraps, and dy is from the Doodle's feet to the Platform's top, so a Platform the Doodle could
+ * land on has a positive dy. Hazards are given centre to centre, so a hazard overhead has a negative dy.
+ * Pickups are not observed. The BatchSimulator keeps one Observation per game and refills it every
+ * tick, so its arrays are allocated once and, once a game has warmed up, observing allocates nothing.
+ */
+public class Observation {
+    public static final int DEFAULT_PLATFORMS = 8;
+    public static final int DEFAULT_HAZARDS = 4;
+
+    private double doodleX;
+    private double doodleY;
+    private double velocity;
+    private double xVelocity;
+    private double cameraOffset;
+    private int platformCount;
+    private double[] platformDx;
+    private double[] platformDy;
+    private double[] platformDistances; // squared, to keep the nearest first
+    private int[] platformSequences; // to keep equally near Platforms in order
+    private PlatformKind[] platformKinds;
+    private int hazardCount;
+    private double[] hazardDx;
+    private double[] hazardDy;
+    private double[] hazardDistances; // squared, to keep the nearest first
+    private int[] hazardSlots; // to keep equally near hazards in order
+    private EntityKind[] hazardKinds;
+    private int[] found;
+
+    /**
+     * This Observation constructor makes room for the given number of nearest Platforms and of nearest
+     * hazards.
+     */
+    public Observation(int platforms, int hazards) {
+        this.platformDx = new double[platforms];
+        this.platformDy = new double[platforms];
+        this.platformDistances = new double[platforms];
+        this.platformSequences = new int[platforms];
+        this.platformKinds = new PlatformKind[platforms];
+        this.hazardDx = new double[hazards];
+        this.hazardDy = new double[hazards];
+        this.hazardDistances = new double[hazards];
+        this.hazardKinds = new EntityKind[hazards];
+        this.hazardSlots = new int[hazards];
+        this.found = new int[16];
+    }
+
+    /**
+     * This method is called by the BatchSimulator before every tick and copies the given World's state
+     * into the Observation. Rather than sweeping the whole level, it asks the PlatformIndex for the
+     * Platforms band by band, starting with the band of the Doodle's feet and moving outwards one band
+     * above and one below at a time. Each Platform that is nearer than the furthest one kept so far is
+     * inserted into place, so the arrays stay sorted without any sorting pass; Platforms equally near
+     * are kept in the order of their sequence numbers, the order a sweep of the PlatformStore would meet
+     * them in. Once the arrays are full and every band not yet visited is further away than the
+     * furthest Platform kept, nothing further out can make it in, so the search stops: a tick only looks
+     * at the few bands around the Doodle, however long the level is. The hazards are then found the same
+     * way around the Doodle's centre.
+     */
+    public void fill(World world) {
+        Doodle doodle = world.getDoodle();
+        this.doodleX = doodle.getXLoc();
+        this.doodleY = doodle.getYLoc();
+        this.velocity = doodle.getVelocity();
+        this.xVelocity = doodle.getXVelocity();
+        this.cameraOffset = world.getCameraOffset();
+        this.platformCount = 0;
+
+        double centreX = this.doodleX + Constants.DOODLE_WIDTH / 2.0;
+        double feetY = this.doodleY + Constants.DOODLE_HEIGHT;
+        int capacity = this.platformDx.length;
+        PlatformIndex index = world.getPlatformHandler().getIndex();
+        PlatformStore platforms = world.getPlatforms();
+        int centreBand = index.getBand(feetY);
+        int remaining = platforms.size();
+        for (int ring = 0; remaining > 0; ring++) {
+            // Bands centreBand - ring + 1 to centreBand + ring - 1 have been visited, so every other
+            // Platform is at least this far above or below the Doodle's feet.
+            double gap = Math.min(feetY - (centreBand - ring + 1) * Constants.INDEX_BAND_HEIGHT,
+                    (centreBand + ring) * Constants.INDEX_BAND_HEIGHT - feetY);
+            if (this.platformCount == capacity && gap > 0 && gap * gap > this.platformDistances[capacity - 1]) {
+                break;
+            }
+            remaining -= this.observePlatforms(index, platforms, centreBand - ring, centreX, feetY);
+            if (ring > 0) {
+                remaining -= this.observePlatforms(index, platforms, centreBand + ring, centreX, feetY);
+            }
+        }
+        this.fillHazards(index, world.getEntities(), centreX, this.doodleY + Constants.DOODLE_HEIGHT / 2.0);
+    }
+
+    /**
+     * This helper method is called by fill for each band it visits, and inserts every Platform in the
+     * band that is among the nearest so far. It returns how many Platforms the band holds.
+     */
+    private int observePlatforms(PlatformIndex index, PlatformStore platforms, int band, double centreX,
+            double feetY) {
+        double bandY = band * Constants.INDEX_BAND_HEIGHT;
+        int count = index.findPlatformsInBands(bandY, bandY, this.found);
+        while (count == this.found.length) {
+            this.found = new int[this.found.length * 2];
+            count = index.findPlatformsInBands(bandY, bandY, this.found);
+        }
+        int capacity = this.platformDx.length;
+        for (int f = 0; f < count; f++) {
+            int sequence = this.found[f];
+            double dx = platforms.getX(sequence) + Constants.PLATFORM_WIDTH / 2.0 - centreX;
+            if (dx > Constants.SCENE_WIDTH / 2) {
+                dx -= Constants.SCENE_WIDTH;
+            } else if (dx < -Constants.SCENE_WIDTH / 2) {
+                dx += Constants.SCENE_WIDTH;
+            }
+            double dy = platforms.getY(sequence) - feetY;
+            double distance = dx * dx + dy * dy;
+            if (this.platformCount == capacity && !isNearer(distance, sequence,
+                    this.platformDistances[capacity - 1], this.platformSequences[capacity - 1])) {
+                continue;
+            }
+            int i = this.platformCount < capacity ? this.platformCount++ : capacity - 1;
+            while (i > 0 && isNearer(distance, sequence, this.platformDistances[i - 1], this.platformSequences[i - 1])) {
+                this.platformDx[i] = this.platformDx[i - 1];
+                this.platformDy[i] = this.platformDy[i - 1];
+                this.platformDistances[i] = this.platformDistances[i - 1];
+                this.platformSequences[i] = this.platformSequences[i - 1];
+                this.platformKinds[i] = this.platformKinds[i - 1];
+                i--;
+            }
+            this.platformDx[i] = dx;
+            this.platformDy[i] = dy;
+            this.platformDistances[i] = distance;
+            this.platformSequences[i] = sequence;
+            this.platformKinds[i] = platforms.getKind(sequence);
+        }
+        return count;
+    }
+
+    /**
+     * This helper method is called by fill with the Doodle's centre and keeps the nearest hazards, nearest
+     * first, the way fill keeps the nearest Platforms: the PlatformIndex is asked for the entities band
+     * by band outwards from the Doodle's centre, until every band not yet visited is further away than the
+     * furthest hazard kept. Entities are filed by their top, so a band's entities may reach down to
+     * EntityKind.MAX_HEIGHT below it. Hazards equally near are kept in the order of their slots.
+     */
+    private void fillHazards(PlatformIndex index, EntityStore entities, double centreX, double centreY) {
+        this.hazardCount = 0;
+        int capacity = this.hazardDx.length;
+        int centreBand = index.getBand(centreY);
+        int remaining = entities.size();
+        for (int ring = 0; remaining > 0; ring++) {
+            double gap = Math.min(centreY - (centreBand - ring + 1) * Constants.INDEX_BAND_HEIGHT
+                    - EntityKind.MAX_HEIGHT / 2, (centreBand + ring) * Constants.INDEX_BAND_HEIGHT - centreY);
+            if (this.hazardCount == capacity && gap > 0 && gap * gap > this.hazardDistances[capacity - 1]) {
+                break;
+            }
+            remaining -= this.observeHazards(index, entities, centreBand - ring, centreX, centreY);
+            if (ring > 0) {
+                remaining -= this.observeHazards(index, entities, centreBand + ring, centreX, centreY);
+            }
+        }
+    }
+
+    /**
+     * This helper method is called by fillHazards for each band it visits, and inserts every hazard in
+     * the band that is among the nearest so far. It returns how many entities, hazards or not, the band
+     * holds.
+     */
+    private int observeHazards(PlatformIndex index, EntityStore entities, int band, double centreX,
+            double centreY) {
+        double bandY = band * Constants.INDEX_BAND_HEIGHT;
+        int count = index.findEntitiesInBands(bandY, bandY, this.found);
+        while (count == this.found.length) {
+            this.found = new int[this.found.length * 2];
+            count = index.findEntitiesInBands(bandY, bandY, this.found);
+        }
+        int capacity = this.hazardDx.length;
+        for (int f = 0; f < count; f++) {
+            int slot = this.found[f];
+            EntityKind kind = entities.getKind(slot);
+            if (!kind.isHazard()) {
+                continue;
+            }
+            double dx = entities.getX(slot) + kind.getWidth() / 2 - centreX;
+            if (dx > Constants.SCENE_WIDTH / 2) {
+                dx -= Constants.SCENE_WIDTH;
+            } else if (dx < -Constants.SCENE_WIDTH / 2) {
+                dx += Constants.SCENE_WIDTH;
+            }
+            double dy = entities.getY(slot) + kind.getHeight() / 2 - centreY;
+            double distance = dx * dx + dy * dy;
+            if (this.hazardCount == capacity && !isNearer(distance, slot,
+                    this.hazardDistances[capacity - 1], this.hazardSlots[capacity - 1])) {
+                continue;
+            }
+            int j = this.hazardCount < capacity ? this.hazardCount++ : capacity - 1;
+            while (j > 0 && isNearer(distance, slot, this.hazardDistances[j - 1], this.hazardSlots[j - 1])) {
+                this.hazardDx[j] = this.hazardDx[j - 1];
+                this.hazardDy[j] = this.hazardDy[j - 1];
+                this.hazardDistances[j] = this.hazardDistances[j - 1];
+                this.hazardSlots[j] = this.hazardSlots[j - 1];
+                this.hazardKinds[j] = this.hazardKinds[j - 1];
+                j--;
+            }
+            this.hazardDx[j] = dx;
+            this.hazardDy[j] = dy;
+            this.hazardDistances[j] = distance;
+            this.hazardSlots[j] = slot;
+            this.hazardKinds[j] = kind;
+        }
+        return count;
+    }
+
+    /**
+     * This helper method returns whether something at the given squared distance, with the given
+     * sequence number or slot, comes before something else: nearer first, and of two equally near the one
+     * with the smaller number. Sequence numbers are compared as the PlatformStore does, so that they may
+     * wrap around.
+     */
+    private static boolean isNearer(double distance, int number, double otherDistance, int otherNumber) {
+        return distance < otherDistance || distance == otherDistance && number - otherNumber < 0;
+    }
+
+    /**
+     * This accessor method returns the Doodle's x-location.
+     */
+    public double getDoodleX() {
+        return this.doodleX;
+    }
+
+    /**
+     * This accessor method returns the Doodle's world y-location.
+     */
+    public double getDoodleY() {
+        return this.doodleY;
+    }
+
+    /**
+     * This accessor method returns the Doodle's y-location on screen, so an Agent can tell how close it
+     * is to falling off the bottom.
+     */
+    public double getDoodleScreenY() {
+        return this.doodleY + this.cameraOffset;
+    }
+
+    /**
+     * This accessor method returns the Doodle's vertical velocity (UNITS: pixels/s, positive is down).
+     */
+    public double getVelocity() {
+        return this.velocity;
+    }
+
+    /**
+     * This accessor method returns the Doodle's horizontal velocity from the latest tick.
+     */
+    public double getXVelocity() {
+        return this.xVelocity;
+    }
+
+    /**
+     * This accessor method returns how many Platforms were observed, which is fewer than the
+     * Observation has room for only if the World has fewer Platforms.
+     */
+    public int getPlatformCount() {
+        return this.platformCount;
+    }
+
+    /**
+     * This accessor method returns the horizontal distance from the Doodle's centre to the centre of
+     * the i-th nearest Platform (positive is to the right).
+     */
+    public double getPlatformDx(int i) {
+        return this.platformDx[i];
+    }
+
+    /**
+     * This accessor method returns the vertical distance from the Doodle's feet to the top of the i-th
+     * nearest Platform (positive is below the feet).
+     */
+    public double getPlatformDy(int i) {
+        return this.platformDy[i];
+    }
+
+    /**
+     * This accessor method returns the kind of the i-th nearest Platform.
+     */
+    public PlatformKind getPlatformKind(int i) {
+        return this.platformKinds[i];
+    }
+
+    /**
+     * This accessor method returns how many hazards were observed, which is fewer than the Observation
+     * has room for only if the World has fewer hazards.
+     */
+    public int getHazardCount() {
+        return this.hazardCount;
+    }
+
+    /**
+     * This accessor method returns the horizontal distance from the Doodle's centre to the centre of
+     * the i-th nearest hazard (positive is to the right).
+     */
+    public double getHazardDx(int i) {
+        return this.hazardDx[i];
+    }
+
+    /**
+     * This accessor method returns the vertical distance from the Doodle's centre to the centre of the
+     * i-th nearest hazard (positive is below).
+     */
+    public double getHazardDy(int i) {
+        return this.hazardDy[i];
+    }
+
+    /**
+     * This accessor method returns the kind of the i-th nearest hazard.
+     */
+    public EntityKind getHazardKind(int i) {
+        return this.hazardKinds[i];
+    }
+}
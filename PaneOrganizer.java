@@ -3,9 +3,17 @@ package doodlejump;
 import javafx.event.ActionEvent;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
-import javafx.scene.control.Label;
+import javafx.geometry.Insets;
+import javafx.scene.image.Image;
 import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
+import javafx.scene.layout.BackgroundImage;
+import javafx.scene.layout.BackgroundPosition;
+import javafx.scene.layout.BackgroundRepeat;
+import javafx.scene.layout.BackgroundSize;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.CornerRadii;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
@@ -14,48 +22,84 @@ import javafx.scene.layout.VBox;
  * This PaneOrganizer class sets up and organizes the panes of our game
  * such that the GUI appears as desired. The PaneOrganizer is contained
  * by the App class. It has a constructor to set up the main game Pane,
- * and two helper methods that set up the buttonPane and labelPane
- * (createButtonPane and createLabelPane respectively). The class also
+ * and helper methods that set up the buttonPane and labelPane
+ * (createButtonPane and createLabelPane respectively) and the game's
+ * background (loadBackground). The class also
  * has a method to return the root BorderPane (getRoot) and a method that
- * sets the text of the score label to a given value.
+ * returns the ScoreDisplay the score is drawn in (getScoreDisplay).
  */
 public class PaneOrganizer {
     private BorderPane root;
-    private Label score;
+    private ScoreDisplay score;
+    private Game game;
+    private AssetLoader assets;
 
     /**
      * This is the PaneOrganizer constructor. This constructor has no parameters,
      * and is called in the App class. The constructor initializes the BorderPane root
-     * instance variable, then instantiates a new Pane that serves as the main game Pane.
-     * The constructor then creates new Game instance and uses a lambda expression to
-     * set the KeyEvent. Finally, the constructor calls its helper methods to set up
-     * the buttonPane and labelPane.
+     * instance variable, then instantiates a new Pane that serves as the main game Pane,
+     * whose background starts loading (see loadBackground).
+     * The constructor then calls its helper methods to set up the buttonPane and
+     * labelPane, the latter first so that the Game can show its score from the start.
+     * Finally, the constructor creates new Game instance and uses lambda expressions to
+     * set the KeyEvents for keys being pressed and released.
      */
     public PaneOrganizer() {
         this.root = new BorderPane();
 
         Pane gamePane = new Pane();
-        gamePane.setStyle("-fx-background-image: url(https://i.imgur.com/D0PYBoN.jpg)"); // sets background image of game
+        this.assets = new AssetLoader();
+        this.loadBackground(gamePane);
         this.root.setCenter(gamePane); // gamePane set to center of BorderPane
         gamePane.setFocusTraversable(true);
 
-        Game game = new Game(gamePane, this);
-        gamePane.setOnKeyPressed((KeyEvent e) -> game.onKeyPress(e));
-
         this.createButtonPane();
         this.createLabelPane();
+
+        this.game = new Game(gamePane, this);
+        gamePane.setOnKeyPressed((KeyEvent e) -> this.game.onKeyPress(e));
+        gamePane.setOnKeyReleased((KeyEvent e) -> this.game.onKeyRelease(e));
+    }
+
+    /**
+     * This helper method is called in the PaneOrganizer constructor. The gamePane
+     * is given a plain placeholder background straight away, and the background
+     * image is loaded by the AssetLoader, from the classpath if it is bundled and
+     * otherwise from the disk cache or the network, on the loader's thread. Once it
+     * is decoded, the image replaces the placeholder on the FX application thread;
+     * if it cannot be loaded, the placeholder stays and the reason is reported.
+     */
+    private void loadBackground(Pane gamePane) {
+        gamePane.setBackground(new Background(new BackgroundFill(ViewConstants.BACKGROUND_PLACEHOLDER_COLOR,
+                CornerRadii.EMPTY, Insets.EMPTY)));
+        this.assets.load(ViewConstants.BACKGROUND_IMAGE, ViewConstants.BACKGROUND_IMAGE_URL)
+                .thenAcceptAsync((Image image) -> gamePane.setBackground(new Background(new BackgroundImage(image,
+                        BackgroundRepeat.REPEAT, BackgroundRepeat.REPEAT, BackgroundPosition.DEFAULT,
+                        BackgroundSize.DEFAULT))), javafx.application.Platform::runLater)
+                .exceptionally((Throwable e) -> {
+                    System.err.println(e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * This accessor method returns the AssetLoader that loads the game's images, so
+     * that the Game can report how long they took.
+     */
+    public AssetLoader getAssets() {
+        return this.assets;
     }
 
     /**
      * This helper method is called in the PaneOrganizer constructor and
-     * has no parameters. It creates a new instance of VBox adds a new instance
-     * of a Label (the score) to the VBox graphically. The labelPane is then
+     * has no parameters. It creates a new instance of VBox adds the Canvas of a
+     * new ScoreDisplay (the score) to the VBox graphically. The labelPane is then
      * positioned at the top of the BorderPane root.
      */
     private void createLabelPane() {
         VBox labelPane = new VBox();
-        this.score = new Label("Score: 0");
-        labelPane.getChildren().add(score);
+        this.score = new ScoreDisplay();
+        labelPane.getChildren().add(this.score.getCanvas());
         this.root.setTop(labelPane);
     }
 
@@ -63,14 +107,15 @@ public class PaneOrganizer {
      * This helper method is called in the PaneOrganizer constructor
      * and has no parameters. The method initializes an HBox and the Button
      * quitButton, whose ActionEvent is set to exit the program when pressed using a lambda
-     * expression. The Button is then graphically added to the HBox.
+     * expression. It exits through JavaFX rather than System.exit, so that App's stop method
+     * still runs and the game can be saved. The Button is then graphically added to the HBox.
      * The buttonPane is positioned at the bottom of the BorderPane and its
      * contents are centered.
      */
     private void createButtonPane() {
         HBox buttonPane = new HBox();
         Button quitButton = new Button("Quit!");
-        quitButton.setOnAction((ActionEvent e) -> System.exit(0));
+        quitButton.setOnAction((ActionEvent e) -> javafx.application.Platform.exit());
         buttonPane.getChildren().add(quitButton);
 
         this.root.setBottom(buttonPane);
@@ -78,13 +123,23 @@ public class PaneOrganizer {
     }
 
     /**
-     * This method is called in the PlatformHandler class and takes
-     * in a String argument that represents the player's score. The method
-     * sets the score Label instance variable's text to the passed-in string.
+     * This accessor method is called in the Game constructor, so that the Game
+     * can show the player's score in the ScoreDisplay once per rendered frame.
      */
-    public void setText(String s) {
-        this.score.setText(s);
+    public ScoreDisplay getScoreDisplay() {
+        return this.score;
     }
+
+    /**
+     * This method is called in App's stop method when the application is closing, whether through the
+     * Quit button or the window, and lets the Game save itself (see Game.saveSnapshot). The
+     * AssetLoader's thread is stopped too.
+     */
+    public void stop() {
+        this.game.saveSnapshot();
+        this.assets.close();
+    }
+
     /**
      * This accessor method is called when instantiating a Scene in the App class so
      * that the Scene can know about the BorderPane (associated). The method
@@ -0,0 +1,193 @@
+package doodlejump;
+
+import javafx.scene.Group;
+import javafx.scene.effect.BlurType;
+import javafx.scene.effect.DropShadow;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * This PaneRenderer class is the thin graphical layer on top of the headless World, and the default
+ * GameRenderer (see CanvasRenderer for the other one). It is a WorldListener, so the PlatformHandler
+ * tells it whenever a Platform appears or disappears, and in response it adds or removes the matching
+ * Rectangle. (The score is shown by the Game's ScoreDisplay, not by the renderer.) All of the Rectangles live in one Group, positioned at
+ * their world coordinates, and scrolling is a single translate of that Group by the World's camera
+ * offset, so a scroll dirties one node instead of every platform. Every frame, the Game calls render,
+ * which moves the camera, the Doodle and the moving Platforms' Rectangles.
+ *
+ * Like the Platforms themselves, the Rectangles are recycled: a removed Platform's Rectangle is hidden
+ * and kept in the worldGroup, then re-skinned with the next new Platform's color and moved to its
+ * location. All of them share one DropShadow and the Platform-to-Rectangle map is an IdentityHashMap
+ * (which needs no entry objects), so in steady play adding a Platform allocates nothing.
+ * Entities get one Rectangle per EntityStore slot, which is shown, resized and colored when an entity
+ * enters the slot and hidden when it leaves, so a slot's Rectangle is reused by every entity that is
+ * ever put in it.
+ */
+public class PaneRenderer implements GameRenderer {
+    private Pane gamePane;
+    private Group worldGroup;
+    private Rectangle doodleRect;
+    private IdentityHashMap<Platform, Rectangle> platformRects;
+    private ArrayDeque<Rectangle> freeRects;
+    private DropShadow glow;
+    private Rectangle[] entityRects;
+    private boolean placed; // whether every entity's Rectangle has been placed since the last was added
+    private long rectRequests;
+    private long rectHits;
+
+    /**
+     * This PaneRenderer constructor is called in the Game constructor, before the World is created,
+     * so that it hears about the very first platforms. It creates the Group that holds everything
+     * that scrolls, and the Doodle's Rectangle inside it, and graphically adds the Group to the gamePane.
+     * The gamePane is clipped, since Platforms are added a chunk or more above the top of the screen.
+     */
+    public PaneRenderer(Pane gamePane) {
+        this.gamePane = gamePane;
+        this.platformRects = new IdentityHashMap<>();
+        this.freeRects = new ArrayDeque<>();
+        this.entityRects = new Rectangle[64];
+        this.glow = new DropShadow(BlurType.GAUSSIAN, Color.WHITE, Constants.DROPSHADOW_RADIUS, Constants.DROPSHADOW_SPREAD, 0, 0);
+        this.doodleRect = new Rectangle(Constants.DOODLE_WIDTH, Constants.DOODLE_HEIGHT, ViewConstants.DOODLE_COLOR);
+        this.doodleRect.setX(Constants.DOODLE_STARTING_XLOC);
+        this.doodleRect.setY(Constants.DOODLE_STARTING_YLOC);
+        this.worldGroup = new Group(this.doodleRect);
+        this.gamePane.getChildren().add(this.worldGroup);
+        this.gamePane.setClip(new Rectangle(Constants.SCENE_WIDTH, Constants.SCENE_HEIGHT)); // the level is laid out above the screen
+    }
+
+    /**
+     * This method is called by the PlatformHandler when a new Platform enters the World. A hidden
+     * Rectangle is taken from the free list if there is one (otherwise a new one with the shared white
+     * glow is created and graphically added to the worldGroup), colored for the Platform's kind, and
+     * placed at the Platform's world coordinates. Only a moving Platform's Rectangle ever moves again,
+     * in render.
+     */
+    @Override
+    public void platformAdded(Platform platform) {
+        this.rectRequests++;
+        Rectangle platformRect = this.freeRects.poll();
+        if (platformRect == null) {
+            platformRect = new Rectangle(Constants.PLATFORM_WIDTH, Constants.PLATFORM_HEIGHT);
+            platformRect.setEffect(this.glow);
+            platformRect.setStroke(Color.WHITE);
+            this.worldGroup.getChildren().add(platformRect);
+        } else {
+            this.rectHits++;
+            platformRect.setVisible(true);
+        }
+        platformRect.setFill(ViewConstants.colorOf(platform.getKind()));
+        platformRect.setX(platform.getXLocation());
+        platformRect.setY(platform.getYLocation());
+        this.platformRects.put(platform, platformRect);
+    }
+
+    /**
+     * This method is called by the PlatformHandler when a Platform leaves the World. Its Rectangle is
+     * hidden and put on the free list for the next Platform.
+     */
+    @Override
+    public void platformRemoved(Platform platform) {
+        Rectangle platformRect = this.platformRects.remove(platform);
+        platformRect.setVisible(false);
+        this.freeRects.push(platformRect);
+    }
+
+    /**
+     * This method is called by the EntityHandler when an entity enters the World in the given slot. The
+     * slot's Rectangle is created and graphically added to the worldGroup the first time, and then shown,
+     * sized and colored for the entity's kind, and placed at its world coordinates in render.
+     */
+    @Override
+    public void entityAdded(int slot, EntityKind kind) {
+        if (slot >= this.entityRects.length) {
+            this.entityRects = Arrays.copyOf(this.entityRects, Math.max(slot + 1, this.entityRects.length * 2));
+        }
+        Rectangle entityRect = this.entityRects[slot];
+        if (entityRect == null) {
+            entityRect = new Rectangle();
+            this.entityRects[slot] = entityRect;
+            this.worldGroup.getChildren().add(entityRect);
+        }
+        entityRect.setWidth(kind.getWidth());
+        entityRect.setHeight(kind.getHeight());
+        entityRect.setFill(ViewConstants.colorOf(kind));
+        entityRect.setVisible(true);
+        this.placed = false;
+    }
+
+    /**
+     * This method is called by the EntityHandler when the entity in the given slot leaves the World.
+     * Its Rectangle is hidden until the slot is used again.
+     */
+    @Override
+    public void entityRemoved(int slot) {
+        this.entityRects[slot].setVisible(false);
+    }
+
+    /**
+     * This accessor method returns the fraction of Platforms that were drawn with a recycled
+     * Rectangle rather than a new one.
+     */
+    @Override
+    public double getRectHitRate() {
+        return this.rectRequests == 0 ? 0 : (double) this.rectHits / this.rectRequests;
+    }
+
+    /**
+     * This method is called by the Game once per frame. It translates the worldGroup by the World's
+     * camera offset, copies the Doodle's coordinates onto its Rectangle, and copies the x-coordinate of
+     * each moving Platform onto its Rectangle, interpolating the camera, the Doodle's height and the
+     * moving Platforms between the last two ticks by alpha. This is the render sync: it walks only the
+     * PlatformStore's Platforms with motion, and no other Platform's Rectangle is touched. Entities are
+     * synced the same way, walking only the EntityStore's moving entities, except that after entities
+     * have been added every entity's Rectangle is placed once.
+     */
+    @Override
+    public void render(World world, double alpha) {
+        Doodle doodle = world.getDoodle();
+        this.worldGroup.setTranslateY(lerp(world.getPreviousCameraOffset(), world.getCameraOffset(), alpha));
+        this.doodleRect.setX(doodle.getXLoc());
+        this.doodleRect.setY(lerp(doodle.getPreviousYLoc(), doodle.getYLoc(), alpha));
+        PlatformStore platforms = world.getPlatforms();
+        for (int i = 0; i < platforms.getMovingCount(); i++) {
+            int sequence = platforms.getMovingSequence(i);
+            this.platformRects.get(platforms.getView(sequence))
+                    .setX(lerp(platforms.getPreviousX(sequence), platforms.getX(sequence), alpha));
+        }
+        EntityStore entities = world.getEntities();
+        if (!this.placed) {
+            for (int i = 0; i < entities.size(); i++) {
+                int slot = entities.getLiveSlot(i);
+                this.entityRects[slot].setX(entities.getX(slot));
+                this.entityRects[slot].setY(entities.getY(slot));
+            }
+            this.placed = true;
+        }
+        for (int i = 0; i < entities.getMovingCount(); i++) {
+            int slot = entities.getMovingSlot(i);
+            this.entityRects[slot].setX(lerp(entities.getPreviousX(slot), entities.getX(slot), alpha));
+            this.entityRects[slot].setY(lerp(entities.getPreviousY(slot), entities.getY(slot), alpha));
+        }
+    }
+
+    /**
+     * This helper method returns the value the given fraction alpha of the way from previous to current.
+     */
+    private static double lerp(double previous, double current, double alpha) {
+        return previous + (current - previous) * alpha;
+    }
+
+    /**
+     * This method is called in Game's endGame method. The Doodle's Rectangle is graphically removed
+     * from the worldGroup. The moving Platforms stop on their own, since they only move when the World
+     * is updated.
+     */
+    @Override
+    public void stop() {
+        this.worldGroup.getChildren().remove(this.doodleRect);
+    }
+}
@@ -0,0 +1,128 @@
+package doodlejump;
+
+/**
+ * This PlatformChunk class is the layout of one horizontal slice of the level, Constants.CHUNK_HEIGHT
+ * pixels tall: the kind and world coordinates of every Platform in it, from the bottom up. Chunk 0 fills
+ * the first screen (its top is at y = 0) and chunk k's top is k chunk heights above that. A chunk is
+ * only data--it is worked out by the PlatformGenerator, possibly on a background thread, and the
+ * PlatformHandler then adds its Platforms to the World on the tick thread. A chunk never changes once
+ * it has been generated, so it can be handed from one thread to another freely.
+ * Besides its Platforms, a chunk lists the entities (springs, jetpacks and monsters) placed in it, the
+ * same way: the kind and world coordinates of each one's top-left corner.
+ */
+public class PlatformChunk {
+    private final int index;
+    private final int count;
+    private final double[] xs;
+    private final double[] ys;
+    private final PlatformKind[] kinds;
+    private final int entityCount;
+    private final double[] entityXs;
+    private final double[] entityYs;
+    private final EntityKind[] entityKinds;
+
+    /**
+     * This PlatformChunk constructor is called by the PlatformGenerator with the chunk's index and the
+     * first count entries of the given arrays, which the chunk takes over. The chunk has no entities.
+     */
+    public PlatformChunk(int index, int count, double[] xs, double[] ys, PlatformKind[] kinds) {
+        this(index, count, xs, ys, kinds, 0, null, null, null);
+    }
+
+    /**
+     * This PlatformChunk constructor also takes the first entityCount entries of the given entity
+     * arrays. The PlatformGenerator calls it to add a chunk's entities to its Platforms.
+     */
+    public PlatformChunk(int index, int count, double[] xs, double[] ys, PlatformKind[] kinds,
+                         int entityCount, double[] entityXs, double[] entityYs, EntityKind[] entityKinds) {
+        this.index = index;
+        this.count = count;
+        this.xs = xs;
+        this.ys = ys;
+        this.kinds = kinds;
+        this.entityCount = entityCount;
+        this.entityXs = entityXs;
+        this.entityYs = entityYs;
+        this.entityKinds = entityKinds;
+    }
+
+    /**
+     * This method returns a chunk with the same Platforms as this one and the first entityCount entries
+     * of the given entity arrays, which it takes over.
+     */
+    public PlatformChunk withEntities(int entityCount, double[] entityXs, double[] entityYs, EntityKind[] entityKinds) {
+        return new PlatformChunk(this.index, this.count, this.xs, this.ys, this.kinds,
+                entityCount, entityXs, entityYs, entityKinds);
+    }
+
+    /**
+     * This static helper method returns the world y-coordinate of the top of the chunk with the given
+     * index. Every chunk's last Platform is at or above its top.
+     */
+    public static double topOf(int index) {
+        return -index * Constants.CHUNK_HEIGHT;
+    }
+
+    /**
+     * This accessor method returns the chunk's index, counting up from 0 at the bottom of the level.
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
+    /**
+     * This accessor method returns how many Platforms are in the chunk.
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * This accessor method returns the world x-coordinate of the i-th Platform.
+     */
+    public double getX(int i) {
+        return this.xs[i];
+    }
+
+    /**
+     * This accessor method returns the world y-coordinate of the i-th Platform.
+     */
+    public double getY(int i) {
+        return this.ys[i];
+    }
+
+    /**
+     * This accessor method returns the kind of the i-th Platform.
+     */
+    public PlatformKind getKind(int i) {
+        return this.kinds[i];
+    }
+
+    /**
+     * This accessor method returns how many entities are in the chunk.
+     */
+    public int getEntityCount() {
+        return this.entityCount;
+    }
+
+    /**
+     * This accessor method returns the world x-coordinate of the i-th entity.
+     */
+    public double getEntityX(int i) {
+        return this.entityXs[i];
+    }
+
+    /**
+     * This accessor method returns the world y-coordinate of the i-th entity.
+     */
+    public double getEntityY(int i) {
+        return this.entityYs[i];
+    }
+
+    /**
+     * This accessor method returns the kind of the i-th entity.
+     */
+    public EntityKind getEntityKind(int i) {
+        return this.entityKinds[i];
+    }
+}
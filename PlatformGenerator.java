@@ -0,0 +1,266 @@
+package doodlejump;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This PlatformGenerator class works out the level one PlatformChunk at a time, from the bottom up.
+ * Each chunk is laid out by the rules of its DifficultyCurve level: every Platform is placed at a
+ * semi-random x within the level's x offset of the one below it and a semi-random gap above it, with a
+ * random PlatformKind, so the level grows sparser and trickier as the Doodle climbs. Before it is
+ * handed out, each chunk is checked against the JumpEnvelope, which says what one ordinary jump can
+ * reach; a chunk with a gap that needs more than REACH_SLACK of a full jump is laid out again, from the
+ * same random numbers, at half the difficulty, and at level 0 (the original rules) it always passes.
+ * Runs get harder but never unwinnable. The random
+ * numbers come from a GameRandom seeded from the World's seed and the chunk's index, so a chunk's layout
+ * depends only on the seed, its index and where the previous chunk's last Platform is--never on how
+ * the game has been played--and the whole level is the same for the same seed.
+ * That also means the next chunk can be worked out before it is needed. A generator created with a
+ * background thread asks that thread for chunk k + 1 as soon as chunk k is handed out; the thread
+ * publishes the finished chunk through an AtomicReference, and nextChunk takes it with a single
+ * getAndSet, so the tick thread never waits on a lock. If the chunk is not ready yet, nextChunk simply
+ * works it out itself (the same chunk, since layouts are deterministic) and counts a miss.
+ * Once a chunk's Platforms are settled, decorate places its entities: a spring or jetpack now and then
+ * on a regular Platform, and, more often the higher the level, a monster in one of the gaps. These rolls
+ * come from a second GameRandom stream, so the Platforms are laid out exactly as they would be without
+ * any entities.
+ */
+public class PlatformGenerator {
+    private static final int INITIAL_CHUNK_CAPACITY = 32;
+    private static final long ENTITY_SALT = 0x5DEECE66DL; // separates the entity stream from the layout's
+
+    private final long seed;
+    private int nextIndex;
+    private double lastX;
+    private double lastY;
+    private PlatformKind lastKind;
+    private long misses;
+    private Thread worker;
+    private volatile boolean running;
+    private final AtomicReference<PlatformChunk> request = new AtomicReference<>();
+    private final AtomicReference<PlatformChunk> ready = new AtomicReference<>();
+
+    /**
+     * This PlatformGenerator constructor takes the World's seed and the position of the starting
+     * regular Platform, which the first chunk builds on. If background is true, a daemon thread is started to
+     * work out chunks ahead of time; close stops it.
+     */
+    public PlatformGenerator(long seed, double startX, double startY, boolean background) {
+        this.seed = seed;
+        this.lastX = startX;
+        this.lastY = startY;
+        this.lastKind = PlatformKind.REGULAR;
+        if (background) {
+            this.running = true;
+            this.worker = new Thread(this::prefetch, "platform-generator");
+            this.worker.setDaemon(true);
+            this.worker.start();
+        }
+    }
+
+    /**
+     * This method returns the next chunk of the level, from the background thread if it has it ready,
+     * and otherwise by working it out on the calling thread. With a background thread, the chunk after
+     * it is then asked for.
+     */
+    public PlatformChunk nextChunk() {
+        PlatformChunk chunk = this.worker == null ? null : this.ready.getAndSet(null);
+        if (chunk == null || chunk.getIndex() != this.nextIndex) {
+            if (this.worker != null) {
+                this.misses++;
+            }
+            chunk = generate(this.seed, this.nextIndex, this.lastX, this.lastY, this.lastKind);
+        }
+        this.nextIndex++;
+        this.lastX = chunk.getX(chunk.getCount() - 1);
+        this.lastY = chunk.getY(chunk.getCount() - 1);
+        this.lastKind = chunk.getKind(chunk.getCount() - 1);
+        if (this.worker != null) {
+            this.request.set(chunk);
+            LockSupport.unpark(this.worker);
+        }
+        return chunk;
+    }
+
+    /**
+     * This accessor method returns how many chunks nextChunk had to work out itself because the
+     * background thread had not finished them. The chunks a new World fills its first screen with are
+     * always misses; without a background thread it is always zero.
+     */
+    public long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * This method is called by the World's writeState to add where the generator has got to to a
+     * WorldSnapshot. Since every chunk is laid out from a GameRandom seeded by the seed and the chunk's
+     * index, the index of the next chunk and where (and on what kind of Platform) the last one ended
+     * are all of the random state there is.
+     */
+    void writeState(ByteBuffer buffer) {
+        buffer.putInt(this.nextIndex);
+        buffer.putDouble(this.lastX);
+        buffer.putDouble(this.lastY);
+        buffer.put((byte) this.lastKind.ordinal());
+    }
+
+    /**
+     * This method is called by the World's readState and puts back what writeState wrote. A chunk the
+     * background thread already worked out is for the wrong index, so nextChunk will discard it.
+     */
+    void readState(ByteBuffer buffer) {
+        this.nextIndex = buffer.getInt();
+        this.lastX = buffer.getDouble();
+        this.lastY = buffer.getDouble();
+        this.lastKind = PlatformKind.values()[buffer.get()];
+    }
+
+    /**
+     * This method stops the background thread, if there is one. The generator keeps working without it.
+     */
+    public void close() {
+        if (this.worker != null) {
+            this.running = false;
+            LockSupport.unpark(this.worker);
+            this.worker = null;
+        }
+    }
+
+    /**
+     * This helper method is the background thread's loop: it waits until nextChunk asks for a chunk
+     * by posting the chunk before it, works the new chunk out, and publishes it.
+     */
+    private void prefetch() {
+        while (this.running) {
+            PlatformChunk previous = this.request.getAndSet(null);
+            if (previous == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            int last = previous.getCount() - 1;
+            this.ready.set(generate(this.seed, previous.getIndex() + 1, previous.getX(last), previous.getY(last),
+                    previous.getKind(last)));
+        }
+    }
+
+    /**
+     * This static method returns the chunk with the given index, starting from a Platform at
+     * (startX, startY) of the given kind, laid out at the chunk's DifficultyCurve level, or at a lower
+     * level if that does not pass isReachable, and with its entities placed by decorate.
+     */
+    public static PlatformChunk generate(long seed, int index, double startX, double startY, PlatformKind startKind) {
+        double level = DifficultyCurve.levelOf(index);
+        PlatformChunk chunk = layOut(seed, index, startX, startY, level);
+        while (level > 0 && !isReachable(chunk, startX, startY, startKind)) {
+            level = level < 0.01 ? 0 : level / 2;
+            chunk = layOut(seed, index, startX, startY, level);
+        }
+        return decorate(seed, chunk, DifficultyCurve.levelOf(index));
+    }
+
+    /**
+     * This static method returns the given chunk with its entities. Each regular Platform gets a spring
+     * with a chance of SPRING_CHANCE, or else a jetpack with a chance of JETPACK_CHANCE, standing on
+     * its top at a random x; then, with the chance DifficultyCurve.monsterChance gives for the level,
+     * a monster is put halfway up the gap above a random Platform, at a random x. The entities never
+     * change the Platforms, so isReachable holds just as before; a monster in the way can be jumped on.
+     */
+    static PlatformChunk decorate(long seed, PlatformChunk chunk, double level) {
+        GameRandom random = new GameRandom(GameRandom.seedFor(seed ^ ENTITY_SALT, chunk.getIndex()));
+        int capacity = chunk.getCount() + 1;
+        double[] xs = new double[capacity];
+        double[] ys = new double[capacity];
+        EntityKind[] kinds = new EntityKind[capacity];
+        int count = 0;
+        for (int i = 0; i < chunk.getCount(); i++) {
+            double roll = random.nextDouble();
+            double offset = random.nextDouble();
+            EntityKind kind;
+            if (chunk.getKind(i) != PlatformKind.REGULAR) {
+                continue;
+            } else if (roll < Constants.SPRING_CHANCE) {
+                kind = EntityKind.SPRING;
+            } else if (roll < Constants.SPRING_CHANCE + Constants.JETPACK_CHANCE) {
+                kind = EntityKind.JETPACK;
+            } else {
+                continue;
+            }
+            xs[count] = chunk.getX(i) + (int) ((Constants.PLATFORM_WIDTH - kind.getWidth()) * offset);
+            ys[count] = chunk.getY(i) - kind.getHeight();
+            kinds[count] = kind;
+            count++;
+        }
+        if (chunk.getCount() > 1 && random.nextDouble() < DifficultyCurve.monsterChance(level)) {
+            int below = (int) ((chunk.getCount() - 1) * random.nextDouble());
+            double gapMiddle = (chunk.getY(below) + chunk.getY(below + 1) + Constants.PLATFORM_HEIGHT) / 2;
+            xs[count] = (int) ((Constants.SCENE_WIDTH - EntityKind.MONSTER.getWidth()) * random.nextDouble());
+            ys[count] = gapMiddle - EntityKind.MONSTER.getHeight() / 2;
+            kinds[count] = EntityKind.MONSTER;
+            count++;
+        }
+        return count == 0 ? chunk : chunk.withEntities(count, xs, ys, kinds);
+    }
+
+    /**
+     * This static method returns true if every Platform in the chunk can be reached with one jump from
+     * the one before it (the first from the Platform of kind startKind at (startX, startY)), allowing
+     * REACH_SLACK of the JumpEnvelope and taking moving Platforms and disappearing Platforms into account
+     * (see JumpEnvelope.canReach). It is a table lookup per Platform, cheap enough to run on every chunk.
+     */
+    public static boolean isReachable(PlatformChunk chunk, double startX, double startY, PlatformKind startKind) {
+        double x = startX;
+        double y = startY;
+        PlatformKind kind = startKind;
+        for (int i = 0; i < chunk.getCount(); i++) {
+            if (!JumpEnvelope.canReach(x, y, kind, chunk.getX(i), chunk.getY(i), chunk.getKind(i), Constants.REACH_SLACK)) {
+                return false;
+            }
+            x = chunk.getX(i);
+            y = chunk.getY(i);
+            kind = chunk.getKind(i);
+        }
+        return true;
+    }
+
+    /**
+     * This helper method lays out the chunk with the given index at the given difficulty level,
+     * starting from a Platform at (startX, startY), and adds Platforms until the last one is at or
+     * above the chunk's top. The bounds are worked out from the previous platform's location and the
+     * level's offsets, and a random number within them is selected for each coordinate.
+     */
+    private static PlatformChunk layOut(long seed, int index, double startX, double startY, double level) {
+        GameRandom random = new GameRandom(GameRandom.seedFor(seed, index));
+        double xOffset = DifficultyCurve.xOffset(level);
+        double minGap = DifficultyCurve.minGap(level);
+        double maxGap = DifficultyCurve.maxGap(level);
+        double chunkTop = PlatformChunk.topOf(index);
+        double[] xs = new double[INITIAL_CHUNK_CAPACITY];
+        double[] ys = new double[INITIAL_CHUNK_CAPACITY];
+        PlatformKind[] kinds = new PlatformKind[INITIAL_CHUNK_CAPACITY];
+        int count = 0;
+        double x = startX;
+        double y = startY;
+        while (y > chunkTop || count == 0) {
+            double lowX = Math.max(0, (x - xOffset));
+            double highX = Math.min((Constants.SCENE_WIDTH - Constants.PLATFORM_WIDTH), (x + xOffset));
+            x = lowX + (int) ((highX - lowX) * random.nextDouble());
+
+            double lowY = y - minGap;
+            double highY = y - maxGap;
+            y = lowY + (int) ((highY - lowY) * random.nextDouble());
+
+            if (count == xs.length) {
+                xs = Arrays.copyOf(xs, count * 2);
+                ys = Arrays.copyOf(ys, count * 2);
+                kinds = Arrays.copyOf(kinds, count * 2);
+            }
+            xs[count] = x;
+            ys[count] = y;
+            kinds[count] = DifficultyCurve.kindOf(level, random.nextDouble());
+            count++;
+        }
+        return new PlatformChunk(index, count, xs, ys, kinds);
+    }
+}
@@ -1,225 +1,426 @@
 package doodlejump;
 
-import javafx.scene.layout.Pane;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * This PlatformHandler class handles the logic involved with moving and making platforms
- * in our DoodleJump game. It is contained by the Game class and is associated with the
- * Doodle class, Platform class, and PaneOrganizer class . The class contains a constructor, a method to
+ * in our DoodleJump game. It is contained by the World class and is associated with the
+ * Doodle class, Platform class, and the WorldListener that renders the game. It never touches a JavaFX
+ * node itself, so the whole simulation can run headless. The class contains a constructor, a method to
  * manually associate the Doodle and PlatformHandler (addDoodle), methods to generate new
- * semi-random platforms as the game opens and then when it scrolls (generatePlatforms, spawnPlatforms),
+ * semi-random platforms as the game opens and then when it scrolls (generatePlatforms, addPlatform),
  * a method that checks for collisions between the doodle and platform (checkIntersection),
- * a method to check for and handle platforms falling offscreen (checkOffscreen),
- * a method to scroll platforms such that the doodle appears to be moving upwards
- * (scrollPlatforms), and a method that updates the player's score based on how much the platforms scroll downwards.
+ * a method to remove platforms that disappeared or fell offscreen (checkOffscreen),
+ * a method to scroll the camera such that the doodle appears to be moving upwards
+ * (scrollCamera), and a method that updates the player's score based on how much the platforms scroll downwards.
+ * All positions are world coordinates; the camera offset is the single number that turns them into
+ * screen coordinates (screen y = world y + camera offset).
+ * The springs, jetpacks and monsters that come with each chunk are run by the EntityHandler, which the
+ * PlatformHandler contains and calls at the matching point of each of its own steps, so that entities
+ * move, collide and are culled along with the Platforms and share their PlatformIndex.
  */
 public class PlatformHandler {
-    private Platform platform;
-    private ArrayList<Platform> platforms;
-    private Pane gamePane;
+    private double generatedTop;
+    private PlatformStore platforms;
+    private PlatformIndex index;
+    private EntityHandler entities;
+    private PlatformPool pool;
     private Doodle doodle;
     private int score;
-    private PaneOrganizer organizer;
+    private double cameraOffset;
+    private WorldListener listener;
+    private PlatformGenerator generator;
+    private long platformsSpawned;
+    private long platformsCulled;
+    private long collisions;
+    private int[] despawning;
+    private int despawnCount;
 
     /**
-     * This PlatformHandler constructor is called in the Game class constructor and has 4 parameters:
-     * the original RegularPlatform that the doodle begins bouncing on at the start of the game,
-     * an ArrayList that will store all of the platforms visible in the game,
-     * the Pane on which the doodle and platforms appear, and the PaneOrganizer
-     * to handle the graphical logic of the platforms. All of the arguments that get passed in,
-     * save for the PaneOrganizer, are initialized in the Game class to be associated here,
-     * with the PlatformHandler. As such, all of the arguments are assigned to their
-     * respective instance variables in this class. Additionally, the player's score is set to
+     * This PlatformHandler constructor is called in the World class constructor and has 3 parameters:
+     * the PlatformStore that will store all of the platforms visible in the game, the World's
+     * PlatformGenerator that decides where and which platforms spawn, and the WorldListener that is told
+     * whenever platforms or the score change, so that the graphical side of the game can follow along. All of the arguments that get passed in
+     * are associated here, with the PlatformHandler. As such, all of the arguments are assigned to their
+     * respective instance variables in this class, a new PlatformIndex over the store and a new
+     * EntityStore, the EntityHandler that runs the entities, and an empty
+     * PlatformPool to recycle platforms are created, and the regular Platform that the doodle begins
+     * bouncing on is added to the game with addPlatform. Additionally, the player's score is set to
      * zero to begin the game (this gets updated later in the class).
      */
-    public PlatformHandler(Platform platform, ArrayList<Platform> platforms, Pane gamePane, PaneOrganizer organizer) {
-        this.platform = platform;
+    public PlatformHandler(PlatformStore platforms, PlatformGenerator generator, WorldListener listener) {
         this.platforms = platforms;
-        this.gamePane = gamePane;
-        this.organizer = organizer;
+        this.generator = generator;
+        this.listener = listener;
+        EntityStore entityStore = new EntityStore();
+        this.index = new PlatformIndex(platforms, entityStore);
+        this.entities = new EntityHandler(entityStore, this.index, listener);
+        this.pool = new PlatformPool();
+        this.despawning = new int[4];
         this.score = 0;
+        this.addPlatform(PlatformKind.REGULAR, Constants.STARTING_PLATFORM_XLOC, Constants.STARTING_PLATFORM_YLOC);
+        this.generatedTop = Constants.STARTING_PLATFORM_YLOC;
     }
 
     /**
      * This method helps to manually associate the Doodle and PlatformHandler after both instances
      * are constructed, because both of those classes end up needing to know about each other for the
-     * game to function correctly. As such, this method is called in the Game class and takes in the
+     * game to function correctly. As such, this method is called in the World class and takes in the
      * Doodle constructed in the Game class as an argument. The method then assigns that doodle to an
      * instance variable so it can be used in other methods in this class.
      */
     public void addDoodle(Doodle doodle) {
         this.doodle = doodle;
+        this.entities.addDoodle(doodle);
     }
 
     /**
-     * This generatePlatforms method is called once in the Game class's startGame method to populate
+     * This generatePlatforms method is called once in the World class's constructor to populate
      * the screen with platforms, and then once the platforms begin to scroll,
-     * the method is called continuously in this class's scrollPlatforms method to keep
+     * the method is called by the World's update every time the camera has moved, to keep
      * the screen full of Platforms as the player advances.
-     * This method handles the generation of semi-randomly located platforms by constantly
-     * reassigning our platform instance variable to a new platform; if in the while loop
-     * (which checks if the top platform is still onscreen, i.e. the player hasn't fallen off),
-     * the method uses high and low bounds based on the previous platform to determine semi-random
-     * x- and y- coordinates based on what the doodle can feasibly reach from the last platform.
-     * These random coordinates are passed into the spawnPlatform that returns an instance of a
-     * Platform subclass, which is added to the gamePane graphically
-     * upon construction. This new Platform is added to the ArrayList so that we can track its
-     * movement/when it falls offscreen. The topPlatform and platform instance variable are both
-     * reassigned to this new Platform so that we can continue generating new Platforms
-     * based on the last new Platform, and the instance variable so that we can use the information
-     * on the Platform's coordinates throughout the
-     * class.
+     * The level is laid out a PlatformChunk at a time by the PlatformGenerator, and this method keeps
+     * more than a whole chunk of Platforms ready above the top of the screen: while the top of the
+     * last chunk added is less than a chunk height above the screen, the next chunk is taken from the
+     * generator and every Platform in it is handed to addPlatform, which pushes it on the top of the
+     * PlatformStore so that we can track its movement/when it falls offscreen and tells the listener
+     * about it so it can be drawn, and the chunk's entities are handed to the EntityHandler. Most calls therefore do nothing, and the one that adds a chunk
+     * only copies a layout that the generator (possibly on its background thread) already worked out.
      */
     public void generatePlatforms() {
-        Platform topPlatform = this.platform;
-        while (topPlatform.getYLocation() > 0) {
-            double lowX = Math.max(0, (topPlatform.getXLocation() - Constants.X_OFFSET));
-            double highX = Math.min((Constants.SCENE_WIDTH - Constants.PLATFORM_WIDTH),
-                                    (topPlatform.getXLocation() + Constants.X_OFFSET));
-            double randomX = lowX + (int) ((highX - lowX) * Math.random()); // takes the minimum and maximum possible X coordinate based on the last platforms' location and
-                                                                            // a predetermined offset; selects a random number within the range of the platform's possible X
-                                                                            // coordinates.
-
-            double lowY = topPlatform.getYLocation() - Constants.Y_OFFSET_MIN;
-            double highY = topPlatform.getYLocation() - Constants.Y_OFFSET_MAX;
-            double randomY = lowY + (int) ((highY - lowY) * Math.random()); // takes the minimum and maximum possible Y coordinate based on the last platform's location and
-                                                                            // a predetermined offset; selects a random number within the range of the platform's possible Y
-                                                                            // coordinates.
-
-            Platform newPlatform = this.spawnPlatform(randomX, randomY); // spawnPlatform returns the Platform subclass that's instantiated
-            this.platforms.add(newPlatform);
-            topPlatform = newPlatform;
-            this.platform = topPlatform;
+        while (this.generatedTop + this.cameraOffset > -Constants.CHUNK_HEIGHT) {
+            PlatformChunk chunk = this.generator.nextChunk();
+            for (int i = 0; i < chunk.getCount(); i++) {
+                this.addPlatform(chunk.getKind(i), chunk.getX(i), chunk.getY(i));
+            }
+            for (int i = 0; i < chunk.getEntityCount(); i++) {
+                this.entities.addEntity(chunk.getEntityKind(i), chunk.getEntityX(i), chunk.getEntityY(i));
+            }
+            this.generatedTop = PlatformChunk.topOf(chunk.getIndex());
         }
     }
 
     /**
-     * This helper method is called in the generatePlatforms method above. Here, we handle the
-     * random selection of the Platform subclass instance that will
-     * next appear onscreen. The method takes in two arguments, double xLocation and double yLocation,
-     * which are the semi-random coordinates generated by the generatePlatforms method that
-     * represent where the Platform will spawn onscreen. Using a switch statement,
-     * one of the four Platform subclasses have an instance created and is polymorphically
-     * assigned to the Platform declaration. The Platform subclass is returned such that it can continue
-     * to be used in the generatePlatforms method.
-     */
-    private Platform spawnPlatform(double xLocation, double yLocation) {
-        int randInt = (int) (Math.random() * 4);
-        Platform platform;
-        switch (randInt) {
-            case 0:
-                platform = new RegularPlatform(this.gamePane, xLocation, yLocation);
-                break;
-            case 1:
-                platform = new MovingPlatform(this.gamePane, xLocation, yLocation);
-                break;
-            case 2:
-                platform = new DisappearingPlatform(this.gamePane, xLocation, yLocation);
-                break;
-            default:
-                platform = new BouncyPlatform(this.gamePane, xLocation, yLocation);
-                break;
-        }
-        return platform;
+     * This helper method is called in the constructor and generatePlatforms, and by the benchmarks to
+     * build synthetic worlds, to bring a Platform of the given kind into the game at the given world
+     * coordinates: the PlatformPool hands back a Platform view of that kind--a recycled one whenever
+     * possible--which is pushed on the top of the PlatformStore with the coordinates, the new slot is
+     * added to the PlatformIndex, and the listener is told about it. The slot's sequence number is
+     * returned.
+     */
+    int addPlatform(PlatformKind kind, double xLocation, double yLocation) {
+        this.platformsSpawned++;
+        return this.pushPlatform(kind, xLocation, yLocation, this.pool.acquire());
     }
 
     /**
-     * This method is called in the Doodle class's updatePosition method to help check if the
+     * This helper method is called by addPlatform, and by readState to put back a snapshot's Platforms
+     * without counting them as spawned or as requests to the PlatformPool. It binds the given Platform
+     * view to a new slot on the top of the PlatformStore, files the slot in the PlatformIndex and tells
+     * the listener, and returns the slot's sequence number.
+     */
+    private int pushPlatform(PlatformKind kind, double xLocation, double yLocation, Platform view) {
+        int sequence = this.platforms.pushTop(kind, xLocation, yLocation, view);
+        this.index.add(sequence);
+        this.listener.platformAdded(view);
+        return sequence;
+    }
+
+    /**
+     * This method is called once every game tick by the World, before the Doodle moves, and runs the
+     * movement system, which advances every Platform with motion by one tick in one sweep over the
+     * PlatformStore's motion arrays. This is the one
+     * shared clock for all moving platforms: there are no per-platform Timelines, and their positions
+     * are always the ones checkIntersection sees. The EntityHandler's movement system then moves the
+     * monsters and projectiles the same way.
+     */
+    public void movePlatforms() {
+        this.platforms.moveMovingPlatforms();
+        this.entities.moveEntities(this.cameraOffset);
+    }
+
+    /**
+     * This method is called in the collision stage of the World's update to help check if the
      * Doodle and a Platform collide, and if so, updates the velocity to the
-     * rebound value to let the Doodle appear to bounce off the Platform. When called, the method cycles through
-     * the ArrayList of Platform and, if the Doodle is currently falling, checks if the Doodle's
-     * Rectangle graphically intersects each Platform based on its current location.
-     * If there is a collision, the method then checks the boolean values of the Platform;
-     * if the Platform is a BouncyPlatform (isBouncy is true), the method returns the
-     * Bouncy rebound velocity to Doodle's updateVelocity variable and exits the for-loop. Otherwise, if the
-     * Platform is a DisappearingPlatform (isDisappearing is true), the Platform will
-     * be removed from the game logically and graphically before returning
-     * the normal rebound velocity to have the Doodle bounce upwards. If the Platform that
-     * Doodle collides with is neither Bouncy nor Disappearing, the method will skip over
-     * the if-statement bodies and simply return the constant rebound velocity such that
-     * the Doodle bounces normally off the Platform. If the method exits the for-loop
-     * without returning a value, this means that a) there was no intersection, or b) the Doodle wasn't
-     * falling, so the updatedVelocity that was initially passed in is returned to the Doodle as normal.
+     * rebound value to let the Doodle appear to bounce off the Platform. When called, the method
+     * checks, if the Doodle is currently falling, whether the Doodle's bounding box met a Platform
+     * anywhere on its way down this tick, from where it was before gravity moved it to where it is now.
+     * Checking the whole path (a swept test) rather than only the new location means a fast Doodle, or
+     * a longer DURATION, can never carry the Doodle through a 7-pixel Platform between two ticks.
+     * Rather than cycling through the whole PlatformStore, it asks
+     * the PlatformIndex, which only looks at the platforms in the bands along the path and returns the
+     * one met first. If there is a collision, the Doodle is put back where it first touched the
+     * Platform (standing on it, or where it started if it already overlapped it), so that a bounce
+     * starts from the same place whatever the timestep.
+     * The method then runs the collision response, which reads the Platform's components rather than
+     * checking what kind it is: the rebound velocity its PlatformKind gives (the Bouncy rebound velocity
+     * for a bouncy Platform, the normal one otherwise) is returned to the World, which gives it to the Doodle,
+     * and if the Platform is fragile, as a disappearing Platform is, it is queued for the despawn system
+     * (see checkOffscreen) to remove later in the tick. If a) there was no intersection, or b) the Doodle
+     * wasn't falling, the updatedVelocity that was initially passed in is returned to the Doodle as normal.
+     * Either way, the velocity is then passed through the EntityHandler's collide, so that a spring
+     * sitting on the Platform, a jetpack or a hazard along the way has the last word.
      */
     public double checkIntersection(double updatedVelocity) {
-        for (int i = 0; i < this.platforms.size(); i++) {
-            if ((updatedVelocity > 0) &&
-                    (this.doodle.getDoodleRect().intersects(this.platforms.get(i).getXLocation(),
-                                                            this.platforms.get(i).getYLocation(), Constants.PLATFORM_WIDTH, Constants.PLATFORM_HEIGHT))) {
-                if (this.platforms.get(i).isBouncy) {
-                    return (Constants.BOUNCY_REBOUND_VELOCITY);
-                } else if (this.platforms.get(i).isDisappearing) {
-                    this.gamePane.getChildren().remove(this.platforms.get(i).getPlatformRect());
-                    this.platforms.remove(i);
+        return this.entities.collide(this.collidePlatforms(updatedVelocity), updatedVelocity > 0);
+    }
+
+    /**
+     * This helper method is the Platform half of checkIntersection.
+     */
+    private double collidePlatforms(double updatedVelocity) {
+        if (updatedVelocity > 0) {
+            double fromY = Math.min(this.doodle.getPreviousYLoc(), this.doodle.getYLoc());
+            int hit = this.index.findFirstContact(this.doodle.getXLoc(), fromY, this.doodle.getYLoc(),
+                                                  Constants.DOODLE_WIDTH, Constants.DOODLE_HEIGHT);
+            if (hit >= 0) {
+                this.collisions++;
+                this.doodle.setYLoc(Math.max(fromY, this.platforms.getY(hit) - Constants.DOODLE_HEIGHT));
+                if (this.platforms.isFragile(hit)) {
+                    this.despawn(hit);
                 }
-                return Constants.REBOUND_VELOCITY;
+                return this.platforms.getKind(hit).getReboundVelocity();
             }
         }
         return updatedVelocity;
     }
 
     /**
-     * This method is called in the Doodle class's updatePosition method in order to scroll the
-     * Platforms downwards when the Doodle reaches the midpoint
-     * of the screen, giving the illusion of the Doodle's upward movement. When called, the method
-     * checks if the Doodle's updated potential y-coordinate (updatedPosition, the double argument
-     * passed into the method) is higher than the midpoint of the screen. If so,
-     * the difference between the halfway point and updatedPosition is calculated.
-     * Using an enhanced for-loop, this difference is added to each of the Platforms'
-     * y-coordinates to move them downwards by the same amount that the doodle would have moved up.
-     * The Doodle's y-coordinate is reset to the middle of the screen. The player's score is increased
-     * by 1 while the scrollPlatforms method is called such that the score only increments when
-     * the Platforms scroll. The method then generates new Platforms
-     * to fill the new space at the top of the screen, and the method calls checkOffscreen to
-     * check for and remove Platforms that fall offscreen after
-     * being moved downwards.
-     */
-    public void scrollPlatforms(double updatedPosition) {
-        if (this.doodle.getYLoc() < Constants.SCENE_HALF_HEIGHT) {
-            double difference = Constants.SCENE_HALF_HEIGHT - updatedPosition;
-            for (Platform platform : this.platforms) {
-                platform.setYLocation(platform.getYLocation() + difference);
-            }
-            this.doodle.setYLoc(Constants.SCENE_HALF_HEIGHT);
+     * This method is called in the scroll stage of the World's update in order to scroll the screen
+     * upwards when the Doodle reaches the midpoint of the screen, giving the illusion of the Doodle's
+     * upward movement. It checks if the Doodle's updated y-coordinate (updatedPosition, the double
+     * argument passed into the method) is, on screen, higher than the midpoint of the screen. If so,
+     * the camera offset is moved so that the Doodle sits exactly on the midpoint. Nothing else
+     * moves: the Platforms keep their world coordinates and the renderer applies the camera offset once,
+     * so a scroll costs the same however many Platforms there are. The player's score is increased
+     * by 1 whenever the camera moves, so the score only increments when the screen scrolls.
+     * The method returns whether the camera moved.
+     */
+    public boolean scrollCamera(double updatedPosition) {
+        if (updatedPosition + this.cameraOffset < Constants.SCENE_HALF_HEIGHT) {
+            this.cameraOffset = Constants.SCENE_HALF_HEIGHT - updatedPosition;
             this.increaseScore();
-            this.generatePlatforms();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * This accessor method returns the camera offset, which is added to a world y-coordinate to get
+     * the y-coordinate on screen. It starts at zero and grows as the Doodle climbs.
+     */
+    public double getCameraOffset() {
+        return this.cameraOffset;
+    }
+
+    /**
+     * This mutator method moves the camera directly. It is only used by the benchmarks, which need to
+     * put the camera back after measuring a scroll.
+     */
+    void setCameraOffset(double cameraOffset) {
+        this.cameraOffset = cameraOffset;
+    }
+
+    /**
+     * This helper method adds the Platform at the given sequence to the despawn queue.
+     */
+    private void despawn(int sequence) {
+        if (this.despawnCount == this.despawning.length) {
+            this.despawning = Arrays.copyOf(this.despawning, this.despawnCount * 2);
         }
-        this.checkOffscreen();
+        this.despawning[this.despawnCount++] = sequence;
     }
 
     /**
-     * This helper method checks for and removes any platforms that fall offscreen
-     * after being moved down to simulate the Doodle moving upwards.
-     * The method is called in the scrollPlatforms method. It uses a for-loop to
-     * cycle through the ArrayList of platforms; if any of the Platforms
-     * have a y-coordinate greater than the scene's height, this means it has fallen
-     * off the bottom of the screen and should be removed. As such,
-     * the platform is removed graphically and logically.
+     * This helper method is the despawn system: it removes the Platforms queued by the collision
+     * response, then checks for and removes any platforms that fall offscreen
+     * after the camera has moved up past them.
+     * The method is called in the cull stage of the World's update, and by the benchmarks.
+     * A queued Platform is removed from the game logically--its slot in the PlatformStore is tombstoned
+     * rather than cut out, so no other Platform moves--(and the listener told, to remove it
+     * graphically) and released to the PlatformPool.
+     * Platforms are stored from the bottom of the level up, so only the bottom of the PlatformStore
+     * needs checking: while the bottom Platform has an on-screen y-coordinate greater than the
+     * scene's height, it has fallen off the bottom of the screen, so the listener is told so it can be
+     * removed graphically, it is removed from the PlatformIndex and popped off the store, and its
+     * Platform view is released to the PlatformPool. The first Platform still on screen ends the check, so culling
+     * costs O(1) per removed Platform. Finally the EntityHandler culls the entities that fell offscreen.
      */
-    private void checkOffscreen() {
-        for (int i = 0; i < this.platforms.size(); i++) {
-            if (this.platforms.get(i).getYLocation() > Constants.SCENE_HEIGHT) {
-                this.gamePane.getChildren().remove(this.platforms.get(i).getPlatformRect());
-                this.platforms.remove(i);
-                i--; // so that the for-loop doesn't skip a platform mistakenly after removing one
+    public void checkOffscreen() {
+        for (int i = 0; i < this.despawnCount; i++) {
+            int sequence = this.despawning[i];
+            this.listener.platformRemoved(this.platforms.getView(sequence));
+            this.index.remove(sequence);
+            this.pool.release(this.platforms.tombstone(sequence));
+        }
+        this.despawnCount = 0;
+        int bottom = this.platforms.bottomSequence();
+        while (bottom != this.platforms.topSequence()
+                && this.platforms.getY(bottom) + this.cameraOffset > Constants.SCENE_HEIGHT) {
+            this.listener.platformRemoved(this.platforms.getView(bottom));
+            this.index.remove(bottom);
+            this.pool.release(this.platforms.popBottom());
+            this.platformsCulled++;
+            bottom = this.platforms.bottomSequence();
+        }
+        this.entities.cull(this.cameraOffset);
+    }
+
+    /**
+     * This method is called by the World's writeState to add the score, the camera, the counters (the
+     * PlatformPool's included) and every Platform to a WorldSnapshot. The Platforms are written from the bottom up, as their kind, coordinates and, for
+     * a moving Platform, the direction it is moving in. The EntityHandler then writes the entities.
+     */
+    void writeState(ByteBuffer buffer) {
+        buffer.putInt(this.score);
+        buffer.putDouble(this.cameraOffset);
+        buffer.putDouble(this.generatedTop);
+        buffer.putLong(this.platformsSpawned);
+        buffer.putLong(this.platformsCulled);
+        buffer.putLong(this.collisions);
+        buffer.putLong(this.pool.getAcquisitions());
+        buffer.putLong(this.pool.getHits());
+        buffer.putInt(this.platforms.size());
+        int top = this.platforms.topSequence();
+        for (int sequence = this.platforms.bottomSequence(); sequence != top; sequence++) {
+            PlatformKind kind = this.platforms.getKind(sequence);
+            if (kind == null) {
+                continue;
             }
+            buffer.put((byte) kind.ordinal());
+            buffer.putDouble(this.platforms.getX(sequence));
+            buffer.putDouble(this.platforms.getY(sequence));
+            buffer.put((byte) Math.signum(this.platforms.getVelocity(sequence)));
+        }
+        this.entities.writeState(buffer);
+    }
+
+    /**
+     * This method is called by the World's readState and puts back what writeState wrote. Every
+     * Platform in the game is removed, telling the listener, and the snapshot's Platforms are added in
+     * their place with pushPlatform, so the listener sees them appear just as if they had been generated
+     * but neither the spawn counter nor the PlatformPool's counters change; the counters are then set to
+     * the saved game's.
+     */
+    void readState(ByteBuffer buffer) {
+        int score = buffer.getInt();
+        this.cameraOffset = buffer.getDouble();
+        this.generatedTop = buffer.getDouble();
+        long spawned = buffer.getLong();
+        long culled = buffer.getLong();
+        long collisions = buffer.getLong();
+        long acquisitions = buffer.getLong();
+        long hits = buffer.getLong();
+        this.despawnCount = 0;
+
+        while (this.platforms.bottomSequence() != this.platforms.topSequence()) {
+            int bottom = this.platforms.bottomSequence();
+            this.listener.platformRemoved(this.platforms.getView(bottom));
+            this.index.remove(bottom);
+            this.pool.release(this.platforms.popBottom());
+        }
+        PlatformKind[] kinds = PlatformKind.values();
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            PlatformKind kind = kinds[buffer.get()];
+            double xLocation = buffer.getDouble();
+            double yLocation = buffer.getDouble();
+            int sequence = this.pushPlatform(kind, xLocation, yLocation, this.pool.take());
+            this.platforms.setVelocity(sequence, buffer.get() * kind.getSpeed());
         }
+        this.entities.readState(buffer);
+
+        this.score = score;
+        this.listener.scoreChanged(score);
+        this.platformsSpawned = spawned;
+        this.platformsCulled = culled;
+        this.collisions = collisions;
+        this.pool.setCounts(acquisitions, hits);
     }
 
     /**
-     * This helper method is called in the scrollPlatforms method and handles updating the
-     * score Label's text with an updated player score. When called (which is whenever
-     * the platforms scroll), the score increments and the PaneOrganizer's setText method
-     * is called with the updated string passed in, so that the Label can be updated
-     * accordingly in the PaneOrganizer class (since the Label is instantiated in the PaneOrganizer class).
+     * This helper method is called in the scrollCamera method and handles updating the
+     * player score. When called (which is whenever the platforms scroll), the score increments
+     * and the listener is told the new score. The Game does not listen for it: its ScoreDisplay
+     * reads the score once per rendered frame instead.
      */
     private void increaseScore() {
         this.score++;
-        String s = "Score: " + this.score;
-        this.organizer.setText(s);
+        this.listener.scoreChanged(this.score);
+    }
+
+    /**
+     * This accessor method returns the PlatformStore that holds every Platform's data, so that
+     * renderers can read the Platforms' positions and kinds.
+     */
+    public PlatformStore getPlatforms() {
+        return this.platforms;
+    }
+
+    /**
+     * This accessor method returns the EntityHandler that runs the springs, jetpacks and monsters.
+     */
+    public EntityHandler getEntities() {
+        return this.entities;
+    }
+
+    /**
+     * This accessor method returns the PlatformIndex that files the Platforms and entities, so that an
+     * Observation can look only at those near the Doodle.
+     */
+    public PlatformIndex getIndex() {
+        return this.index;
+    }
+
+    /**
+     * This accessor method returns the PlatformPool, so that its hit rate can be reported.
+     */
+    public PlatformPool getPool() {
+        return this.pool;
+    }
+
+    /**
+     * This accessor method returns the player's current score. It is called by the World so that
+     * headless simulations can read the score without a Label.
+     */
+    public int getScore() {
+        return this.score;
     }
-}
 
+    /**
+     * This accessor method returns how many Platforms are currently in the game.
+     */
+    public int getPlatformCount() {
+        return this.platforms.size();
+    }
 
+    /**
+     * This accessor method returns how many Platforms have been added to the game so far.
+     */
+    public long getPlatformsSpawned() {
+        return this.platformsSpawned;
+    }
 
+    /**
+     * This accessor method returns how many Platforms have been removed for falling offscreen so far.
+     */
+    public long getPlatformsCulled() {
+        return this.platformsCulled;
+    }
+
+    /**
+     * This accessor method returns how many times the Doodle has landed on a Platform so far.
+     */
+    public long getCollisions() {
+        return this.collisions;
+    }
+
+    /**
+     * This accessor method returns how many chunks the PlatformGenerator had to lay out on the tick
+     * thread because its background thread had not finished them (see PlatformGenerator.getMisses).
+     */
+    public long getGeneratorMisses() {
+        return this.generator.getMisses();
+    }
+}
@@ -0,0 +1,61 @@
+package doodlejump;
+
+/**
+ * This PlatformKind enum lists the four kinds of Platform that can appear in the game. It is
+ * pure data with no JavaFX dependency, so the headless World can tell the kinds apart. Each kind
+ * carries what a Platform of that kind does, as the data its components are made from: the horizontal
+ * speed it moves at (zero if it does not move), the velocity the Doodle rebounds with after landing on
+ * it, and whether it disappears once landed on; and what it looks like, as a 0xRRGGBB color that the
+ * renderers turn into a JavaFX Color. The PlatformStore attaches the components when the Platform is
+ * pushed, and the tick's systems and the renderers only ever read this data, so a new kind of
+ * Platform needs no new branches anywhere.
+ */
+public enum PlatformKind {
+    REGULAR(0, Constants.REBOUND_VELOCITY, false, 0xF490AC),
+    MOVING(Constants.MOVINGPLATFORM_SPEED, Constants.REBOUND_VELOCITY, false, 0x745D98),
+    DISAPPEARING(0, Constants.REBOUND_VELOCITY, true, 0x72917B),
+    BOUNCY(0, Constants.BOUNCY_REBOUND_VELOCITY, false, 0xD1E2F0);
+
+    private final double speed;
+    private final double reboundVelocity;
+    private final boolean fragile;
+    private final int color;
+
+    PlatformKind(double speed, double reboundVelocity, boolean fragile, int color) {
+        this.speed = speed;
+        this.reboundVelocity = reboundVelocity;
+        this.fragile = fragile;
+        this.color = color;
+    }
+
+    /**
+     * This accessor method returns the horizontal speed a Platform of this kind moves at (UNITS:
+     * pixels/s), or zero if it stays put.
+     */
+    public double getSpeed() {
+        return this.speed;
+    }
+
+    /**
+     * This accessor method returns the velocity the Doodle bounces off a Platform of this kind with
+     * (UNITS: pixels/s).
+     */
+    public double getReboundVelocity() {
+        return this.reboundVelocity;
+    }
+
+    /**
+     * This accessor method returns whether a Platform of this kind disappears once the Doodle lands
+     * on it.
+     */
+    public boolean isFragile() {
+        return this.fragile;
+    }
+
+    /**
+     * This accessor method returns the color a Platform of this kind is drawn in, as 0xRRGGBB.
+     */
+    public int getColor() {
+        return this.color;
+    }
+}
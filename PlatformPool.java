@@ -0,0 +1,90 @@
+package doodlejump;
+
+import java.util.ArrayList;
+
+/**
+ * This PlatformPool class recycles Platforms so that a long game does not keep allocating new ones.
+ * When a Platform falls offscreen or disappears, the PlatformHandler releases it into the pool
+ * instead of dropping it, and the next time addPlatform needs a Platform of that kind it is taken
+ * back out and bound to its new slot in the PlatformStore. A Platform view reads its kind from the
+ * store, so one free list serves every PlatformKind. Once the pool holds as many Platforms as are ever
+ * on screen at once, spawning a Platform allocates nothing. The pool counts how many acquisitions were
+ * served from a free list (hits) so its hit rate can be reported.
+ */
+public class PlatformPool {
+    private ArrayList<Platform> freeList;
+    private long acquisitions;
+    private long hits;
+
+    /**
+     * This PlatformPool constructor creates an empty free list.
+     */
+    public PlatformPool() {
+        this.freeList = new ArrayList<>();
+    }
+
+    /**
+     * This method returns a Platform view, reusing a released one if there is one and constructing a
+     * new one otherwise. It is called in the PlatformHandler's addPlatform method, which then binds the
+     * Platform to a slot of the PlatformStore, which gives it its kind.
+     */
+    public Platform acquire() {
+        this.acquisitions++;
+        if (!this.freeList.isEmpty()) {
+            this.hits++;
+        }
+        return this.take();
+    }
+
+    /**
+     * This method returns a Platform view as acquire does, but without counting the request. It is
+     * called by the PlatformHandler when a snapshot puts its Platforms back, since those are not new
+     * Platforms spawning and must not change the hit rate.
+     */
+    Platform take() {
+        if (!this.freeList.isEmpty()) {
+            return this.freeList.remove(this.freeList.size() - 1);
+        }
+        return new Platform();
+    }
+
+    /**
+     * This method hands a Platform that has left the World back to the pool. It is called by the
+     * PlatformHandler after the WorldListener has been told the Platform was removed, and the
+     * Platform must not be used again until acquire returns it.
+     */
+    public void release(Platform platform) {
+        this.freeList.add(platform);
+    }
+
+    /**
+     * This accessor method returns how many Platforms have been asked for.
+     */
+    public long getAcquisitions() {
+        return this.acquisitions;
+    }
+
+    /**
+     * This accessor method returns how many of those requests were served by a recycled Platform.
+     */
+    public long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * This mutator method is called when a WorldSnapshot is restored and puts back the counts the
+     * saved game's pool had reached, so that its hit rate carries on from where it was.
+     */
+    void setCounts(long acquisitions, long hits) {
+        this.acquisitions = acquisitions;
+        this.hits = hits;
+    }
+
+    /**
+     * This accessor method returns the fraction of requests served by a recycled Platform, or zero
+     * if none have been made.
+     */
+    public double getHitRate() {
+        return this.acquisitions == 0 ? 0 : (double) this.hits / this.acquisitions;
+    }
+}
@@ -0,0 +1,306 @@
+package doodlejump;
+
+import java.util.Arrays;
+
+/**
+ * This PlatformStore class holds every Platform's data in the order the Platforms were added, as
+ * parallel primitive arrays used as one ring buffer: x- and y-coordinates in double arrays, and the
+ * PlatformKind's ordinal in a byte array. The loops that run every tick (collision checks, culling)
+ * read these arrays directly, so they are linear sweeps over contiguous memory rather than walks over
+ * Platform objects scattered around the heap.
+ * What a Platform does, beyond being stood on, is given by its components, which are attached in
+ * pushTop from its PlatformKind's data rather than decided by checking its kind every tick. Motion (a
+ * horizontal velocity, and the x-location before the last move) is kept for the moving Platforms only,
+ * in dense arrays alongside a ComponentSet, so the movement system walks exactly the Platforms that
+ * move; the fragile set marks the Platforms that disappear once landed on, for the PlatformHandler's
+ * collision response. A new kind of Platform is a new PlatformKind with its own data, not a new branch
+ * in any of these loops.
+ * Each slot also keeps its Platform, which is only a thin view onto the slot, for the WorldListener.
+ * The PlatformHandler generates Platforms from the bottom of the level upwards, so insertion order is
+ * also their order by height: new Platforms are pushed on the top and Platforms that fall offscreen
+ * are popped off the bottom, both in O(1), and nothing is ever shifted along an array.
+ * A Platform that disappears in the middle of the level is not cut out; its slot is tombstoned
+ * (marked EMPTY), and is skipped by bottomSequence and popBottom and reclaimed once it reaches the
+ * bottom. Every push is numbered with an ever-increasing sequence number, which is how a slot is
+ * addressed from outside (slot = sequence number & mask). When the ring is full it doubles in size,
+ * keeping every slot where its sequence number maps to.
+ * Code that walks the store goes from bottomSequence() up to, but not including, topSequence(), and
+ * skips the slots whose getKind is null.
+ */
+public class PlatformStore {
+    private static final int INITIAL_CAPACITY = 64; // must be a power of two
+    private static final byte EMPTY = -1; // kind of a slot that holds no Platform
+    private static final PlatformKind[] KINDS = PlatformKind.values();
+
+    private double[] xs;
+    private double[] ys;
+    private byte[] kinds;
+    private Platform[] views;
+    private int mask;
+    private int bottom; // sequence number of the bottom slot
+    private int top; // sequence number the next push gets
+    private int live;
+    private ComponentSet motion;
+    private double[] velocities; // indexed like the motion set's dense array
+    private double[] previousXs; // likewise
+    private ComponentSet fragile;
+
+    /**
+     * This PlatformStore constructor creates an empty store.
+     */
+    public PlatformStore() {
+        this.allocate(INITIAL_CAPACITY);
+        this.motion = new ComponentSet(INITIAL_CAPACITY);
+        this.velocities = new double[this.motion.capacity()];
+        this.previousXs = new double[this.motion.capacity()];
+        this.fragile = new ComponentSet(INITIAL_CAPACITY);
+    }
+
+    /**
+     * This method pushes a Platform of the given kind and world coordinates on the top of the store,
+     * binds the given view to its slot, attaches the components its kind has, and returns its sequence
+     * number. A Platform whose kind has a speed is given motion, starting out moving towards the right.
+     */
+    public int pushTop(PlatformKind kind, double xLocation, double yLocation, Platform view) {
+        if (this.top - this.bottom == this.kinds.length) {
+            this.grow();
+        }
+        int sequence = this.top;
+        int slot = sequence & this.mask;
+        this.xs[slot] = xLocation;
+        this.ys[slot] = yLocation;
+        this.kinds[slot] = (byte) kind.ordinal();
+        if (kind.getSpeed() != 0) {
+            int index = this.motion.add(sequence);
+            if (index == this.velocities.length) {
+                this.velocities = Arrays.copyOf(this.velocities, this.motion.capacity());
+                this.previousXs = Arrays.copyOf(this.previousXs, this.motion.capacity());
+            }
+            this.velocities[index] = kind.getSpeed();
+            this.previousXs[index] = xLocation;
+        }
+        if (kind.isFragile()) {
+            this.fragile.add(sequence);
+        }
+        this.views[slot] = view;
+        view.store = this;
+        view.storeSequence = sequence;
+        this.top++;
+        this.live++;
+        return sequence;
+    }
+
+    /**
+     * This method returns the sequence number of the bottom Platform. If the store is empty it returns
+     * topSequence().
+     */
+    public int bottomSequence() {
+        while (this.bottom != this.top && this.kinds[this.bottom & this.mask] == EMPTY) {
+            this.bottom++;
+        }
+        return this.bottom;
+    }
+
+    /**
+     * This method returns the sequence number the next push will get, which is one past the top slot.
+     */
+    public int topSequence() {
+        return this.top;
+    }
+
+    /**
+     * This method removes the bottom Platform and returns its view, or returns null if the store is
+     * empty.
+     */
+    public Platform popBottom() {
+        int sequence = this.bottomSequence();
+        if (sequence == this.top) {
+            return null;
+        }
+        Platform view = this.clear(sequence);
+        this.bottom++;
+        return view;
+    }
+
+    /**
+     * This method empties the slot with the given sequence number without moving any other slot, and
+     * returns the view that was bound to it (or null if the slot was already empty). The slot's
+     * coordinates are left as they were.
+     */
+    public Platform tombstone(int sequence) {
+        if (sequence - this.bottom < 0 || this.top - sequence <= 0) {
+            return null;
+        }
+        return this.kinds[sequence & this.mask] == EMPTY ? null : this.clear(sequence);
+    }
+
+    /**
+     * This method is the movement system: it moves every Platform with motion by one tick, walking the
+     * motion set's dense arrays and nothing else. The Platform's x-location is updated by
+     * its velocity times the tick duration; a positive velocity moves it right and a negative one moves
+     * it left. If the Platform hits either edge of the scene, the velocity's sign switches such that the
+     * Platform begins to move in the opposite direction. Each Platform's x-location before the move
+     * is kept, for renderers to interpolate from (see getPreviousX).
+     */
+    public void moveMovingPlatforms() {
+        double[] xs = this.xs;
+        double[] previousXs = this.previousXs;
+        double[] velocities = this.velocities;
+        for (int i = 0; i < this.motion.size(); i++) {
+            int slot = this.motion.get(i) & this.mask;
+            previousXs[i] = xs[slot];
+            double x = xs[slot] + velocities[i] * Constants.DURATION;
+            if (x + Constants.PLATFORM_WIDTH > Constants.SCENE_WIDTH) { // checks if platform is offscreen to the right
+                velocities[i] = -Math.abs(velocities[i]);
+            }
+            if (x < 0) { // checks if platform is offscreen to the left
+                velocities[i] = Math.abs(velocities[i]);
+            }
+            xs[slot] = x;
+        }
+    }
+
+    /**
+     * This accessor method returns the world x-coordinate of the given slot.
+     */
+    public double getX(int sequence) {
+        return this.xs[sequence & this.mask];
+    }
+
+    /**
+     * This accessor method returns the world x-coordinate the given slot had before the latest
+     * moveMovingPlatforms, which is its x-coordinate for any Platform that does not move.
+     */
+    public double getPreviousX(int sequence) {
+        int index = this.motion.indexOf(sequence);
+        return index < 0 ? this.xs[sequence & this.mask] : this.previousXs[index];
+    }
+
+    /**
+     * This mutator method sets the horizontal velocity of the given slot. It is used when a
+     * WorldSnapshot is restored, to send each moving Platform back the way it was going. It does nothing
+     * for a Platform without motion.
+     */
+    void setVelocity(int sequence, double velocity) {
+        int index = this.motion.indexOf(sequence);
+        if (index >= 0) {
+            this.velocities[index] = velocity;
+        }
+    }
+
+    /**
+     * This accessor method returns the world y-coordinate of the given slot.
+     */
+    public double getY(int sequence) {
+        return this.ys[sequence & this.mask];
+    }
+
+    /**
+     * This accessor method returns the horizontal velocity of the given slot (UNITS: pixels/s), which
+     * is zero for every Platform without motion.
+     */
+    public double getVelocity(int sequence) {
+        int index = this.motion.indexOf(sequence);
+        return index < 0 ? 0 : this.velocities[index];
+    }
+
+    /**
+     * This accessor method returns whether the Platform at the given sequence disappears once the
+     * Doodle lands on it.
+     */
+    public boolean isFragile(int sequence) {
+        return this.fragile.indexOf(sequence) >= 0;
+    }
+
+    /**
+     * This accessor method returns how many Platforms have motion. Together with getMovingSequence it
+     * lets a renderer sync just the Platforms that move.
+     */
+    public int getMovingCount() {
+        return this.motion.size();
+    }
+
+    /**
+     * This accessor method returns the sequence number of the index-th Platform with motion, for index
+     * from 0 to getMovingCount; the order is arbitrary.
+     */
+    public int getMovingSequence(int index) {
+        return this.motion.get(index);
+    }
+
+    /**
+     * This accessor method returns the PlatformKind of the given slot, or null if it is empty.
+     */
+    public PlatformKind getKind(int sequence) {
+        byte kind = this.kinds[sequence & this.mask];
+        return kind == EMPTY ? null : KINDS[kind];
+    }
+
+    /**
+     * This accessor method returns the Platform view bound to the given slot, or null if it is empty.
+     */
+    public Platform getView(int sequence) {
+        return this.views[sequence & this.mask];
+    }
+
+    /**
+     * This accessor method returns how many Platforms are in the store, tombstones not included.
+     */
+    public int size() {
+        return this.live;
+    }
+
+    /**
+     * This helper method empties the slot of the given sequence number, detaching its components, and
+     * returns the view that was bound to it.
+     */
+    private Platform clear(int sequence) {
+        int slot = sequence & this.mask;
+        int index = this.motion.remove(sequence);
+        if (index >= 0) {
+            this.velocities[index] = this.velocities[this.motion.size()];
+            this.previousXs[index] = this.previousXs[this.motion.size()];
+        }
+        this.fragile.remove(sequence);
+        Platform view = this.views[slot];
+        this.kinds[slot] = EMPTY;
+        this.views[slot] = null;
+        this.live--;
+        return view;
+    }
+
+    /**
+     * This helper method creates empty arrays of the given capacity.
+     */
+    private void allocate(int capacity) {
+        this.xs = new double[capacity];
+        this.ys = new double[capacity];
+        this.kinds = new byte[capacity];
+        Arrays.fill(this.kinds, EMPTY);
+        this.views = new Platform[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * This helper method doubles the ring, copying every slot to where its sequence number maps in the
+     * larger ring, and resizes the ComponentSets to match.
+     */
+    private void grow() {
+        double[] oldXs = this.xs;
+        double[] oldYs = this.ys;
+        byte[] oldKinds = this.kinds;
+        Platform[] oldViews = this.views;
+        int oldMask = this.mask;
+        this.allocate(oldKinds.length * 2);
+        for (int sequence = this.bottom; sequence != this.top; sequence++) {
+            int from = sequence & oldMask;
+            int to = sequence & this.mask;
+            this.xs[to] = oldXs[from];
+            this.ys[to] = oldYs[from];
+            this.kinds[to] = oldKinds[from];
+            this.views[to] = oldViews[from];
+        }
+        this.motion.resize(this.kinds.length);
+        this.fragile.resize(this.kinds.length);
+    }
+}
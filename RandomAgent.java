@@ -0,0 +1,31 @@
+package doodlejump;
+
+/**
+ * This RandomAgent class is a baseline Agent that mashes the keys: every HOLD_TICKS ticks it picks
+ * LEFT, RIGHT or nothing at random and holds it until the next pick. Its GameRandom is seeded from the
+ * game's seed in start, so a batch played by RandomAgents is as reproducible as any other.
+ */
+public class RandomAgent implements Agent {
+    private static final int HOLD_TICKS = 10;
+
+    private GameRandom random;
+    private int input;
+    private int ticksLeft;
+
+    @Override
+    public void start(long seed) {
+        this.random = new GameRandom(GameRandom.seedFor(seed, -1));
+        this.ticksLeft = 0;
+    }
+
+    @Override
+    public int act(Observation observation) {
+        if (this.ticksLeft == 0) {
+            int choice = this.random.nextInt(3);
+            this.input = choice == 0 ? 0 : choice == 1 ? Move.LEFT.bit() : Move.RIGHT.bit();
+            this.ticksLeft = HOLD_TICKS;
+        }
+        this.ticksLeft--;
+        return this.input;
+    }
+}
@@ -0,0 +1,118 @@
+package doodlejump;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * This Replay class is a decoded replay file (see ReplayRecorder for the format): the seed the game was
+ * played with, every change of input with the tick it was made after, and the tick and score the game
+ * ended on. The changes are kept in two parallel primitive arrays so that playing a replay back
+ * allocates nothing.
+ */
+public class Replay {
+    private long seed;
+    private long[] ticks;
+    private int[] inputs;
+    private int inputCount;
+    private long finalTick;
+    private int finalScore;
+
+    private Replay() {
+        this.ticks = new long[16];
+        this.inputs = new int[16];
+    }
+
+    /**
+     * This static method decodes a replay from the bytes produced by a ReplayRecorder.
+     */
+    public static Replay fromBytes(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != ReplayRecorder.MAGIC) {
+            throw new IOException("Not a DoodleJump replay");
+        }
+        int version = in.readUnsignedByte();
+        if (version != ReplayRecorder.VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        Replay replay = new Replay();
+        replay.seed = in.readLong();
+        long tick = 0;
+        while (true) {
+            tick += VarInt.read(in);
+            int code = in.readUnsignedByte();
+            if (code == ReplayRecorder.END) {
+                replay.finalTick = tick;
+                replay.finalScore = (int) VarInt.read(in);
+                return replay;
+            }
+            int input = code - ReplayRecorder.INPUT;
+            if ((input & ~(Move.LEFT.bit() | Move.RIGHT.bit())) != 0) {
+                throw new IOException("Unknown replay entry " + code);
+            }
+            replay.add(tick, input);
+        }
+    }
+
+    /**
+     * This static method reads and decodes a replay file.
+     */
+    public static Replay read(Path path) throws IOException {
+        return fromBytes(Files.readAllBytes(path));
+    }
+
+    private void add(long tick, int input) {
+        if (this.inputCount == this.ticks.length) {
+            this.ticks = Arrays.copyOf(this.ticks, this.inputCount * 2);
+            this.inputs = Arrays.copyOf(this.inputs, this.inputCount * 2);
+        }
+        this.ticks[this.inputCount] = tick;
+        this.inputs[this.inputCount] = input;
+        this.inputCount++;
+    }
+
+    /**
+     * This accessor method returns the seed the recorded game was played with.
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * This accessor method returns how many changes of input were recorded.
+     */
+    public int getInputCount() {
+        return this.inputCount;
+    }
+
+    /**
+     * This accessor method returns the tick the i-th change of input was made after.
+     */
+    public long getTick(int i) {
+        return this.ticks[i];
+    }
+
+    /**
+     * This accessor method returns the input bits (see Move.bit) of the i-th change of input.
+     */
+    public int getInput(int i) {
+        return this.inputs[i];
+    }
+
+    /**
+     * This accessor method returns the tick the recorded game ended on.
+     */
+    public long getFinalTick() {
+        return this.finalTick;
+    }
+
+    /**
+     * This accessor method returns the score the recorded game ended with.
+     */
+    public int getFinalScore() {
+        return this.finalScore;
+    }
+}
@@ -0,0 +1,100 @@
+package doodlejump;
+
+import java.io.IOException;
+
+/**
+ * This ReplayCheck class checks that a replay reproduces the game it was recorded from. It plays the
+ * given number of headless games with the named Agent, records every change of input with a
+ * ReplayRecorder the way the Game does, encodes the replay, decodes it again with Replay.fromBytes and
+ * plays it back with the ReplayPlayer, which must end on the same tick, with the same score and for the
+ * same reason as the original game. Unlike the ReplayPlayer's own mainline, which needs replay files
+ * recorded by hand, it makes its own, so it can be run after any change to the simulation or the
+ * replay format: gradle replaycheck --args="games maxTicks seed agent". It prints every game that did
+ * not match, then MATCH or MISMATCH with a summary, and exits with status 1 if any game did not match.
+ */
+public class ReplayCheck {
+    private long mismatches;
+    private long bytes;
+    private long inputs;
+
+    /**
+     * This method records one game with the given seed and Agent, plays its replay back, and returns
+     * whether the playback matched.
+     */
+    public boolean check(long seed, long maxTicks, Agent agent) throws IOException {
+        World world = new World(seed, WorldListener.NONE);
+        ReplayRecorder recorder = new ReplayRecorder(seed);
+        Observation observation = new Observation(Observation.DEFAULT_PLATFORMS, Observation.DEFAULT_HAZARDS);
+        agent.start(seed);
+        while (!world.isGameOver() && world.getTicks() < maxTicks) {
+            observation.fill(world);
+            int input = agent.act(observation);
+            if (input != world.getInput()) {
+                recorder.record(world.getTicks(), input);
+                world.setInput(input);
+            }
+            world.update();
+        }
+        recorder.finish(world.getTicks(), world.getScore());
+        DeathCause cause = world.isGameOver() ? world.getDeathCause() : DeathCause.TICK_LIMIT;
+        world.close();
+
+        byte[] data = recorder.toByteArray();
+        Replay replay = Replay.fromBytes(data);
+        this.bytes += data.length;
+        this.inputs += replay.getInputCount();
+        GameResult result = ReplayPlayer.play(replay);
+        boolean match = result.getTicks() == world.getTicks() && result.getScore() == world.getScore()
+                && result.getCause() == cause;
+        if (!match) {
+            this.mismatches++;
+            System.out.printf("MISMATCH seed=%d recorded ticks=%d score=%d %s, replayed %s%n", seed,
+                    world.getTicks(), world.getScore(), cause, result);
+        }
+        return match;
+    }
+
+    /**
+     * This accessor method returns how many replays did not reproduce their game.
+     */
+    public long getMismatches() {
+        return this.mismatches;
+    }
+
+    /**
+     * This accessor method returns how many bytes the replays took altogether.
+     */
+    public long getBytes() {
+        return this.bytes;
+    }
+
+    /**
+     * This accessor method returns how many changes of input the replays recorded altogether.
+     */
+    public long getInputs() {
+        return this.inputs;
+    }
+
+    /**
+     * This method is the entry point: gradle replaycheck --args="games maxTicks seed agent". The seed of
+     * the i-th game is derived from the given one with GameRandom.seedFor, as in the BatchSimulator, and
+     * the agent is named as for the BatchSimulator.
+     */
+    public static void main(String[] argv) throws IOException {
+        int games = argv.length > 0 ? Integer.parseInt(argv[0]) : 100;
+        long maxTicks = argv.length > 1 ? Long.parseLong(argv[1]) : 20000;
+        long baseSeed = argv.length > 2 ? Long.parseLong(argv[2]) : 42;
+        String agent = argv.length > 3 ? argv[3] : "random";
+
+        ReplayCheck check = new ReplayCheck();
+        for (int i = 0; i < games; i++) {
+            check.check(GameRandom.seedFor(baseSeed, i), maxTicks, BatchSimulator.agentNamed(agent).get());
+        }
+        System.out.printf("%s games=%d agent=%s inputs=%d bytes/replay=%.1f mismatches=%d%n",
+                check.getMismatches() == 0 ? "MATCH" : "MISMATCH", games, agent, check.getInputs(),
+                (double) check.getBytes() / games, check.getMismatches());
+        if (check.getMismatches() > 0) {
+            System.exit(1);
+        }
+    }
+}
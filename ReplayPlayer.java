@@ -0,0 +1,57 @@
+package doodlejump;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * This ReplayPlayer class re-simulates a recorded game in a headless World, as fast as the CPU allows.
+ * Starting from the replay's seed, it sets each recorded change of input right before the same World
+ * update it was originally made before, which reproduces the game exactly. The main method plays back one or more
+ * replay files and reports whether each still ends with the recorded score and tick, so a corpus of
+ * recorded runs can be used to check that a physics change did not alter gameplay.
+ */
+public class ReplayPlayer {
+
+    private ReplayPlayer() {
+    }
+
+    /**
+     * This static method plays the replay back and returns the result. The game runs until the Doodle
+     * falls off the screen or is hit, or the replay's final tick is reached (for example if the player quit).
+     */
+    public static GameResult play(Replay replay) {
+        World world = new World(replay.getSeed(), WorldListener.NONE);
+        int next = 0;
+        while (!world.isGameOver() && world.getTicks() < replay.getFinalTick()) {
+            while (next < replay.getInputCount() && replay.getTick(next) == world.getTicks()) {
+                world.setInput(replay.getInput(next));
+                next++;
+            }
+            world.update();
+        }
+        DeathCause cause = world.isGameOver() ? world.getDeathCause() : DeathCause.TICK_LIMIT;
+        return new GameResult(replay.getSeed(), world.getScore(), world.getTicks(), cause);
+    }
+
+    /**
+     * This mainline plays back every replay file named on the command line and prints MATCH if it ended
+     * on the recorded tick with the recorded score, MISMATCH otherwise. It exits with status 1 if any
+     * replay did not match.
+     */
+    public static void main(String[] argv) throws IOException {
+        boolean allMatch = true;
+        for (String file : argv) {
+            Replay replay = Replay.read(Paths.get(file));
+            long start = System.nanoTime();
+            GameResult result = ReplayPlayer.play(replay);
+            long elapsed = System.nanoTime() - start;
+            boolean match = result.getTicks() == replay.getFinalTick() && result.getScore() == replay.getFinalScore();
+            allMatch &= match;
+            System.out.printf("%s %s %s (%.1fx real time)%n", match ? "MATCH" : "MISMATCH", file, result,
+                    result.getTicks() * Constants.DURATION / (elapsed / 1e9));
+        }
+        if (!allMatch) {
+            System.exit(1);
+        }
+    }
+}
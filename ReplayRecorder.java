@@ -0,0 +1,104 @@
+package doodlejump;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This ReplayRecorder class records a game as it is played so that it can be re-simulated later by the
+ * ReplayPlayer. Because the World is deterministic for a given seed, a replay only has to store the seed
+ * and the player's input (the bits of the Moves held, see Move.bit) each time it changed, stamped with
+ * the World tick it applies from. The format is:
+ * <pre>
+ *   int     magic "DJRP"
+ *   byte    version
+ *   long    seed
+ *   entries varint ticks since the previous entry, then a byte: INPUT + the input bits, or 0 = end
+ *   varint  final score, right after the end entry (whose tick is the game's final tick)
+ * </pre>
+ * so pressing or releasing a key costs two bytes. The recorder is contained by the Game, which calls
+ * record from update whenever the input changes and finish once the game is over.
+ */
+public class ReplayRecorder {
+    public static final int MAGIC = 0x444A5250; // "DJRP"
+    // 2: levels laid out in PlatformChunks, 3: swept collisions, 4: held input, 5: DifficultyCurve,
+    // 6: springs, jetpacks and monsters, 7: reachability checks the Platforms' kinds
+    public static final int VERSION = 7;
+    public static final int END = 0;
+    public static final int INPUT = 1; // entry codes from INPUT up carry the input bits plus INPUT
+
+    private ByteArrayOutputStream bytes;
+    private DataOutputStream out;
+    private long lastTick;
+    private boolean finished;
+
+    /**
+     * This ReplayRecorder constructor writes the replay's header for a game played with the given seed.
+     */
+    public ReplayRecorder(long seed) {
+        this.bytes = new ByteArrayOutputStream();
+        this.out = new DataOutputStream(this.bytes);
+        try {
+            this.out.writeInt(MAGIC);
+            this.out.writeByte(VERSION);
+            this.out.writeLong(seed);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * This method records that the input changed to the given bits after the World had been updated
+     * tick times, i.e. just before update number tick + 1.
+     */
+    public void record(long tick, int input) {
+        this.writeEntry(tick, INPUT + input);
+    }
+
+    /**
+     * This method ends the recording at the given tick, storing the final score so that a playback can
+     * check it reproduced the same game. Further calls to record are ignored.
+     */
+    public void finish(long tick, int score) {
+        if (this.finished) {
+            return;
+        }
+        this.writeEntry(tick, END);
+        try {
+            VarInt.write(this.out, score);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.finished = true;
+    }
+
+    /**
+     * This method returns the encoded replay. It should be called after finish.
+     */
+    public byte[] toByteArray() {
+        return this.bytes.toByteArray();
+    }
+
+    /**
+     * This method writes the encoded replay to the given file.
+     */
+    public void save(Path path) throws IOException {
+        Files.write(path, this.toByteArray());
+    }
+
+    private void writeEntry(long tick, int code) {
+        if (this.finished) {
+            return;
+        }
+        try {
+            VarInt.write(this.out, tick - this.lastTick);
+            this.out.writeByte(code);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.lastTick = tick;
+    }
+}
@@ -0,0 +1,103 @@
+package doodlejump;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * This ScoreDisplay class draws the "Score: " heads-up display above the game. A Label would need a
+ * new String every time the score changes, which is every tick of a climb, and each new text makes
+ * the Label lay itself out again. Instead, the prefix and the ten digits are rendered once, when the
+ * display is created, into glyph images, and the score is drawn into a small Canvas one digit glyph
+ * at a time, with the digits worked out into a reused int buffer. The Game calls show once per
+ * rendered frame, so any number of score changes between two frames cost one redraw, and a frame in
+ * which the score did not change costs nothing. Showing a score allocates no objects.
+ *
+ * The class is a wrapper: it contains its Canvas rather than extending it, and the PaneOrganizer
+ * adds the Canvas to the labelPane through getCanvas.
+ */
+public class ScoreDisplay {
+    private static final String PREFIX = "Score: ";
+    private static final int MAX_DIGITS = 10; // enough for any int
+
+    private Canvas canvas;
+    private GraphicsContext graphics;
+    private WritableImage prefixGlyph;
+    private WritableImage[] digitGlyphs;
+    private int[] digits;
+    private int shownScore;
+
+    /**
+     * This ScoreDisplay constructor is called in the PaneOrganizer's createLabelPane method. It renders
+     * the glyphs and creates a Canvas wide enough for the prefix and the longest possible score, then
+     * shows a score of 0. It must be called on the FX application thread, since the glyphs are taken
+     * with Node.snapshot.
+     */
+    public ScoreDisplay() {
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        this.prefixGlyph = this.renderGlyph(PREFIX, parameters);
+        this.digitGlyphs = new WritableImage[10];
+        double digitWidth = 0;
+        double height = this.prefixGlyph.getHeight();
+        for (int d = 0; d < 10; d++) {
+            this.digitGlyphs[d] = this.renderGlyph(Integer.toString(d), parameters);
+            digitWidth = Math.max(digitWidth, this.digitGlyphs[d].getWidth());
+            height = Math.max(height, this.digitGlyphs[d].getHeight());
+        }
+        this.canvas = new Canvas(this.prefixGlyph.getWidth() + MAX_DIGITS * digitWidth, height);
+        this.graphics = this.canvas.getGraphicsContext2D();
+        this.digits = new int[MAX_DIGITS];
+        this.shownScore = -1;
+        this.show(0);
+    }
+
+    /**
+     * This helper method is called in the constructor and returns a snapshot of the given text, drawn
+     * in the score font on a transparent background.
+     */
+    private WritableImage renderGlyph(String text, SnapshotParameters parameters) {
+        Text glyph = new Text(text);
+        glyph.setFont(Font.font(Constants.SCORE_FONT_SIZE));
+        return glyph.snapshot(parameters, null);
+    }
+
+    /**
+     * This method is called by the Game once per rendered frame with the World's current score. If it
+     * is the score already on the Canvas nothing happens; otherwise the Canvas is cleared and the prefix
+     * and then each digit of the score, most significant first, are drawn from their glyphs.
+     */
+    public void show(int score) {
+        if (score == this.shownScore) {
+            return;
+        }
+        this.shownScore = score;
+        int count = 0;
+        int rest = score;
+        do {
+            this.digits[count++] = rest % 10;
+            rest /= 10;
+        } while (rest > 0);
+
+        this.graphics.clearRect(0, 0, this.canvas.getWidth(), this.canvas.getHeight());
+        this.graphics.drawImage(this.prefixGlyph, 0, 0);
+        double x = this.prefixGlyph.getWidth();
+        for (int i = count - 1; i >= 0; i--) {
+            WritableImage glyph = this.digitGlyphs[this.digits[i]];
+            this.graphics.drawImage(glyph, x, 0);
+            x += glyph.getWidth();
+        }
+    }
+
+    /**
+     * This accessor method returns the Canvas the score is drawn into, so that the PaneOrganizer can
+     * add it to the labelPane.
+     */
+    public Canvas getCanvas() {
+        return this.canvas;
+    }
+}
@@ -0,0 +1,88 @@
+package doodlejump;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This ServerProtocol class describes how GameServer and its clients talk over a socket, and holds the
+ * helper methods both sides use to frame their messages. Every message is a frame: an unsigned
+ * two-byte length, then a type byte and the payload, so a frame is at most MAX_FRAME bytes long after
+ * its length. One connection plays one game at a time.
+ * <pre>
+ *   client to server
+ *     JOIN     long seed                 start a game (0 lets the server pick the seed)
+ *     INPUT    byte input bits           hold these Moves (see Move.bit) from the next tick on
+ *   server to client
+ *     WELCOME  int session id, long seed the game has started
+ *     STATE    one StateEncoder frame    a keyframe or a delta of the game's World
+ * </pre>
+ * The STATEs of a game are the stream of a StateEncoder that the session keeps for it, so a client
+ * follows the whole visible world--the Doodle, the camera, the score, every Platform and every
+ * entity--by passing each one to a StateDecoder, which it starts afresh on WELCOME. The first STATE of
+ * a game is a keyframe and the rest are deltas, typically well under twenty bytes. The game's last
+ * STATE has StateEncoder.GAME_OVER set, and after it the client may JOIN again on the same connection.
+ */
+public final class ServerProtocol {
+    public static final int JOIN = 1;
+    public static final int INPUT = 2;
+    public static final int WELCOME = 1;
+    public static final int STATE = 2;
+
+    public static final int MAX_FRAME = 65535;
+
+    private ServerProtocol() {
+    }
+
+    /**
+     * This static method starts a frame of the given type at the buffer's position, leaving room for
+     * the length, and returns where the frame starts, to be passed to endFrame once the payload
+     * has been put.
+     */
+    public static int beginFrame(ByteBuffer out, int type) {
+        int start = out.position();
+        out.putShort((short) 0);
+        out.put((byte) type);
+        return start;
+    }
+
+    /**
+     * This static method fills in the length of the frame that beginFrame started.
+     */
+    public static void endFrame(ByteBuffer out, int start) {
+        out.putShort(start, (short) (out.position() - start - 2));
+    }
+
+    /**
+     * This static method returns true if the buffer, between its position and limit, holds at least one
+     * whole frame. readFrame can then be called to take it.
+     */
+    public static boolean hasFrame(ByteBuffer in) {
+        return in.remaining() >= 2 && in.remaining() - 2 >= (in.getShort(in.position()) & 0xFFFF);
+    }
+
+    /**
+     * This static method takes the length of the next frame and returns the position just past the
+     * frame's end, so the caller can read the type and payload and then check it stopped there.
+     */
+    public static int readFrame(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        return in.position() + length;
+    }
+
+    /**
+     * This static method puts a JOIN frame into the buffer.
+     */
+    public static void writeJoin(ByteBuffer out, long seed) {
+        int start = beginFrame(out, JOIN);
+        out.putLong(seed);
+        endFrame(out, start);
+    }
+
+    /**
+     * This static method puts an INPUT frame into the buffer.
+     */
+    public static void writeInput(ByteBuffer out, int input) {
+        int start = beginFrame(out, INPUT);
+        out.put((byte) input);
+        endFrame(out, start);
+    }
+}
@@ -0,0 +1,223 @@
+package doodlejump;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * This ServerSession class is one client's connection to the GameServer and the game it is playing.
+ * The server's I/O thread reads the client's frames into the session's inbound buffer, starting a new
+ * World on JOIN and passing INPUT to the session's InputState, which is lock-free. The game itself is
+ * owned by exactly one TickWorker from JOIN until the game ends: only that thread steps the World and
+ * writes STATE frames, so nothing about a game is ever shared between tick threads. Handing the game
+ * back and forth goes through the volatile playing flag.
+ * Each game has its own StateEncoder, and every tick its frame is sent as a STATE, so the client can
+ * follow the whole World with a StateDecoder. Outbound frames are put into one reused buffer and
+ * written without blocking. If the client is too slow to take them, the bytes that did not fit stay in
+ * the buffer and are sent first next time, and a STATE that does not fit behind them is dropped. A
+ * delta only makes sense after the frame before it, so the encoder is then asked for a keyframe, and
+ * the next STATE that fits lets the client pick up again from the current state; the ticks in between
+ * are all the client loses. The game's final STATE, the one with GAME_OVER set, is never dropped: if it
+ * does not fit, the buffer is grown to make room. Whatever is still in the buffer when the game ends is
+ * handed to the I/O thread, which keeps writing it whenever the socket is writable until it has all
+ * gone.
+ */
+public class ServerSession {
+    private static final int BUFFER_BYTES = 4096;
+
+    private int id;
+    private SocketChannel channel;
+    private SelectionKey key;
+    private ByteBuffer in;
+    private ByteBuffer out;
+    private InputState input;
+    private World world;
+    private StateEncoder encoder;
+    private volatile boolean playing;
+    private volatile boolean closed;
+
+    /**
+     * This ServerSession constructor is called by the GameServer when a client connects.
+     */
+    public ServerSession(int id, SocketChannel channel) {
+        this.id = id;
+        this.channel = channel;
+        this.in = ByteBuffer.allocate(BUFFER_BYTES);
+        this.out = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        this.input = new InputState();
+    }
+
+    /**
+     * This method is called on the I/O thread when the client sends JOIN and no game is being played.
+     * It creates the World and a StateEncoder to follow it, whose first frame will be a keyframe, and
+     * writes WELCOME. The encoder only writes keyframes when asked, since the session asks for one
+     * itself whenever it has had to drop a STATE. The caller then hands the session to its TickWorker.
+     */
+    void start(long seed) throws IOException {
+        this.world = new World(seed, WorldListener.NONE);
+        this.encoder = new StateEncoder(0);
+        this.input = new InputState();
+        int start = ServerProtocol.beginFrame(this.out, ServerProtocol.WELCOME);
+        this.out.putInt(this.id);
+        this.out.putLong(seed);
+        ServerProtocol.endFrame(this.out, start);
+        this.flush();
+        this.playing = true;
+    }
+
+    /**
+     * This method is called by the owning TickWorker once per tick. The World is steered by the
+     * client's latest input and updated, and the encoder's frame for the tick is sent as a STATE. Once
+     * the game is over, its last STATE is sent and the session stops playing; false is returned so the
+     * worker drops it. If the socket has not taken all of the buffer by then, the selector is asked to
+     * say when it is writable, so the I/O thread can finish sending it (see flushPending).
+     */
+    boolean tick() {
+        this.world.setInput(this.input.poll());
+        this.world.update();
+        boolean over = this.world.isGameOver();
+        this.writeState(over);
+        try {
+            this.flush();
+        } catch (IOException e) {
+            this.close();
+        }
+        if (over) {
+            boolean pending = this.hasPendingOutput() && !this.closed;
+            if (pending) {
+                try {
+                    this.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                } catch (CancelledKeyException e) {
+                    pending = false; // the I/O thread has closed the connection
+                }
+            }
+            this.playing = false; // after this the I/O thread owns the outbound buffer
+            if (pending) {
+                this.key.selector().wakeup();
+            }
+        }
+        return !over && !this.closed;
+    }
+
+    /**
+     * This helper method encodes the World and puts the frame into the outbound buffer as a STATE. An
+     * ordinary STATE that does not fit is dropped and a keyframe is asked for instead; the last one
+     * grows the buffer if it has to.
+     */
+    private void writeState(boolean over) {
+        ByteBuffer frame = this.encoder.encode(this.world);
+        int needed = frame.remaining() + 3; // with the frame's length and type
+        if (needed > this.out.remaining()) {
+            if (!over) {
+                this.encoder.requestKeyframe();
+                return;
+            }
+            ByteBuffer grown = ByteBuffer.allocateDirect(this.out.position() + needed);
+            this.out.flip();
+            grown.put(this.out);
+            this.out = grown;
+        }
+        int start = ServerProtocol.beginFrame(this.out, ServerProtocol.STATE);
+        this.out.put(frame);
+        ServerProtocol.endFrame(this.out, start);
+    }
+
+    /**
+     * This helper method writes as much of the outbound buffer as the socket takes without blocking.
+     */
+    private void flush() throws IOException {
+        this.out.flip();
+        this.channel.write(this.out);
+        this.out.compact();
+    }
+
+    /**
+     * This method is called on the I/O thread when the socket of a session that has stopped playing is
+     * writable, and writes what is left of the outbound buffer. Once it is empty the selector goes back
+     * to only reading. Until the TickWorker has let go of the buffer, by clearing playing, it does
+     * nothing.
+     */
+    void flushPending() throws IOException {
+        if (this.playing) {
+            return;
+        }
+        this.flush();
+        if (!this.hasPendingOutput()) {
+            this.key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * This accessor method returns true if the outbound buffer holds bytes the socket has not taken
+     * yet.
+     */
+    boolean hasPendingOutput() {
+        return this.out.position() > 0;
+    }
+
+    /**
+     * This mutator method is called by the GameServer with the key the session's channel is
+     * registered with, once it has been registered.
+     */
+    void setKey(SelectionKey key) {
+        this.key = key;
+    }
+
+    /**
+     * This method closes the connection. The owning TickWorker, if any, drops the session on its next
+     * tick.
+     */
+    void close() {
+        this.closed = true;
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            // the connection is being thrown away anyway
+        }
+    }
+
+    /**
+     * This accessor method returns the buffer the I/O thread reads the client's frames into.
+     */
+    ByteBuffer getInbound() {
+        return this.in;
+    }
+
+    /**
+     * This accessor method returns the InputState the client's INPUT frames are passed to.
+     */
+    InputState getInput() {
+        return this.input;
+    }
+
+    /**
+     * This accessor method returns the number the GameServer gave the session when the client
+     * connected, which decides the TickWorker its games run on.
+     */
+    public int getId() {
+        return this.id;
+    }
+
+    /**
+     * This accessor method returns the socket connected to the client.
+     */
+    public SocketChannel getChannel() {
+        return this.channel;
+    }
+
+    /**
+     * This accessor method returns true while a TickWorker owns the session's game.
+     */
+    public boolean isPlaying() {
+        return this.playing;
+    }
+
+    /**
+     * This accessor method returns true once the connection has been closed, by either end.
+     */
+    public boolean isClosed() {
+        return this.closed;
+    }
+}
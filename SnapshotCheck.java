@@ -0,0 +1,199 @@
+package doodlejump;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This SnapshotCheck class checks that a game restored from a WorldSnapshot plays on exactly as the
+ * original does. For each of the given number of seeds it plays a headless game with the GreedyAgent
+ * for the given number of ticks, saves a snapshot to a temporary file, loads it into a second World
+ * (with a background PlatformGenerator thread for every other seed, so both ways of laying out the
+ * level are covered) and then steps both Worlds with the same input, comparing them after every tick:
+ * the tick, score, how the game ended, the camera, the Doodle, every Platform and every entity must be
+ * exactly equal, not merely close, and straight after the restore the Platform and PlatformPool
+ * counters must be too. Platforms are compared in order from the bottom, and entities
+ * wherever they are in the EntityStore, since a restored game numbers both afresh. It prints how many
+ * games differed, the snapshot's size and the fastest save, and exits with status 1 if any game
+ * differed: gradle snapshotcheck --args="games ticksBefore ticksAfter seed".
+ */
+public class SnapshotCheck {
+    private long mismatches;
+
+    /**
+     * This method plays one game with the given seed, snapshotting it after ticksBefore ticks and then
+     * following the original and the restored game for up to ticksAfter more. It returns how long the
+     * save took, in nanoseconds.
+     */
+    public long check(long seed, int ticksBefore, int ticksAfter, WorldSnapshot snapshot, Path path)
+            throws IOException {
+        World world = new World(seed, WorldListener.NONE);
+        Agent agent = new GreedyAgent();
+        agent.start(seed);
+        Observation observation = new Observation(Observation.DEFAULT_PLATFORMS, Observation.DEFAULT_HAZARDS);
+        for (int i = 0; i < ticksBefore && !world.isGameOver(); i++) {
+            observation.fill(world);
+            world.setInput(agent.act(observation));
+            world.update();
+        }
+        long start = System.nanoTime();
+        snapshot.save(world, path);
+        long saveNanos = System.nanoTime() - start;
+
+        World restored = WorldSnapshot.load(path, WorldListener.NONE, seed % 2 == 0);
+        String difference = counterDifference(world.getPlatformHandler(), restored.getPlatformHandler());
+        if (difference == null) {
+            difference = difference(world, restored);
+        }
+        for (int i = 0; i < ticksAfter && difference == null && !world.isGameOver(); i++) {
+            observation.fill(world);
+            int input = agent.act(observation);
+            world.setInput(input);
+            world.update();
+            restored.setInput(input);
+            restored.update();
+            difference = difference(world, restored);
+        }
+        if (difference != null) {
+            this.mismatches++;
+            System.out.printf("MISMATCH seed=%d tick=%d: %s%n", seed, world.getTicks(), difference);
+        }
+        world.close();
+        restored.close();
+        return saveNanos;
+    }
+
+    /**
+     * This helper method returns what differs between the original World and the restored one, or null
+     * if nothing does.
+     */
+    private static String difference(World original, World restored) {
+        if (original.getTicks() != restored.getTicks() || original.getScore() != restored.getScore()
+                || original.isGameOver() != restored.isGameOver()
+                || original.getDeathCause() != restored.getDeathCause()
+                || original.getCameraOffset() != restored.getCameraOffset()) {
+            return "tick, score, ending or camera";
+        }
+        Doodle doodle = original.getDoodle();
+        Doodle other = restored.getDoodle();
+        if (doodle.getXLoc() != other.getXLoc() || doodle.getYLoc() != other.getYLoc()
+                || doodle.getVelocity() != other.getVelocity() || doodle.getXVelocity() != other.getXVelocity()) {
+            return "Doodle";
+        }
+        PlatformStore platforms = original.getPlatforms();
+        PlatformStore otherPlatforms = restored.getPlatforms();
+        int sequence = platforms.bottomSequence();
+        int otherSequence = otherPlatforms.bottomSequence();
+        while (true) {
+            sequence = nextPlatform(platforms, sequence);
+            otherSequence = nextPlatform(otherPlatforms, otherSequence);
+            if (sequence == platforms.topSequence() || otherSequence == otherPlatforms.topSequence()) {
+                if (sequence != platforms.topSequence() || otherSequence != otherPlatforms.topSequence()) {
+                    return "Platform count";
+                }
+                break;
+            }
+            if (platforms.getKind(sequence) != otherPlatforms.getKind(otherSequence)
+                    || platforms.getX(sequence) != otherPlatforms.getX(otherSequence)
+                    || platforms.getY(sequence) != otherPlatforms.getY(otherSequence)) {
+                return "Platform " + sequence;
+            }
+            sequence++;
+            otherSequence++;
+        }
+        EntityStore entities = original.getEntities();
+        EntityStore otherEntities = restored.getEntities();
+        if (entities.size() != otherEntities.size()) {
+            return "entity count";
+        }
+        for (int i = 0; i < entities.size(); i++) {
+            if (!contains(otherEntities, entities, entities.getLiveSlot(i))) {
+                return "entity in slot " + entities.getLiveSlot(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * This helper method returns which of the counters differ between the original game and the one just
+     * restored from it, or null if none does. It is only checked straight after the restore: the restored
+     * PlatformPool starts with other Platforms on its free list, so its hit rate drifts from there.
+     */
+    private static String counterDifference(PlatformHandler original, PlatformHandler restored) {
+        if (original.getPlatformsSpawned() != restored.getPlatformsSpawned()
+                || original.getPlatformsCulled() != restored.getPlatformsCulled()
+                || original.getCollisions() != restored.getCollisions()) {
+            return "Platform counters";
+        }
+        if (original.getPool().getAcquisitions() != restored.getPool().getAcquisitions()
+                || original.getPool().getHits() != restored.getPool().getHits()) {
+            return "PlatformPool counters";
+        }
+        return null;
+    }
+
+    /**
+     * This helper method returns the first sequence from the given one that holds a Platform, or the
+     * store's top sequence if none does. Sequence numbers are not part of a snapshot, so Platforms are
+     * compared in order from the bottom rather than by sequence.
+     */
+    private static int nextPlatform(PlatformStore platforms, int sequence) {
+        while (sequence != platforms.topSequence() && platforms.getKind(sequence) == null) {
+            sequence++;
+        }
+        return sequence;
+    }
+
+    /**
+     * This helper method returns whether the EntityStore holds an entity just like the one in the given
+     * slot of another. A restored entity may sit in a different slot, so each one is looked for among
+     * them all.
+     */
+    private static boolean contains(EntityStore entities, EntityStore other, int otherSlot) {
+        for (int i = 0; i < entities.size(); i++) {
+            int slot = entities.getLiveSlot(i);
+            if (entities.getKind(slot) == other.getKind(otherSlot) && entities.getX(slot) == other.getX(otherSlot)
+                    && entities.getY(slot) == other.getY(otherSlot)
+                    && entities.getXVelocity(slot) == other.getXVelocity(otherSlot)
+                    && entities.getTimer(slot) == other.getTimer(otherSlot)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This accessor method returns how many games differed after their restore.
+     */
+    public long getMismatches() {
+        return this.mismatches;
+    }
+
+    /**
+     * This method is the entry point: gradle snapshotcheck --args="games ticksBefore ticksAfter seed".
+     * Seeds are consecutive from the given one.
+     */
+    public static void main(String[] argv) throws IOException {
+        int games = argv.length > 0 ? Integer.parseInt(argv[0]) : 200;
+        int ticksBefore = argv.length > 1 ? Integer.parseInt(argv[1]) : 3000;
+        int ticksAfter = argv.length > 2 ? Integer.parseInt(argv[2]) : 6000;
+        long baseSeed = argv.length > 3 ? Long.parseLong(argv[3]) : 1;
+
+        SnapshotCheck check = new SnapshotCheck();
+        WorldSnapshot snapshot = new WorldSnapshot();
+        Path path = Files.createTempFile("doodlejump", ".djs");
+        long fastest = Long.MAX_VALUE;
+        try {
+            for (int i = 0; i < games; i++) {
+                fastest = Math.min(fastest, check.check(baseSeed + i, ticksBefore, ticksAfter, snapshot, path));
+            }
+            System.out.printf("games=%d mismatches=%d last snapshot=%d bytes fastest save=%.1fus%n", games,
+                    check.getMismatches(), Files.size(path), fastest / 1e3);
+        } finally {
+            Files.deleteIfExists(path);
+        }
+        if (check.getMismatches() > 0) {
+            System.exit(1);
+        }
+    }
+}
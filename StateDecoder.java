@@ -0,0 +1,344 @@
+package doodlejump;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * This StateDecoder class follows a stream written by a StateEncoder and keeps a copy of the state it
+ * describes: the tick, score, camera offset, the Doodle's position and every Platform's kind and
+ * position, addressed by the same sequence numbers as in the World's PlatformStore. It is what a
+ * spectator or replay viewer holds instead of a World; a renderer reads it the way it reads the
+ * PlatformStore, walking from getBottom up to, but not including, getTop and skipping the sequences
+ * whose getKind is null. Entities are listed from 0 to getEntityCount, in the same order as the
+ * encoder's list; the index of an entity changes when one before the end of the list disappears, so a
+ * renderer should redraw them from the list every frame. Coordinates are the World's to within half of 1/StateEncoder.SCALE of a pixel.
+ * Like the encoder, the decoder keeps its Platforms in a ring of parallel arrays and its entities in
+ * a list of parallel arrays, and allocates nothing per frame.
+ */
+public class StateDecoder {
+    private static final PlatformKind[] KINDS = PlatformKind.values();
+    private static final EntityKind[] ENTITY_KINDS = EntityKind.values();
+
+    private boolean started;
+    private long tick;
+    private boolean gameOver;
+    private int score;
+    private long camera;
+    private long doodleX;
+    private long doodleY;
+    private int bottom;
+    private int top;
+    private long topY;
+    private byte[] kinds;
+    private long[] xs;
+    private long[] ys;
+    private int mask;
+    private int entityCount;
+    private byte[] entityKinds;
+    private long[] entityXs;
+    private long[] entityYs;
+
+    /**
+     * This StateDecoder constructor creates a decoder that is waiting for its first keyframe.
+     */
+    public StateDecoder() {
+        this.allocate(64);
+        this.entityKinds = new byte[16];
+        this.entityXs = new long[16];
+        this.entityYs = new long[16];
+    }
+
+    /**
+     * This method reads one frame from the buffer's position and applies it. A delta that arrives before
+     * any keyframe cannot be applied, and is skipped; the method returns whether the frame was applied.
+     */
+    public boolean apply(ByteBuffer frame) {
+        int type = frame.get();
+        if (type == StateEncoder.KEYFRAME) {
+            this.readKeyframe(frame);
+            return true;
+        }
+        if (type != StateEncoder.DELTA) {
+            throw new IllegalArgumentException("Unknown frame type " + type);
+        }
+        if (!this.started) {
+            frame.position(frame.limit());
+            return false;
+        }
+        this.readDelta(frame);
+        return true;
+    }
+
+    /**
+     * This helper method replaces the whole state with a keyframe's.
+     */
+    private void readKeyframe(ByteBuffer in) {
+        this.tick = VarInt.read(in);
+        this.gameOver = (in.get() & StateEncoder.GAME_OVER) != 0;
+        this.score = (int) VarInt.read(in);
+        this.camera = VarInt.readSigned(in);
+        this.doodleX = VarInt.readSigned(in);
+        this.doodleY = VarInt.readSigned(in);
+        this.bottom = (int) VarInt.read(in);
+        int span = (int) VarInt.read(in);
+        if (span > this.kinds.length) {
+            this.allocate(Integer.highestOneBit(span) * 2);
+        }
+        this.top = this.bottom;
+        this.topY = 0;
+        for (int i = 0; i < span; i++) {
+            this.readPlatform(in);
+        }
+        this.entityCount = 0;
+        int entities = (int) VarInt.read(in);
+        for (int i = 0; i < entities; i++) {
+            this.readEntity(in);
+        }
+        this.started = true;
+    }
+
+    /**
+     * This helper method applies a delta in the order the StateEncoder wrote it.
+     */
+    private void readDelta(ByteBuffer in) {
+        this.tick += VarInt.read(in);
+        int fields = (int) VarInt.read(in);
+        this.gameOver = (fields & StateEncoder.GAME_OVER) != 0;
+        if ((fields & StateEncoder.CAMERA) != 0) {
+            this.camera += VarInt.readSigned(in);
+        }
+        if ((fields & StateEncoder.DOODLE_X) != 0) {
+            this.doodleX += VarInt.readSigned(in);
+        }
+        if ((fields & StateEncoder.DOODLE_Y) != 0) {
+            this.doodleY += VarInt.readSigned(in);
+        }
+        if ((fields & StateEncoder.SCORE) != 0) {
+            this.score += (int) VarInt.read(in);
+        }
+        if ((fields & StateEncoder.CULLED) != 0) {
+            this.bottom += (int) VarInt.read(in);
+        }
+        if ((fields & StateEncoder.REMOVED) != 0) {
+            int count = (int) VarInt.read(in);
+            int sequence = this.bottom;
+            for (int i = 0; i < count; i++) {
+                sequence += (int) VarInt.read(in);
+                this.kinds[sequence & this.mask] = StateEncoder.EMPTY;
+            }
+        }
+        int known = this.top;
+        if ((fields & StateEncoder.SPAWNED) != 0) {
+            int count = (int) VarInt.read(in);
+            if (this.top + count - this.bottom > this.kinds.length) {
+                this.grow(this.top + count - this.bottom);
+            }
+            for (int i = 0; i < count; i++) {
+                this.readPlatform(in);
+            }
+        }
+        int knownEntities = this.entityCount;
+        if ((fields & StateEncoder.ENTITIES) != 0) {
+            int removed = (int) VarInt.read(in);
+            for (int i = 0; i < removed; i++) {
+                int index = (int) VarInt.read(in);
+                int last = --this.entityCount;
+                this.entityKinds[index] = this.entityKinds[last];
+                this.entityXs[index] = this.entityXs[last];
+                this.entityYs[index] = this.entityYs[last];
+            }
+            knownEntities = this.entityCount;
+            int spawned = (int) VarInt.read(in);
+            for (int i = 0; i < spawned; i++) {
+                this.readEntity(in);
+            }
+        }
+        byte moving = (byte) PlatformKind.MOVING.ordinal();
+        for (int sequence = this.bottom; sequence - known < 0; sequence++) {
+            int slot = sequence & this.mask;
+            if (this.kinds[slot] == moving) {
+                this.xs[slot] += VarInt.readSigned(in);
+            }
+        }
+        for (int i = 0; i < knownEntities; i++) {
+            if (ENTITY_KINDS[this.entityKinds[i]].isMoving()) {
+                this.entityXs[i] += VarInt.readSigned(in);
+                this.entityYs[i] += VarInt.readSigned(in);
+            }
+        }
+    }
+
+    /**
+     * This helper method reads the next entity onto the end of the list.
+     */
+    private void readEntity(ByteBuffer in) {
+        if (this.entityCount == this.entityKinds.length) {
+            this.entityKinds = Arrays.copyOf(this.entityKinds, this.entityCount * 2);
+            this.entityXs = Arrays.copyOf(this.entityXs, this.entityCount * 2);
+            this.entityYs = Arrays.copyOf(this.entityYs, this.entityCount * 2);
+        }
+        this.entityKinds[this.entityCount] = in.get();
+        this.entityXs[this.entityCount] = VarInt.readSigned(in);
+        this.entityYs[this.entityCount] = VarInt.readSigned(in);
+        this.entityCount++;
+    }
+
+    /**
+     * This helper method reads the next Platform (or tombstone) into the top of the ring.
+     */
+    private void readPlatform(ByteBuffer in) {
+        int slot = this.top & this.mask;
+        byte kind = in.get();
+        this.kinds[slot] = kind;
+        if (kind != StateEncoder.EMPTY) {
+            this.xs[slot] = VarInt.readSigned(in);
+            this.topY += VarInt.readSigned(in);
+            this.ys[slot] = this.topY;
+        }
+        this.top++;
+    }
+
+    /**
+     * This helper method creates empty arrays of the given capacity, which must be a power of two.
+     */
+    private void allocate(int capacity) {
+        this.kinds = new byte[capacity];
+        this.xs = new long[capacity];
+        this.ys = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * This helper method makes the ring big enough for the given span, keeping every sequence from the
+     * bottom to the top.
+     */
+    private void grow(int span) {
+        byte[] oldKinds = this.kinds;
+        long[] oldXs = this.xs;
+        long[] oldYs = this.ys;
+        int oldMask = this.mask;
+        this.allocate(Integer.highestOneBit(span) * 2);
+        for (int sequence = this.bottom; sequence != this.top; sequence++) {
+            this.kinds[sequence & this.mask] = oldKinds[sequence & oldMask];
+            this.xs[sequence & this.mask] = oldXs[sequence & oldMask];
+            this.ys[sequence & this.mask] = oldYs[sequence & oldMask];
+        }
+    }
+
+    /**
+     * This accessor method returns whether a keyframe has been applied yet. Until then, nothing else
+     * the decoder returns means anything.
+     */
+    public boolean isStarted() {
+        return this.started;
+    }
+
+    /**
+     * This accessor method returns the tick of the latest frame applied.
+     */
+    public long getTick() {
+        return this.tick;
+    }
+
+    /**
+     * This accessor method returns whether the game had ended as of the latest frame.
+     */
+    public boolean isGameOver() {
+        return this.gameOver;
+    }
+
+    /**
+     * This accessor method returns the score.
+     */
+    public int getScore() {
+        return this.score;
+    }
+
+    /**
+     * This accessor method returns the camera offset, which is added to a world y-location to get
+     * a y-location on screen.
+     */
+    public double getCameraOffset() {
+        return this.camera / StateEncoder.SCALE;
+    }
+
+    /**
+     * This accessor method returns the Doodle's x-location.
+     */
+    public double getDoodleX() {
+        return this.doodleX / StateEncoder.SCALE;
+    }
+
+    /**
+     * This accessor method returns the Doodle's world y-location.
+     */
+    public double getDoodleY() {
+        return this.doodleY / StateEncoder.SCALE;
+    }
+
+    /**
+     * This accessor method returns the sequence number of the bottom Platform slot.
+     */
+    public int getBottom() {
+        return this.bottom;
+    }
+
+    /**
+     * This accessor method returns the sequence number one past the top Platform slot.
+     */
+    public int getTop() {
+        return this.top;
+    }
+
+    /**
+     * This accessor method returns the PlatformKind at the given sequence, or null if it is empty.
+     */
+    public PlatformKind getKind(int sequence) {
+        byte kind = this.kinds[sequence & this.mask];
+        return kind == StateEncoder.EMPTY ? null : KINDS[kind];
+    }
+
+    /**
+     * This accessor method returns the world x-location of the left side of the Platform at the given
+     * sequence.
+     */
+    public double getX(int sequence) {
+        return this.xs[sequence & this.mask] / StateEncoder.SCALE;
+    }
+
+    /**
+     * This accessor method returns the world y-location of the top of the Platform at the given
+     * sequence.
+     */
+    public double getY(int sequence) {
+        return this.ys[sequence & this.mask] / StateEncoder.SCALE;
+    }
+
+    /**
+     * This accessor method returns how many entities there are.
+     */
+    public int getEntityCount() {
+        return this.entityCount;
+    }
+
+    /**
+     * This accessor method returns the EntityKind of the index-th entity.
+     */
+    public EntityKind getEntityKind(int index) {
+        return ENTITY_KINDS[this.entityKinds[index]];
+    }
+
+    /**
+     * This accessor method returns the world x-location of the left side of the index-th entity.
+     */
+    public double getEntityX(int index) {
+        return this.entityXs[index] / StateEncoder.SCALE;
+    }
+
+    /**
+     * This accessor method returns the world y-location of the top of the index-th entity.
+     */
+    public double getEntityY(int index) {
+        return this.entityYs[index] / StateEncoder.SCALE;
+    }
+}
@@ -0,0 +1,425 @@
+package doodlejump;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * This StateEncoder class turns a World, tick by tick, into a compact stream that something without the
+ * simulation--a spectator, or a replay viewer--can follow with a StateDecoder. The stream is a keyframe,
+ * the whole visible state, followed by one delta per encode with only what changed since the previous
+ * frame:
+ * <pre>
+ *   keyframe  byte KEYFRAME, varint tick, byte flags (GAME_OVER), varint score,
+ *             camera, doodle x and doodle y (absolute),
+ *             varint bottom sequence, varint span, then for each sequence in the span a kind byte
+ *             (EMPTY for a tombstone) followed, for a Platform, by its x and its y less the previous
+ *             Platform's y, then varint entity count and each entity as a kind byte and its x and y
+ *   delta     byte DELTA, varint ticks since the previous frame, varint fields, then what fields says:
+ *             CAMERA, DOODLE_X, DOODLE_Y   change in the camera offset or the Doodle's position
+ *             SCORE                        varint increase in the score
+ *             CULLED                       varint how far the bottom sequence moved up
+ *             REMOVED                      varint count, then the sequences of the Platforms that
+ *                                          disappeared, each less the previous one (the first less
+ *                                          the bottom sequence)
+ *             SPAWNED                      varint count of new sequences on the top, then each one as
+ *                                          in a keyframe
+ *             ENTITIES                     varint count, then the index in the entity list of
+ *                                          each entity that disappeared, and varint count, then each
+ *                                          new entity as in a keyframe
+ *             and GAME_OVER if the game has ended; then the change in x of every moving Platform that
+ *             was already known, from the bottom up, and last the change in x and y of every moving
+ *             entity that was already known, in list order
+ * </pre>
+ * Platforms are identified by their PlatformStore sequence numbers, which both ends keep in step. Every
+ * coordinate is quantized to 1/SCALE of a pixel and written as a zigzag varint (see VarInt.writeSigned),
+ * and a delta carries the change from the quantized value sent before, so errors never build up and
+ * a moving Platform or a falling Doodle costs a byte or two a tick. Since the camera offset is the only
+ * thing a scroll changes, a tick in which nothing spawns or disappears is typically under ten bytes,
+ * where sending every Platform's position would be a keyframe's worth every tick.
+ * Entities (springs, jetpacks, monsters and projectiles) have no sequence numbers, so both ends keep
+ * the same list of them instead: a keyframe lists them all, and a delta names the gone ones by their
+ * index in the list, each of which is removed by moving the last entry into its place, from the highest
+ * index down, and then appends the new ones. The encoder tells an entity from a new one in the same
+ * EntityStore slot by the slot's generation.
+ * A keyframe is written on the first encode, every keyframeInterval ticks after that so a spectator can
+ * join part-way through, and whenever requestKeyframe is called. The frame is written into one buffer
+ * that the encoder keeps and reuses, and encoding allocates nothing except when the World has more
+ * Platforms or entities than the encoder has yet seen. One encoder follows one World.
+ */
+public class StateEncoder {
+    public static final int KEYFRAME = 1;
+    public static final int DELTA = 2;
+
+    public static final int CAMERA = 1;
+    public static final int DOODLE_X = 2;
+    public static final int DOODLE_Y = 4;
+    public static final int SCORE = 8;
+    public static final int CULLED = 16;
+    public static final int REMOVED = 32;
+    public static final int SPAWNED = 64;
+    public static final int GAME_OVER = 128;
+    public static final int ENTITIES = 256;
+
+    public static final double SCALE = 16; // quantization steps per pixel
+    public static final byte EMPTY = -1; // kind byte of a tombstone
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 300; // about five seconds of ticks
+    private static final byte MOVING = (byte) PlatformKind.MOVING.ordinal();
+    private static final EntityKind[] KINDS = EntityKind.values();
+    private static final int FIXED_BYTES = 96; // everything but the Platforms, with room to spare
+    private static final int PLATFORM_BYTES = 24; // the most a Platform can take in any section
+    private static final int ENTITY_BYTES = 32; // the most an entity can take in any section
+
+    private ByteBuffer buffer;
+    private int keyframeInterval;
+    private boolean keyframeDue;
+    private long keyframeTick;
+    private long sentTick;
+    private long sentCamera;
+    private long sentDoodleX;
+    private long sentDoodleY;
+    private int sentScore;
+    private int sentBottom;
+    private int sentTop;
+    private long sentTopY;
+    private byte[] sentKinds;
+    private long[] sentXs;
+    private int mask;
+    private int sentEntityCount;
+    private int[] sentEntitySlots;
+    private int[] sentEntityGenerations;
+    private byte[] sentEntityKinds;
+    private long[] sentEntityXs;
+    private long[] sentEntityYs;
+    private int[] sentIndexOfSlot; // index in the entity list of the entity sent from each slot, or -1
+
+    /**
+     * This StateEncoder constructor creates an encoder that writes a keyframe every keyframeInterval
+     * ticks (or only the first one, if keyframeInterval is 0).
+     */
+    public StateEncoder(int keyframeInterval) {
+        this.keyframeInterval = keyframeInterval;
+        this.keyframeDue = true;
+        this.buffer = ByteBuffer.allocateDirect(FIXED_BYTES + 64 * PLATFORM_BYTES);
+        this.sentKinds = new byte[64];
+        this.sentXs = new long[64];
+        this.mask = 63;
+        this.sentEntitySlots = new int[16];
+        this.sentEntityGenerations = new int[16];
+        this.sentEntityKinds = new byte[16];
+        this.sentEntityXs = new long[16];
+        this.sentEntityYs = new long[16];
+        this.sentIndexOfSlot = new int[0];
+    }
+
+    /**
+     * This method makes the next encode write a keyframe, for instance because a spectator has just
+     * joined.
+     */
+    public void requestKeyframe() {
+        this.keyframeDue = true;
+    }
+
+    /**
+     * This method encodes the given World's state into a keyframe or a delta from the previous frame, and
+     * returns the buffer holding it, ready to be read. The buffer is reused by the next encode.
+     */
+    public ByteBuffer encode(World world) {
+        PlatformStore store = world.getPlatforms();
+        int bottom = store.bottomSequence();
+        int top = store.topSequence();
+        boolean keyframe = this.keyframeDue
+                || (this.keyframeInterval > 0 && world.getTicks() - this.keyframeTick >= this.keyframeInterval)
+                || bottom - this.sentTop > 0; // everything the last frame knew of is gone
+        EntityStore entities = world.getEntities();
+        this.ensureCapacity(keyframe ? bottom : this.sentBottom, top, entities);
+        this.buffer.clear();
+        if (keyframe) {
+            this.writeKeyframe(world, store, bottom, top);
+        } else {
+            this.writeDelta(world, store, bottom, top);
+        }
+        this.sentTick = world.getTicks();
+        this.buffer.flip();
+        return this.buffer;
+    }
+
+    /**
+     * This helper method writes a keyframe and makes it what the following deltas are taken from.
+     */
+    private void writeKeyframe(World world, PlatformStore store, int bottom, int top) {
+        ByteBuffer out = this.buffer;
+        out.put((byte) KEYFRAME);
+        VarInt.write(out, world.getTicks());
+        out.put((byte) (world.isGameOver() ? GAME_OVER : 0));
+        this.sentScore = world.getScore();
+        this.sentCamera = quantize(world.getCameraOffset());
+        this.sentDoodleX = quantize(world.getDoodle().getXLoc());
+        this.sentDoodleY = quantize(world.getDoodle().getYLoc());
+        VarInt.write(out, this.sentScore);
+        VarInt.writeSigned(out, this.sentCamera);
+        VarInt.writeSigned(out, this.sentDoodleX);
+        VarInt.writeSigned(out, this.sentDoodleY);
+        VarInt.write(out, bottom & 0xFFFFFFFFL);
+        VarInt.write(out, top - bottom);
+        this.sentTopY = 0;
+        for (int sequence = bottom; sequence != top; sequence++) {
+            this.writePlatform(store, sequence);
+        }
+        EntityStore entities = world.getEntities();
+        for (int i = 0; i < this.sentEntityCount; i++) {
+            this.sentIndexOfSlot[this.sentEntitySlots[i]] = -1;
+        }
+        this.sentEntityCount = 0;
+        VarInt.write(out, entities.size());
+        for (int i = 0; i < entities.size(); i++) {
+            this.writeEntity(entities, entities.getLiveSlot(i));
+        }
+        this.sentBottom = bottom;
+        this.sentTop = top;
+        this.keyframeDue = false;
+        this.keyframeTick = world.getTicks();
+    }
+
+    /**
+     * This helper method writes a delta from the previous frame. Since fields is a varint, which
+     * sections there are is worked out before any of them is written.
+     */
+    private void writeDelta(World world, PlatformStore store, int bottom, int top) {
+        ByteBuffer out = this.buffer;
+        out.put((byte) DELTA);
+        VarInt.write(out, world.getTicks() - this.sentTick);
+        EntityStore entities = world.getEntities();
+        long camera = quantize(world.getCameraOffset());
+        long doodleX = quantize(world.getDoodle().getXLoc());
+        long doodleY = quantize(world.getDoodle().getYLoc());
+        int score = world.getScore();
+        int known = this.sentTop;
+        int removed = 0;
+        for (int sequence = bottom; sequence - known < 0; sequence++) {
+            if (this.sentKinds[sequence & this.mask] != EMPTY && store.getKind(sequence) == null) {
+                removed++;
+            }
+        }
+        int entitiesRemoved = 0;
+        for (int i = 0; i < this.sentEntityCount; i++) {
+            if (this.isGone(entities, i)) {
+                entitiesRemoved++;
+            }
+        }
+        int entitiesSpawned = 0;
+        for (int i = 0; i < entities.size(); i++) {
+            if (this.isNew(entities, entities.getLiveSlot(i))) {
+                entitiesSpawned++;
+            }
+        }
+
+        int fields = world.isGameOver() ? GAME_OVER : 0;
+        fields |= camera != this.sentCamera ? CAMERA : 0;
+        fields |= doodleX != this.sentDoodleX ? DOODLE_X : 0;
+        fields |= doodleY != this.sentDoodleY ? DOODLE_Y : 0;
+        fields |= score != this.sentScore ? SCORE : 0;
+        fields |= bottom != this.sentBottom ? CULLED : 0;
+        fields |= removed > 0 ? REMOVED : 0;
+        fields |= top != known ? SPAWNED : 0;
+        fields |= entitiesRemoved > 0 || entitiesSpawned > 0 ? ENTITIES : 0;
+        VarInt.write(out, fields);
+
+        if ((fields & CAMERA) != 0) {
+            VarInt.writeSigned(out, camera - this.sentCamera);
+            this.sentCamera = camera;
+        }
+        if ((fields & DOODLE_X) != 0) {
+            VarInt.writeSigned(out, doodleX - this.sentDoodleX);
+            this.sentDoodleX = doodleX;
+        }
+        if ((fields & DOODLE_Y) != 0) {
+            VarInt.writeSigned(out, doodleY - this.sentDoodleY);
+            this.sentDoodleY = doodleY;
+        }
+        if ((fields & SCORE) != 0) {
+            VarInt.write(out, score - this.sentScore);
+            this.sentScore = score;
+        }
+        if ((fields & CULLED) != 0) {
+            VarInt.write(out, bottom - this.sentBottom);
+            this.sentBottom = bottom;
+        }
+        if ((fields & REMOVED) != 0) {
+            VarInt.write(out, removed);
+            int previous = bottom;
+            for (int sequence = bottom; sequence - known < 0; sequence++) {
+                if (this.sentKinds[sequence & this.mask] != EMPTY && store.getKind(sequence) == null) {
+                    VarInt.write(out, sequence - previous);
+                    previous = sequence;
+                    this.sentKinds[sequence & this.mask] = EMPTY;
+                }
+            }
+        }
+        if ((fields & SPAWNED) != 0) {
+            VarInt.write(out, top - known);
+            for (int sequence = known; sequence != top; sequence++) {
+                this.writePlatform(store, sequence);
+            }
+            this.sentTop = top;
+        }
+        int knownEntities = this.sentEntityCount - entitiesRemoved;
+        if ((fields & ENTITIES) != 0) {
+            VarInt.write(out, entitiesRemoved);
+            for (int i = this.sentEntityCount - 1; i >= 0; i--) {
+                if (this.isGone(entities, i)) {
+                    VarInt.write(out, i);
+                    this.removeSentEntity(i);
+                }
+            }
+            VarInt.write(out, entitiesSpawned);
+            for (int i = 0; i < entities.size(); i++) {
+                int slot = entities.getLiveSlot(i);
+                if (this.isNew(entities, slot)) {
+                    this.writeEntity(entities, slot);
+                }
+            }
+        }
+
+        for (int sequence = bottom; sequence - known < 0; sequence++) {
+            int slot = sequence & this.mask;
+            if (this.sentKinds[slot] == MOVING) {
+                long x = quantize(store.getX(sequence));
+                VarInt.writeSigned(out, x - this.sentXs[slot]);
+                this.sentXs[slot] = x;
+            }
+        }
+        for (int i = 0; i < knownEntities; i++) {
+            if (KINDS[this.sentEntityKinds[i]].isMoving()) {
+                int slot = this.sentEntitySlots[i];
+                long x = quantize(entities.getX(slot));
+                long y = quantize(entities.getY(slot));
+                VarInt.writeSigned(out, x - this.sentEntityXs[i]);
+                VarInt.writeSigned(out, y - this.sentEntityYs[i]);
+                this.sentEntityXs[i] = x;
+                this.sentEntityYs[i] = y;
+            }
+        }
+    }
+
+    /**
+     * This helper method returns whether the entity at the given index of the list sent has since left
+     * the game: its slot is free, or holds a newer entity.
+     */
+    private boolean isGone(EntityStore entities, int index) {
+        int slot = this.sentEntitySlots[index];
+        return entities.getKind(slot) == null || entities.getGeneration(slot) != this.sentEntityGenerations[index];
+    }
+
+    /**
+     * This helper method returns whether the entity in the given slot has not been sent yet.
+     */
+    private boolean isNew(EntityStore entities, int slot) {
+        int index = this.sentIndexOfSlot[slot];
+        return index < 0 || this.sentEntityGenerations[index] != entities.getGeneration(slot);
+    }
+
+    /**
+     * This helper method removes the entity at the given index from the list sent, moving the last one
+     * into its place, as the StateDecoder will.
+     */
+    private void removeSentEntity(int index) {
+        this.sentIndexOfSlot[this.sentEntitySlots[index]] = -1;
+        int last = --this.sentEntityCount;
+        if (index != last) {
+            this.sentEntitySlots[index] = this.sentEntitySlots[last];
+            this.sentEntityGenerations[index] = this.sentEntityGenerations[last];
+            this.sentEntityKinds[index] = this.sentEntityKinds[last];
+            this.sentEntityXs[index] = this.sentEntityXs[last];
+            this.sentEntityYs[index] = this.sentEntityYs[last];
+            this.sentIndexOfSlot[this.sentEntitySlots[index]] = index;
+        }
+    }
+
+    /**
+     * This helper method writes the entity in the given slot as a keyframe or an ENTITIES section lists
+     * it, and appends it to the list sent.
+     */
+    private void writeEntity(EntityStore entities, int slot) {
+        EntityKind kind = entities.getKind(slot);
+        long x = quantize(entities.getX(slot));
+        long y = quantize(entities.getY(slot));
+        this.buffer.put((byte) kind.ordinal());
+        VarInt.writeSigned(this.buffer, x);
+        VarInt.writeSigned(this.buffer, y);
+        int index = this.sentEntityCount++;
+        this.sentEntitySlots[index] = slot;
+        this.sentEntityGenerations[index] = entities.getGeneration(slot);
+        this.sentEntityKinds[index] = (byte) kind.ordinal();
+        this.sentEntityXs[index] = x;
+        this.sentEntityYs[index] = y;
+        this.sentIndexOfSlot[slot] = index;
+    }
+
+    /**
+     * This helper method writes the Platform at the given sequence as a keyframe or a SPAWNED section
+     * lists it, and remembers what was sent.
+     */
+    private void writePlatform(PlatformStore store, int sequence) {
+        int slot = sequence & this.mask;
+        PlatformKind kind = store.getKind(sequence);
+        if (kind == null) {
+            this.buffer.put(EMPTY);
+            this.sentKinds[slot] = EMPTY;
+            return;
+        }
+        long x = quantize(store.getX(sequence));
+        long y = quantize(store.getY(sequence));
+        this.buffer.put((byte) kind.ordinal());
+        VarInt.writeSigned(this.buffer, x);
+        VarInt.writeSigned(this.buffer, y - this.sentTopY);
+        this.sentKinds[slot] = (byte) kind.ordinal();
+        this.sentXs[slot] = x;
+        this.sentTopY = y;
+    }
+
+    /**
+     * This helper method makes sure the buffer has room for a frame covering the sequences from first
+     * to top and every entity, old or new, and that the record of what was sent has a slot for each of
+     * them, growing both if not.
+     */
+    private void ensureCapacity(int first, int top, EntityStore entities) {
+        int span = top - first;
+        int needed = FIXED_BYTES + span * PLATFORM_BYTES + (this.sentEntityCount + entities.size()) * ENTITY_BYTES;
+        if (this.buffer.capacity() < needed) {
+            this.buffer = ByteBuffer.allocateDirect(2 * needed);
+        }
+        if (this.sentIndexOfSlot.length < entities.capacity()) {
+            int[] indices = new int[entities.capacity()];
+            Arrays.fill(indices, -1);
+            System.arraycopy(this.sentIndexOfSlot, 0, indices, 0, this.sentIndexOfSlot.length);
+            this.sentIndexOfSlot = indices;
+        }
+        if (this.sentEntityCount + entities.size() > this.sentEntitySlots.length) {
+            int capacity = Integer.highestOneBit(this.sentEntityCount + entities.size()) * 2;
+            this.sentEntitySlots = Arrays.copyOf(this.sentEntitySlots, capacity);
+            this.sentEntityGenerations = Arrays.copyOf(this.sentEntityGenerations, capacity);
+            this.sentEntityKinds = Arrays.copyOf(this.sentEntityKinds, capacity);
+            this.sentEntityXs = Arrays.copyOf(this.sentEntityXs, capacity);
+            this.sentEntityYs = Arrays.copyOf(this.sentEntityYs, capacity);
+        }
+        if (span > this.sentKinds.length) {
+            int capacity = Integer.highestOneBit(span) * 2;
+            byte[] kinds = new byte[capacity];
+            long[] xs = new long[capacity];
+            for (int sequence = this.sentBottom; sequence - this.sentTop < 0; sequence++) {
+                kinds[sequence & (capacity - 1)] = this.sentKinds[sequence & this.mask];
+                xs[sequence & (capacity - 1)] = this.sentXs[sequence & this.mask];
+            }
+            this.sentKinds = kinds;
+            this.sentXs = xs;
+            this.mask = capacity - 1;
+        }
+    }
+
+    /**
+     * This static helper method returns a coordinate in steps of 1/SCALE of a pixel.
+     */
+    static long quantize(double coordinate) {
+        return Math.round(coordinate * SCALE);
+    }
+}
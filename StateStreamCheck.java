@@ -0,0 +1,204 @@
+package doodlejump;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This StateStreamCheck class checks that a StateDecoder following a StateEncoder's stream always holds
+ * the state of the World the stream was written from. It plays the given number of headless games with
+ * the GreedyAgent, encodes every tick, and after each frame compares the decoder with the World: the
+ * tick, score and whether the game is over exactly, the camera offset, the Doodle's position and every
+ * Platform and entity to within the encoder's quantization (half of 1/StateEncoder.SCALE of a pixel).
+ * Three decoders follow each game:
+ * <pre>
+ *   every    every frame of an encoder with the default keyframe interval
+ *   sparse   every third tick of an encoder that only writes the first keyframe, so its deltas span
+ *            several ticks of changes
+ *   late     joins the first encoder's stream LATE_JOIN ticks in, skips the delta it gets before its
+ *            keyframe, and then asks for one, as a spectator joining a GameServer game does
+ * </pre>
+ * It prints how many bytes the frames took and how many comparisons failed, and exits with status 1 if
+ * any did, so it can be run after any change to the stream format: gradle streamcheck --args="games
+ * maxTicks seed".
+ */
+public class StateStreamCheck {
+    private static final double TOLERANCE = 0.5 / StateEncoder.SCALE + 1e-9;
+    private static final int SPARSE_EVERY = 3;
+    private static final long LATE_JOIN = 500;
+
+    private long frames;
+    private long comparisons;
+    private long mismatches;
+
+    /**
+     * This method compares the given decoder with the World, and prints the first few mismatches it
+     * finds with the name of the decoder.
+     */
+    public void compare(World world, StateDecoder decoder, String name) {
+        this.comparisons++;
+        Doodle doodle = world.getDoodle();
+        if (decoder.getTick() != world.getTicks() || decoder.getScore() != world.getScore()
+                || decoder.isGameOver() != world.isGameOver()
+                || !near(decoder.getCameraOffset(), world.getCameraOffset())
+                || !near(decoder.getDoodleX(), doodle.getXLoc()) || !near(decoder.getDoodleY(), doodle.getYLoc())) {
+            this.mismatch(name, world, "tick, score, camera or Doodle");
+            return;
+        }
+        PlatformStore platforms = world.getPlatforms();
+        if (decoder.getBottom() != platforms.bottomSequence() || decoder.getTop() != platforms.topSequence()) {
+            this.mismatch(name, world, "Platform range");
+            return;
+        }
+        for (int sequence = platforms.bottomSequence(); sequence != platforms.topSequence(); sequence++) {
+            PlatformKind kind = platforms.getKind(sequence);
+            if (decoder.getKind(sequence) != kind || kind != null && (!near(decoder.getX(sequence),
+                    platforms.getX(sequence)) || !near(decoder.getY(sequence), platforms.getY(sequence)))) {
+                this.mismatch(name, world, "Platform " + sequence);
+                return;
+            }
+        }
+        EntityStore entities = world.getEntities();
+        if (decoder.getEntityCount() != entities.size()) {
+            this.mismatch(name, world, "entity count");
+            return;
+        }
+        for (int i = 0; i < decoder.getEntityCount(); i++) {
+            if (!contains(entities, decoder.getEntityKind(i), decoder.getEntityX(i), decoder.getEntityY(i))) {
+                this.mismatch(name, world, "entity " + i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * This helper method counts a mismatch, and prints it if it is one of the first ten.
+     */
+    private void mismatch(String name, World world, String what) {
+        this.mismatches++;
+        if (this.mismatches <= 10) {
+            System.out.printf("MISMATCH %s seed=%d tick=%d: %s%n", name, world.getSeed(), world.getTicks(), what);
+        }
+    }
+
+    /**
+     * This helper method returns whether the EntityStore holds an entity of the given kind at the given
+     * coordinates. The decoder lists entities in the encoder's order rather than by slot, so each one is
+     * looked for among them all.
+     */
+    private static boolean contains(EntityStore entities, EntityKind kind, double x, double y) {
+        for (int i = 0; i < entities.size(); i++) {
+            int slot = entities.getLiveSlot(i);
+            if (entities.getKind(slot) == kind && near(entities.getX(slot), x) && near(entities.getY(slot), y)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean near(double decoded, double actual) {
+        return Math.abs(decoded - actual) <= TOLERANCE;
+    }
+
+    /**
+     * This helper method hands a copy of the frame to the decoder, the way a client receives it, and
+     * returns whether it was applied. A decoder that leaves part of a frame unread has lost its place
+     * in the stream, which counts as a mismatch.
+     */
+    private boolean deliver(ByteBuffer frame, ByteBuffer copy, StateDecoder decoder, World world, String name) {
+        copy.clear();
+        copy.put(frame.duplicate());
+        copy.flip();
+        boolean applied = decoder.apply(copy);
+        if (copy.hasRemaining()) {
+            this.mismatch(name, world, copy.remaining() + " bytes left unread");
+        }
+        return applied;
+    }
+
+    /**
+     * This method plays one game with the given seed, following it with the three decoders, and returns
+     * how many bytes the first encoder wrote.
+     */
+    public long check(long seed, long maxTicks) {
+        World world = new World(seed, WorldListener.NONE);
+        Agent agent = new GreedyAgent();
+        agent.start(seed);
+        Observation observation = new Observation(Observation.DEFAULT_PLATFORMS, Observation.DEFAULT_HAZARDS);
+        StateEncoder encoder = new StateEncoder(StateEncoder.DEFAULT_KEYFRAME_INTERVAL);
+        StateEncoder sparseEncoder = new StateEncoder(0);
+        StateDecoder every = new StateDecoder();
+        StateDecoder sparse = new StateDecoder();
+        StateDecoder late = null;
+        ByteBuffer copy = ByteBuffer.allocate(1 << 16);
+        long bytes = 0;
+        while (!world.isGameOver() && world.getTicks() < maxTicks) {
+            observation.fill(world);
+            world.setInput(agent.act(observation));
+            world.update();
+
+            ByteBuffer frame = encoder.encode(world);
+            bytes += frame.remaining();
+            this.frames++;
+            this.deliver(frame, copy, every, world, "every");
+            this.compare(world, every, "every");
+            if (world.getTicks() == LATE_JOIN) {
+                late = new StateDecoder();
+                boolean keyframe = frame.get(frame.position()) == StateEncoder.KEYFRAME;
+                if (this.deliver(frame, copy, late, world, "late") != keyframe) {
+                    this.mismatch("late", world, "delta applied before any keyframe");
+                }
+                encoder.requestKeyframe();
+            } else if (late != null) {
+                this.deliver(frame, copy, late, world, "late");
+                this.compare(world, late, "late");
+            }
+            if (world.getTicks() % SPARSE_EVERY == 0 || world.isGameOver()) {
+                this.deliver(sparseEncoder.encode(world), copy, sparse, world, "sparse");
+                this.compare(world, sparse, "sparse");
+            }
+        }
+        world.close();
+        return bytes;
+    }
+
+    /**
+     * This accessor method returns how many frames the first encoder has written.
+     */
+    public long getFrames() {
+        return this.frames;
+    }
+
+    /**
+     * This accessor method returns how many times a decoder has been compared with its World.
+     */
+    public long getComparisons() {
+        return this.comparisons;
+    }
+
+    /**
+     * This accessor method returns how many of the comparisons failed.
+     */
+    public long getMismatches() {
+        return this.mismatches;
+    }
+
+    /**
+     * This method is the entry point: gradle streamcheck --args="games maxTicks seed". Seeds are
+     * consecutive from the given one.
+     */
+    public static void main(String[] argv) {
+        int games = argv.length > 0 ? Integer.parseInt(argv[0]) : 100;
+        long maxTicks = argv.length > 1 ? Long.parseLong(argv[1]) : 20000;
+        long baseSeed = argv.length > 2 ? Long.parseLong(argv[2]) : 1;
+
+        StateStreamCheck check = new StateStreamCheck();
+        long bytes = 0;
+        for (int i = 0; i < games; i++) {
+            bytes += check.check(baseSeed + i, maxTicks);
+        }
+        System.out.printf("games=%d comparisons=%d bytes/frame=%.2f mismatches=%d%n", games,
+                check.getComparisons(), (double) bytes / Math.max(1, check.getFrames()), check.getMismatches());
+        if (check.getMismatches() > 0) {
+            System.exit(1);
+        }
+    }
+}
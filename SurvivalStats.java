@@ -0,0 +1,96 @@
+package doodlejump;
+
+import java.util.Arrays;
+
+/**
+ * This SurvivalStats class summarises how long the games of a batch lasted, which is what a difficulty
+ * curve is read from. It holds the percentiles of the ticks survived and of the score, and the survival
+ * curve: the fraction of games still alive at each tenth of the tick limit. Games cut off at the tick
+ * limit count as alive to the end. It is created by the BatchSimulator's main method from a batch's
+ * GameResults, and toString formats it for the console.
+ */
+public class SurvivalStats {
+    private static final double[] PERCENTILES = {0.1, 0.25, 0.5, 0.75, 0.9};
+    private static final int CURVE_POINTS = 10;
+
+    private long maxTicks;
+    private long[] ticks;
+    private long[] scores;
+
+    /**
+     * This SurvivalStats constructor sorts the ticks and scores of the given results, which were played
+     * with the given tick limit.
+     */
+    public SurvivalStats(GameResult[] results, long maxTicks) {
+        this.maxTicks = maxTicks;
+        this.ticks = new long[results.length];
+        this.scores = new long[results.length];
+        for (int i = 0; i < results.length; i++) {
+            this.ticks[i] = results[i].getTicks();
+            this.scores[i] = results[i].getScore();
+        }
+        Arrays.sort(this.ticks);
+        Arrays.sort(this.scores);
+    }
+
+    /**
+     * This method returns the number of ticks that the given fraction (from 0 to 1) of games ended
+     * within.
+     */
+    public long getTicksPercentile(double fraction) {
+        return percentile(this.ticks, fraction);
+    }
+
+    /**
+     * This method returns the score that the given fraction (from 0 to 1) of games ended at or below.
+     */
+    public long getScorePercentile(double fraction) {
+        return percentile(this.scores, fraction);
+    }
+
+    /**
+     * This method returns the fraction of games in which the Doodle was still alive after the given
+     * number of ticks.
+     */
+    public double getSurvivalAt(long tick) {
+        if (this.ticks.length == 0) {
+            return 0;
+        }
+        int index = Arrays.binarySearch(this.ticks, tick);
+        if (index < 0) {
+            index = -index - 1;
+        } else {
+            while (index > 0 && this.ticks[index - 1] == tick) {
+                index--;
+            }
+        }
+        int dead = index; // games that ended before tick
+        for (int i = index; i < this.ticks.length && this.ticks[i] == tick && tick < this.maxTicks; i++) {
+            dead++;
+        }
+        return (double) (this.ticks.length - dead) / this.ticks.length;
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for (double p : PERCENTILES) {
+            out.append(String.format("p%-3d ticks=%-8d score=%d%n", Math.round(p * 100),
+                    this.getTicksPercentile(p), this.getScorePercentile(p)));
+        }
+        out.append("survival:");
+        for (int point = 1; point <= CURVE_POINTS; point++) {
+            long tick = this.maxTicks * point / CURVE_POINTS;
+            out.append(String.format(" %d=%.3f", tick, this.getSurvivalAt(tick)));
+        }
+        return out.append(System.lineSeparator()).toString();
+    }
+}
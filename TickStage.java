@@ -0,0 +1,14 @@
+package doodlejump;
+
+/**
+ * This TickStage enum names the stages a World tick is split into, in the order the World runs them,
+ * so that TickStats can time each one separately. TICK is the whole tick from start to end.
+ */
+public enum TickStage {
+    PHYSICS,
+    COLLISION,
+    SCROLL,
+    GENERATE,
+    CULL,
+    TICK
+}
@@ -0,0 +1,243 @@
+package doodlejump;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * This TickStats class collects how long each stage of a World tick takes, so that when a game
+ * stutters we can see which stage's p99 went up instead of guessing. A World given a TickStats (with
+ * setTickStats) times every TickStage with System.nanoTime and records the durations into one
+ * LatencyHistogram per stage; at the end of the tick it also copies the PlatformHandler's counters
+ * (platforms live, spawned and culled, collisions, and chunks the PlatformGenerator's background thread
+ * had not finished in time) and the PlatformPool's hit rate, and the Game
+ * adds its renderer's Rectangle hit rate (setRectHitRate), its GameLoop's dropped steps
+ * (setDroppedSteps) and how long its AssetLoader took to load the images (setAssetLoadNanos), which is
+ * the cold start. Recording allocates nothing.
+ * Only the thread ticking the World writes to a TickStats. It can be read from any other thread:
+ * through JMX once registerMBean has been called, or through a TickStatsDumper writing it to a file.
+ * A reset asked for from another thread is carried out by the ticking thread at the end of its next
+ * tick.
+ */
+public class TickStats implements TickStatsMXBean {
+    public static final String OBJECT_NAME = "doodlejump:type=TickStats";
+    private static final TickStage[] STAGES = TickStage.values();
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private LatencyHistogram[] histograms;
+    private volatile long ticks;
+    private volatile long platformsLive;
+    private volatile long platformsSpawned;
+    private volatile long platformsCulled;
+    private volatile long collisions;
+    private volatile long droppedSteps;
+    private volatile long generatorMisses;
+    private volatile double poolHitRate;
+    private volatile double rectHitRate;
+    private volatile long assetLoadNanos;
+    private volatile boolean resetRequested;
+
+    /**
+     * This TickStats constructor creates an empty LatencyHistogram for every TickStage.
+     */
+    public TickStats() {
+        this.histograms = new LatencyHistogram[STAGES.length];
+        for (int i = 0; i < STAGES.length; i++) {
+            this.histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * This method is called by the World after each stage of a tick with how long the stage took.
+     */
+    public void record(TickStage stage, long nanos) {
+        this.histograms[stage.ordinal()].record(nanos);
+    }
+
+    /**
+     * This method is called by the World at the end of every tick with how long the whole tick took,
+     * and copies the PlatformHandler's counters so that other threads can read them.
+     */
+    public void endTick(long tickNanos, PlatformHandler handler) {
+        this.histograms[TickStage.TICK.ordinal()].record(tickNanos);
+        this.ticks++;
+        this.platformsLive = handler.getPlatformCount();
+        this.platformsSpawned = handler.getPlatformsSpawned();
+        this.platformsCulled = handler.getPlatformsCulled();
+        this.collisions = handler.getCollisions();
+        this.generatorMisses = handler.getGeneratorMisses();
+        this.poolHitRate = handler.getPool().getHitRate();
+        if (this.resetRequested) {
+            this.resetRequested = false;
+            for (int i = 0; i < this.histograms.length; i++) {
+                this.histograms[i].reset();
+            }
+        }
+    }
+
+    /**
+     * This mutator method is called by the Game after every tick with the fraction of Platforms its
+     * GameRenderer drew with a recycled Rectangle.
+     */
+    public void setRectHitRate(double rectHitRate) {
+        this.rectHitRate = rectHitRate;
+    }
+
+    /**
+     * This mutator method is called by the Game after every tick with how many ticks its GameLoop has
+     * dropped so far.
+     */
+    public void setDroppedSteps(long droppedSteps) {
+        this.droppedSteps = droppedSteps;
+    }
+
+    /**
+     * This mutator method is called by the Game after every tick with how long its AssetLoader has spent
+     * loading images so far.
+     */
+    public void setAssetLoadNanos(long assetLoadNanos) {
+        this.assetLoadNanos = assetLoadNanos;
+    }
+
+    /**
+     * This accessor method returns the LatencyHistogram that the given stage is recorded into.
+     */
+    public LatencyHistogram getHistogram(TickStage stage) {
+        return this.histograms[stage.ordinal()];
+    }
+
+    @Override
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    @Override
+    public long getPlatformsLive() {
+        return this.platformsLive;
+    }
+
+    @Override
+    public long getPlatformsSpawned() {
+        return this.platformsSpawned;
+    }
+
+    @Override
+    public long getPlatformsCulled() {
+        return this.platformsCulled;
+    }
+
+    @Override
+    public long getCollisions() {
+        return this.collisions;
+    }
+
+    @Override
+    public long getDroppedSteps() {
+        return this.droppedSteps;
+    }
+
+    @Override
+    public long getGeneratorMisses() {
+        return this.generatorMisses;
+    }
+
+    @Override
+    public double getPoolHitRate() {
+        return this.poolHitRate;
+    }
+
+    @Override
+    public double getRectHitRate() {
+        return this.rectHitRate;
+    }
+
+    @Override
+    public long getAssetLoadNanos() {
+        return this.assetLoadNanos;
+    }
+
+    @Override
+    public Map<String, Long> getP50Nanos() {
+        return this.percentiles(50);
+    }
+
+    @Override
+    public Map<String, Long> getP99Nanos() {
+        return this.percentiles(99);
+    }
+
+    @Override
+    public Map<String, Long> getMaxNanos() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (int i = 0; i < STAGES.length; i++) {
+            values.put(stageName(STAGES[i]), this.histograms[i].getMax());
+        }
+        return values;
+    }
+
+    @Override
+    public void reset() {
+        this.resetRequested = true;
+    }
+
+    /**
+     * This method registers this TickStats with the platform MBeanServer under OBJECT_NAME, replacing
+     * any TickStats an earlier game registered.
+     */
+    public void registerMBean() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+        server.registerMBean(this, name);
+    }
+
+    /**
+     * This method returns a plain-text table of the counters and, for every stage, the number of
+     * samples, the 50th, 90th, 99th and 99.9th percentiles and the maximum, in microseconds. It is what
+     * the TickStatsDumper writes out.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "ticks %d (%d dropped), platforms live %d, spawned %d, culled %d, collisions %d%n",
+                this.ticks, this.droppedSteps, this.platformsLive, this.platformsSpawned, this.platformsCulled,
+                this.collisions));
+        report.append(String.format(Locale.ROOT,
+                "chunks generated on the tick thread %d, platform pool hit rate %.3f, rectangle hit rate %.3f, images loaded in %.1f ms%n",
+                this.generatorMisses, this.poolHitRate, this.rectHitRate, this.assetLoadNanos / 1e6));
+        report.append(String.format(Locale.ROOT, "%-10s %10s %9s %9s %9s %9s %9s  (us)%n",
+                "stage", "count", "p50", "p90", "p99", "p99.9", "max"));
+        for (int i = 0; i < STAGES.length; i++) {
+            LatencyHistogram histogram = this.histograms[i];
+            report.append(String.format(Locale.ROOT, "%-10s %10d", stageName(STAGES[i]), histogram.getCount()));
+            for (int p = 0; p < PERCENTILES.length; p++) {
+                report.append(String.format(Locale.ROOT, " %9.2f", histogram.getValueAtPercentile(PERCENTILES[p]) / 1e3));
+            }
+            report.append(String.format(Locale.ROOT, " %9.2f%n", histogram.getMax() / 1e3));
+        }
+        return report.toString();
+    }
+
+    /**
+     * This helper method returns the given percentile of every stage, keyed by stage name.
+     */
+    private Map<String, Long> percentiles(double percentile) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (int i = 0; i < STAGES.length; i++) {
+            values.put(stageName(STAGES[i]), this.histograms[i].getValueAtPercentile(percentile));
+        }
+        return values;
+    }
+
+    /**
+     * This helper method returns the name a stage is reported under.
+     */
+    private static String stageName(TickStage stage) {
+        return stage.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,108 @@
+package doodlejump;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This TickStatsDumper class writes a TickStats report to a local file every few seconds, for when
+ * attaching a JMX client is not an option (for example on a player's machine). Each dump replaces the
+ * file with the current report, followed by how many platforms were spawned and culled and how many
+ * collisions happened per second since the previous dump. The file is written next to its final name
+ * and then moved into place, so a reader never sees half a report. The dumps run on a single daemon
+ * thread, never on the thread ticking the World.
+ */
+public class TickStatsDumper {
+    private TickStats stats;
+    private Path file;
+    private long intervalMillis;
+    private ScheduledExecutorService executor;
+    private long lastNanos;
+    private long lastSpawned;
+    private long lastCulled;
+    private long lastCollisions;
+
+    /**
+     * This TickStatsDumper constructor takes the TickStats to dump, the file to dump it to and how
+     * often, in milliseconds. Nothing is written until start is called.
+     */
+    public TickStatsDumper(TickStats stats, Path file, long intervalMillis) {
+        this.stats = stats;
+        this.file = file;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * This method starts dumping every intervalMillis milliseconds.
+     */
+    public void start() {
+        this.lastNanos = System.nanoTime();
+        this.lastSpawned = this.stats.getPlatformsSpawned();
+        this.lastCulled = this.stats.getPlatformsCulled();
+        this.lastCollisions = this.stats.getCollisions();
+        this.executor = Executors.newSingleThreadScheduledExecutor((Runnable r) -> {
+            Thread thread = new Thread(r, "tick-stats-dumper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleAtFixedRate(this::dumpQuietly, this.intervalMillis, this.intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * This method stops the periodic dumps and writes one last dump, so that the file describes the
+     * whole game once it has ended.
+     */
+    public void stop() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+            try {
+                this.executor.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        this.dumpQuietly();
+    }
+
+    /**
+     * This method writes the current report to the file.
+     */
+    public synchronized void dump() throws IOException {
+        long now = System.nanoTime();
+        double seconds = Math.max(now - this.lastNanos, 1) / 1e9;
+        long spawned = this.stats.getPlatformsSpawned();
+        long culled = this.stats.getPlatformsCulled();
+        long collisions = this.stats.getCollisions();
+        String report = this.stats.report() + String.format(Locale.ROOT,
+                "per second: spawned %.1f, culled %.1f, collisions %.1f%n",
+                (spawned - this.lastSpawned) / seconds, (culled - this.lastCulled) / seconds,
+                (collisions - this.lastCollisions) / seconds);
+        this.lastNanos = now;
+        this.lastSpawned = spawned;
+        this.lastCulled = culled;
+        this.lastCollisions = collisions;
+
+        Path temp = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+        Files.write(temp, report.getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * This helper method dumps, reporting rather than throwing a failure, since a stats file that
+     * cannot be written should not stop the game.
+     */
+    private void dumpQuietly() {
+        try {
+            this.dump();
+        } catch (IOException e) {
+            System.err.println("Could not write tick stats: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package doodlejump;
+
+import java.util.Map;
+
+/**
+ * This TickStatsMXBean interface is what TickStats shows over JMX (for example in JConsole or
+ * VisualVM, under doodlejump:type=TickStats). The counters, including the ticks the GameLoop dropped
+ * because frames came too late to catch up on, are totals for the game so far, and the
+ * hit rates are the fractions of Platforms and of their Rectangles that were recycled; the asset load
+ * time is how long the game's images took to load, in nanoseconds, which is its cold start; the
+ * latency maps are keyed by stage name (physics, collision, scroll, generate, cull and tick) and hold
+ * nanoseconds since the game started or since the last reset.
+ */
+public interface TickStatsMXBean {
+
+    long getTicks();
+
+    long getPlatformsLive();
+
+    long getPlatformsSpawned();
+
+    long getPlatformsCulled();
+
+    long getCollisions();
+
+    long getDroppedSteps();
+
+    long getGeneratorMisses();
+
+    double getPoolHitRate();
+
+    double getRectHitRate();
+
+    long getAssetLoadNanos();
+
+    Map<String, Long> getP50Nanos();
+
+    Map<String, Long> getP99Nanos();
+
+    Map<String, Long> getMaxNanos();
+
+    /**
+     * This operation clears the latency histograms, so that the percentiles only cover ticks from now
+     * on. The counters are not affected.
+     */
+    void reset();
+}
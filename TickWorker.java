@@ -0,0 +1,141 @@
+package doodlejump;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This TickWorker class is one of the GameServer's fixed pool of tick threads. Sessions are sharded
+ * across the workers by id, and a worker is the only thread that ever steps the Worlds in its shard, so
+ * a tick needs no locks at all. Once every Constants.DURATION the worker makes one pass over its
+ * sessions, ticking each of them once, then parks until the next pass is due. The time each pass takes
+ * is recorded into a LatencyHistogram; a pass that runs past the start of the next one is an overrun,
+ * and the worker then starts the next pass straight away rather than trying to catch up, so an
+ * overloaded server runs its games slowly instead of in bursts.
+ */
+public class TickWorker implements Runnable {
+    private static final long STEP_NANOS = Math.round(Constants.DURATION * 1e9);
+
+    private Thread thread;
+    private ConcurrentLinkedQueue<ServerSession> joining;
+    private ArrayList<ServerSession> sessions;
+    private LatencyHistogram passes;
+    private volatile long busyNanos;
+    private volatile long overruns;
+    private volatile int sessionCount;
+    private volatile boolean running;
+
+    /**
+     * This TickWorker constructor is called by the GameServer, which starts the thread with start.
+     */
+    public TickWorker(int index) {
+        this.joining = new ConcurrentLinkedQueue<>();
+        this.sessions = new ArrayList<>();
+        this.passes = new LatencyHistogram();
+        this.thread = new Thread(this, "tick-worker-" + index);
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * This method starts the worker's thread, which makes its first pass straight away.
+     */
+    public void start() {
+        this.running = true;
+        this.thread.start();
+    }
+
+    /**
+     * This method is called by the GameServer's I/O thread once a session has started a game. The
+     * worker picks it up at the start of its next pass.
+     */
+    public void add(ServerSession session) {
+        this.joining.add(session);
+    }
+
+    /**
+     * This method is the worker thread's loop: a pass over the sessions every STEP_NANOS.
+     */
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        while (this.running) {
+            long start = System.nanoTime();
+            this.pass();
+            long end = System.nanoTime();
+            this.passes.record(end - start);
+            this.busyNanos += end - start;
+            next += STEP_NANOS;
+            if (end > next) {
+                this.overruns++;
+                next = end;
+            }
+            while (this.running && (end = System.nanoTime()) < next) {
+                LockSupport.parkNanos(next - end);
+            }
+        }
+    }
+
+    /**
+     * This helper method takes in the sessions that joined since the last pass, then ticks every
+     * session, dropping the ones whose game ended or whose client went away.
+     */
+    private void pass() {
+        ServerSession session;
+        while ((session = this.joining.poll()) != null) {
+            this.sessions.add(session);
+        }
+        int kept = 0;
+        for (int i = 0; i < this.sessions.size(); i++) {
+            session = this.sessions.get(i);
+            if (!session.isClosed() && session.tick()) {
+                this.sessions.set(kept++, session);
+            }
+        }
+        for (int i = this.sessions.size() - 1; i >= kept; i--) {
+            this.sessions.remove(i);
+        }
+        this.sessionCount = kept;
+    }
+
+    /**
+     * This method stops the worker and waits for its thread to finish.
+     */
+    public void stop() {
+        this.running = false;
+        LockSupport.unpark(this.thread);
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * This accessor method returns the histogram of how long each pass took, in nanoseconds.
+     */
+    public LatencyHistogram getPasses() {
+        return this.passes;
+    }
+
+    /**
+     * This accessor method returns the total time the worker has spent ticking sessions, in
+     * nanoseconds, as opposed to parked waiting for the next pass.
+     */
+    public long getBusyNanos() {
+        return this.busyNanos;
+    }
+
+    /**
+     * This accessor method returns how many passes ran past the start of the next one.
+     */
+    public long getOverruns() {
+        return this.overruns;
+    }
+
+    /**
+     * This accessor method returns how many sessions the worker ticked in its last pass.
+     */
+    public int getSessionCount() {
+        return this.sessionCount;
+    }
+}
@@ -0,0 +1,96 @@
+package doodlejump;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * This VarInt class holds helper methods that write and read non-negative longs in the variable-length
+ * LEB128 format: seven bits per byte, with the high bit set on every byte but the last. Small numbers,
+ * like the gap in ticks between two key presses, take a single byte. It is used by the replay format,
+ * through DataOutput and DataInput, and by the server protocol and the StateEncoder, straight on
+ * ByteBuffers; the StateEncoder's deltas can be negative, and go through writeSigned.
+ */
+public final class VarInt {
+
+    private VarInt() {
+    }
+
+    /**
+     * This method writes a non-negative value to the output in as few bytes as it needs.
+     */
+    public static void write(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * This method writes a non-negative value into the buffer at its position, in as few bytes as it
+     * needs.
+     */
+    public static void write(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    /**
+     * This method reads back a value written into a ByteBuffer by write.
+     */
+    public static long read(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            int b = in.get() & 0xFF;
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IllegalArgumentException("VarInt is too long");
+            }
+        }
+    }
+
+    /**
+     * This method writes a value that may be negative into the buffer, zigzag-encoded first (0, -1, 1,
+     * -2, 2... become 0, 1, 2, 3, 4...) so that small values of either sign take a single byte.
+     */
+    public static void writeSigned(ByteBuffer out, long value) {
+        write(out, (value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * This method reads back a value written into a ByteBuffer by writeSigned.
+     */
+    public static long readSigned(ByteBuffer in) {
+        long value = read(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * This method reads back a value written by write.
+     */
+    public static long read(DataInput in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IOException("VarInt is too long");
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package doodlejump;
+
+import javafx.scene.paint.Color;
+
+/**
+ * This ViewConstants class holds the JavaFX-specific constants used to draw
+ * DoodleJump (the doodle's color and the background; the Platforms and entities carry their own
+ * colors on their kinds). They are kept apart from
+ * Constants so that the headless World never has to load a JavaFX class.
+ */
+public class ViewConstants {
+
+    public static final Color DOODLE_COLOR = Color.PINK;
+
+    public static final Color BACKGROUND_PLACEHOLDER_COLOR = Color.rgb(24,20,46); // shown until the image is loaded
+    public static final String BACKGROUND_IMAGE = "background.jpg"; // bundled from the assets directory
+    public static final String BACKGROUND_IMAGE_URL = "https://i.imgur.com/D0PYBoN.jpg"; // if it is not bundled
+
+    private static final Color[] PLATFORM_COLORS = new Color[PlatformKind.values().length];
+    private static final Color[] ENTITY_COLORS = new Color[EntityKind.values().length];
+
+    static {
+        for (PlatformKind kind : PlatformKind.values()) {
+            PLATFORM_COLORS[kind.ordinal()] = rgb(kind.getColor());
+        }
+        for (EntityKind kind : EntityKind.values()) {
+            ENTITY_COLORS[kind.ordinal()] = rgb(kind.getColor());
+        }
+    }
+
+    /**
+     * This helper method returns the color that a Platform of the given kind is drawn in, made once
+     * from the kind's data. It is called by the renderers whenever they color a Platform.
+     */
+    public static Color colorOf(PlatformKind kind) {
+        return PLATFORM_COLORS[kind.ordinal()];
+    }
+
+    /**
+     * This helper method returns the color that an entity of the given kind is drawn in, made once
+     * from the kind's data. It is called by the PaneRenderer whenever an entity enters a slot, and by the
+     * CanvasRenderer for every entity.
+     */
+    public static Color colorOf(EntityKind kind) {
+        return ENTITY_COLORS[kind.ordinal()];
+    }
+
+    /**
+     * This helper method turns a 0xRRGGBB color from a kind's data into a JavaFX Color.
+     */
+    private static Color rgb(int color) {
+        return Color.rgb((color >> 16) & 0xFF, (color >> 8) & 0xFF, color & 0xFF);
+    }
+}
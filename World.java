@@ -0,0 +1,280 @@
+package doodlejump;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This World class is the headless model of one DoodleJump game. It contains the Doodle, the
+ * PlatformHandler and the PlatformStore of Platforms, and knows nothing about JavaFX, so a game can be
+ * simulated without a Stage, a Pane, or an FX toolkit. The Game class drives it one tick at a time
+ * from its GameLoop and hands it a PaneRenderer as its WorldListener, while headless runs simply
+ * call update in a loop. The class contains a constructor, a method to advance the game by one tick
+ * (update), a method for the player's input (setInput), a method telling whether the game has ended
+ * (isGameOver), and accessor methods used by renderers (getDoodle, getPlatforms, getScore).
+ */
+public class World {
+    private PlatformStore platforms;
+    private PlatformHandler platformHandler;
+    private Doodle doodle;
+    private PlatformGenerator generator;
+    private long seed;
+    private long ticks;
+    private boolean gameOver;
+    private DeathCause deathCause;
+    private TickStats stats;
+    private double previousCameraOffset;
+    private int input;
+
+    /**
+     * This World constructor is called directly by headless code such as the BatchSimulator, and lays
+     * the level out on the calling thread (see the other constructor).
+     */
+    public World(long seed, WorldListener listener) {
+        this(seed, listener, false);
+    }
+
+    /**
+     * This World constructor is called in the Game constructor. The seed is used for the World's
+     * PlatformGenerator, so two Worlds built with the same seed lay out exactly the same platforms; if
+     * backgroundGeneration is true, the generator works out the next chunk of the level on a
+     * background thread, which close stops. The constructor creates the PlatformStore that holds
+     * every Platform's data, then the PlatformHandler (which adds the starting regular Platform that the
+     * Doodle begins bouncing on, telling the listener about it), then the Doodle; the two are manually
+     * associated using addDoodle, and finally the screen is filled with platforms.
+     */
+    public World(long seed, WorldListener listener, boolean backgroundGeneration) {
+        this.seed = seed;
+        this.generator = new PlatformGenerator(seed, Constants.STARTING_PLATFORM_XLOC,
+                Constants.STARTING_PLATFORM_YLOC, backgroundGeneration);
+        this.platforms = new PlatformStore();
+        this.platformHandler = new PlatformHandler(this.platforms, this.generator, listener);
+        this.doodle = new Doodle(this.platformHandler);
+        this.platformHandler.addDoodle(this.doodle);
+        this.platformHandler.generatePlatforms();
+        this.gameOver = false;
+    }
+
+    /**
+     * This method advances the game by one tick of Constants.DURATION, in stages: physics steers the
+     * Doodle by the input set with setInput, moves the moving Platforms and applies gravity to the Doodle,
+     * collision checks whether the Doodle landed on a Platform, scroll moves the camera if the Doodle
+     * climbed past the middle of the screen, generate fills the new space at the top with Platforms, and
+     * cull removes the Platforms that dropped off the bottom; the PlatformHandler runs the springs,
+     * jetpacks and monsters along with the Platforms in each of these stages. Finally the method checks
+     * whether the Doodle has fallen offscreen or touched a hazard--if so, the game is marked as over and
+     * further calls do nothing. If the World has a TickStats, every stage is timed and recorded.
+     */
+    public void update() {
+        if (this.gameOver) {
+            return;
+        }
+        long start = this.stats == null ? 0 : System.nanoTime();
+        this.previousCameraOffset = this.platformHandler.getCameraOffset();
+        this.doodle.steer(this.input);
+        this.platformHandler.movePlatforms();
+        double updatedVelocity = this.doodle.applyGravity();
+        long lap = this.lap(TickStage.PHYSICS, start);
+
+        this.doodle.setVelocity(this.platformHandler.checkIntersection(updatedVelocity));
+        lap = this.lap(TickStage.COLLISION, lap);
+
+        boolean scrolled = this.platformHandler.scrollCamera(this.doodle.getYLoc());
+        lap = this.lap(TickStage.SCROLL, lap);
+
+        if (scrolled) {
+            this.platformHandler.generatePlatforms();
+        }
+        lap = this.lap(TickStage.GENERATE, lap);
+
+        this.platformHandler.checkOffscreen();
+        lap = this.lap(TickStage.CULL, lap);
+
+        this.ticks++;
+        if (this.doodle.checkOffScreen()) {
+            this.gameOver = true;
+            this.deathCause = DeathCause.FELL_OFF_SCREEN;
+        } else if (this.platformHandler.getEntities().isHit()) {
+            this.gameOver = true;
+            this.deathCause = DeathCause.HIT_BY_HAZARD;
+        }
+        if (this.stats != null) {
+            this.stats.endTick(lap - start, this.platformHandler);
+        }
+    }
+
+    /**
+     * This helper method is called in update after each stage. If the World has a TickStats, it records
+     * the time since the given System.nanoTime value against the stage and returns the current
+     * System.nanoTime; otherwise it does nothing, so an untimed World never reads the clock.
+     */
+    private long lap(TickStage stage, long since) {
+        if (this.stats == null) {
+            return since;
+        }
+        long now = System.nanoTime();
+        this.stats.record(stage, now - since);
+        return now;
+    }
+
+    /**
+     * This mutator method gives the World a TickStats to record the duration of every tick stage into,
+     * or takes it away again when passed null. The Game sets one up; headless runs normally leave it
+     * out.
+     */
+    public void setTickStats(TickStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * This mutator method sets the bits of the Moves held (see Move.bit) for every following tick, until
+     * it is called again. Game calls it before every update with the InputState's latest poll, and the
+     * ReplayPlayer calls it to repeat a recorded change of input on the same tick.
+     */
+    public void setInput(int input) {
+        this.input = input;
+    }
+
+    /**
+     * This accessor method returns the bits of the Moves the World is currently steering the Doodle by.
+     */
+    public int getInput() {
+        return this.input;
+    }
+
+    /**
+     * This method is called by WorldSnapshot to write the whole state of the game into the buffer: the
+     * tick count, the input, the camera, and then the Doodle, the PlatformHandler (score and Platforms)
+     * and the PlatformGenerator each write their own part. The seed is written by WorldSnapshot, since it
+     * is needed to create the World that readState is called on.
+     */
+    void writeState(ByteBuffer buffer) {
+        buffer.putLong(this.ticks);
+        buffer.putInt(this.input);
+        buffer.put((byte) (this.gameOver ? this.deathCause.ordinal() + 1 : 0));
+        buffer.putDouble(this.previousCameraOffset);
+        this.doodle.writeState(buffer);
+        this.platformHandler.writeState(buffer);
+        this.generator.writeState(buffer);
+    }
+
+    /**
+     * This method is called by WorldSnapshot on a newly created World with the same seed, and puts back
+     * what writeState wrote, so that the game carries on exactly as it would have.
+     */
+    void readState(ByteBuffer buffer) {
+        this.ticks = buffer.getLong();
+        this.input = buffer.getInt();
+        int ending = buffer.get();
+        this.gameOver = ending != 0;
+        this.deathCause = ending == 0 ? null : DeathCause.values()[ending - 1];
+        this.previousCameraOffset = buffer.getDouble();
+        this.doodle.readState(buffer);
+        this.platformHandler.readState(buffer);
+        this.generator.readState(buffer);
+    }
+
+    /**
+     * This method stops the PlatformGenerator's background thread, if it has one. The Game calls it
+     * when the game ends.
+     */
+    public void close() {
+        this.generator.close();
+    }
+
+    /**
+     * This accessor method returns the PlatformGenerator that lays out this World's level.
+     */
+    public PlatformGenerator getGenerator() {
+        return this.generator;
+    }
+
+    /**
+     * This accessor method returns true once the game has ended, either because the Doodle has fallen
+     * off the bottom of the screen or because it has touched a hazard; getDeathCause tells which.
+     */
+    public boolean isGameOver() {
+        return this.gameOver;
+    }
+
+    /**
+     * This accessor method returns why the game ended, or null while it is still going.
+     */
+    public DeathCause getDeathCause() {
+        return this.deathCause;
+    }
+
+    /**
+     * This accessor method returns the seed the World was created with.
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * This accessor method returns how many ticks the World has been updated for.
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * This accessor method returns the Doodle, so that the Game can pass key input to it and
+     * the renderer can read its position.
+     */
+    public Doodle getDoodle() {
+        return this.doodle;
+    }
+
+    /**
+     * This accessor method returns the PlatformHandler, so that tools such as the benchmarks can drive
+     * the individual stages of a tick.
+     */
+    public PlatformHandler getPlatformHandler() {
+        return this.platformHandler;
+    }
+
+    /**
+     * This accessor method returns the PlatformStore of Platforms currently in the game, from the
+     * bottom of the level up.
+     */
+    public PlatformStore getPlatforms() {
+        return this.platforms;
+    }
+
+    /**
+     * This accessor method returns the EntityStore of springs, jetpacks, monsters and projectiles
+     * currently in the game.
+     */
+    public EntityStore getEntities() {
+        return this.platformHandler.getEntities().getEntities();
+    }
+
+    /**
+     * This accessor method returns the camera offset that turns the World's y-coordinates into
+     * y-coordinates on screen.
+     */
+    public double getCameraOffset() {
+        return this.platformHandler.getCameraOffset();
+    }
+
+    /**
+     * This accessor method returns the camera offset as it was before the latest tick, so that a
+     * renderer can interpolate between the two.
+     */
+    public double getPreviousCameraOffset() {
+        return this.previousCameraOffset;
+    }
+
+    /**
+     * This accessor method returns the PlatformPool that recycles this World's Platforms.
+     */
+    public PlatformPool getPlatformPool() {
+        return this.platformHandler.getPool();
+    }
+
+    /**
+     * This accessor method returns the player's current score.
+     */
+    public int getScore() {
+        return this.platformHandler.getScore();
+    }
+}
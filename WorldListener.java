@@ -0,0 +1,51 @@
+package doodlejump;
+
+/**
+ * This WorldListener interface is how the headless World reports changes that a renderer
+ * needs to know about: a Platform or an entity being added to or removed from the game, and the score
+ * changing. Every method has an empty default body, so a headless simulation can pass in
+ * the NONE listener and pay nothing for rendering, while the PaneRenderer overrides all
+ * of them to keep the gamePane's nodes in sync with the World.
+ */
+public interface WorldListener {
+
+    /**
+     * This listener ignores every event, and is used when the World runs without a renderer.
+     */
+    WorldListener NONE = new WorldListener() { };
+
+    /**
+     * This method is called by the PlatformHandler whenever a new Platform enters the World.
+     */
+    default void platformAdded(Platform platform) {
+    }
+
+    /**
+     * This method is called by the PlatformHandler whenever a Platform leaves the World, either
+     * because it fell offscreen or because it was a disappearing Platform that the Doodle hit.
+     * Platforms are recycled by the PlatformPool, so the same Platform object may later be passed
+     * to platformAdded again at a new location.
+     */
+    default void platformRemoved(Platform platform) {
+    }
+
+    /**
+     * This method is called by the EntityHandler whenever a spring, jetpack, monster or projectile
+     * enters the World, with the EntityStore slot it is in.
+     */
+    default void entityAdded(int slot, EntityKind kind) {
+    }
+
+    /**
+     * This method is called by the EntityHandler whenever an entity leaves the World, because it fell
+     * offscreen or was used up. Its slot may later be passed to entityAdded again.
+     */
+    default void entityRemoved(int slot) {
+    }
+
+    /**
+     * This method is called by the PlatformHandler every time the player's score increases.
+     */
+    default void scoreChanged(int score) {
+    }
+}
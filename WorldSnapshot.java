@@ -0,0 +1,127 @@
+package doodlejump;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This WorldSnapshot class saves a game part-way through and restores it later, exactly where it left
+ * off. A snapshot is the complete state of a World in a compact binary format:
+ * <pre>
+ *   int     magic "DJSS"
+ *   byte    version
+ *   long    seed
+ *   world   ticks, input, how the game ended (0 if it has not) and camera (see World.writeState)
+ *   doodle  position and velocities
+ *   handler score, camera, counters (the PlatformPool's too), then every Platform from the bottom up as a kind byte, its
+ *           coordinates and a direction byte for a moving Platform
+ *   entities jetpack boost, hit flag, then every entity as a kind byte, its previous and
+ *           current coordinates, velocity and countdown
+ *   level   index of the next PlatformChunk, and where the last one ended and on what kind of Platform
+ * </pre>
+ * The last line is all of the random number generator's state there is, since every chunk is laid out
+ * from a GameRandom seeded by the seed and the chunk's index. A typical snapshot is well under a
+ * kilobyte. It is encoded into one direct ByteBuffer that the WorldSnapshot keeps and reuses, and written
+ * with a single FileChannel write, to a temporary file that is then moved over the snapshot, so a crash
+ * part-way through never leaves half a snapshot behind. The Game saves one when the player quits and
+ * resumes from it on the next start; headless runs can capture checkpoints in memory with capture and
+ * restore.
+ */
+public class WorldSnapshot {
+    public static final int MAGIC = 0x444A5353; // "DJSS"
+    public static final int VERSION = 5; // 2: entities, 3: kind of the last generated Platform, 4: no entity counter, 5: pool counters
+    private static final int FIXED_BYTES = 256; // everything but the Platforms and entities, with room to spare
+    private static final int PLATFORM_BYTES = 18;
+    private static final int ENTITY_BYTES = 45;
+
+    private ByteBuffer buffer;
+
+    /**
+     * This WorldSnapshot constructor creates the buffer snapshots are encoded into. It grows if a World
+     * ever has more Platforms than it has room for.
+     */
+    public WorldSnapshot() {
+        this.buffer = ByteBuffer.allocateDirect(FIXED_BYTES + 128 * PLATFORM_BYTES);
+    }
+
+    /**
+     * This method encodes the given World and returns the buffer holding the snapshot, ready to be read.
+     * The buffer is reused by the next capture or save, so a checkpoint that should outlive that has to
+     * be copied out of it.
+     */
+    public ByteBuffer capture(World world) {
+        int needed = FIXED_BYTES + world.getPlatformHandler().getPlatformCount() * PLATFORM_BYTES
+                + world.getEntities().size() * ENTITY_BYTES;
+        if (this.buffer.capacity() < needed) {
+            this.buffer = ByteBuffer.allocateDirect(needed * 2);
+        }
+        this.buffer.clear();
+        this.buffer.putInt(MAGIC);
+        this.buffer.put((byte) VERSION);
+        this.buffer.putLong(world.getSeed());
+        world.writeState(this.buffer);
+        this.buffer.flip();
+        return this.buffer;
+    }
+
+    /**
+     * This method writes a snapshot of the given World to the given file, replacing any snapshot
+     * already there.
+     */
+    public void save(World world, Path path) throws IOException {
+        ByteBuffer snapshot = this.capture(world);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (snapshot.hasRemaining()) {
+                channel.write(snapshot);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * This static method creates a World from the snapshot in the given buffer, which is read from its
+     * position. The World is built with the snapshot's seed, telling the given listener about its
+     * Platforms, and with a background PlatformGenerator thread if background is true, and then put in
+     * the snapshot's state, so updating it carries on the saved game exactly.
+     */
+    public static World restore(ByteBuffer snapshot, WorldListener listener, boolean background) throws IOException {
+        if (snapshot.remaining() < 13 || snapshot.getInt() != MAGIC) {
+            throw new IOException("Not a DoodleJump snapshot");
+        }
+        int version = snapshot.get() & 0xFF;
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        World world = new World(snapshot.getLong(), listener, background);
+        try {
+            world.readState(snapshot);
+        } catch (RuntimeException e) {
+            world.close();
+            throw new IOException("Corrupt snapshot", e);
+        }
+        return world;
+    }
+
+    /**
+     * This static method reads the snapshot in the given file with a FileChannel and restores it (see
+     * restore).
+     */
+    public static World load(Path path, WorldListener listener, boolean background) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer snapshot = ByteBuffer.allocateDirect((int) channel.size());
+            while (snapshot.hasRemaining()) {
+                if (channel.read(snapshot) < 0) {
+                    break;
+                }
+            }
+            snapshot.flip();
+            return restore(snapshot, listener, background);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package doodlejump;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * This EntityBenchmark class measures the EntityHandler's systems against worlds with 10 to 10,000
+ * projectiles in flight on one screen (see SyntheticWorlds). The collision query only visits the
+ * PlatformIndex cells along the Doodle's path, so its cost follows how crowded those few cells are
+ * rather than the total; the movement system walks every projectile, so it grows linearly. Projectiles
+ * are never removed here (nothing culls them, and touching one only marks the Doodle as hit), so
+ * the GC profiler's gc.alloc.rate.norm shows that once the index cells have grown, neither system
+ * allocates, however many projectiles there are.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EntityBenchmark {
+    private static final double DOODLE_X = Constants.DOODLE_STARTING_XLOC;
+    private static final double DOODLE_Y = 600;
+    private static final double FALLING_VELOCITY = 300;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int projectileCount;
+
+    private EntityHandler entities;
+    private Doodle doodle;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        World world = SyntheticWorlds.withProjectiles(42, this.projectileCount);
+        this.entities = world.getPlatformHandler().getEntities();
+        this.doodle = world.getDoodle();
+    }
+
+    /**
+     * This benchmark measures EntityHandler.collide for a falling Doodle, sweeping the path it fell
+     * along in one tick of gravity.
+     */
+    @Benchmark
+    public double collide() {
+        this.doodle.setState(DOODLE_X, DOODLE_Y, FALLING_VELOCITY);
+        return this.entities.collide(this.doodle.applyGravity(), true);
+    }
+
+    /**
+     * This benchmark measures EntityHandler.moveEntities, which moves every projectile one tick down and
+     * re-files the ones that changed cells.
+     */
+    @Benchmark
+    public int moveEntities() {
+        this.entities.moveEntities(0);
+        return this.entities.getEntities().getMovingCount();
+    }
+}
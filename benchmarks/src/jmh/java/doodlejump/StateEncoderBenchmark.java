@@ -0,0 +1,110 @@
+package doodlejump;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * This StateEncoderBenchmark class measures the StateEncoder on a real game: each call ticks a World
+ * steered by a GreedyAgent and encodes the tick, and a new game is started whenever one ends. With a
+ * keyframe interval of 1 every frame is a keyframe, which is what sending every Platform's position
+ * each tick costs; 300 is the default, a keyframe every five seconds and deltas in between. The time
+ * per call includes the tick, which the tick benchmark measures alone. At the end of the trial the
+ * bytes per tick, and the average keyframe and delta, are printed; the GC profiler's
+ * gc.alloc.rate.norm shows that encoding allocates nothing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StateEncoderBenchmark {
+
+    @Param({"1", "300"})
+    public int keyframeInterval;
+
+    private World world;
+    private long seed;
+    private Agent agent;
+    private Observation observation;
+    private StateEncoder encoder;
+    private long ticks;
+    private long bytes;
+    private long keyframes;
+    private long keyframeBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.agent = new GreedyAgent();
+        this.observation = new Observation(Observation.DEFAULT_PLATFORMS, Observation.DEFAULT_HAZARDS);
+        this.newGame();
+    }
+
+    /**
+     * This helper method starts the next game, with a new encoder since an encoder follows one World.
+     */
+    private void newGame() {
+        this.seed++;
+        this.world = new World(this.seed, WorldListener.NONE);
+        this.agent.start(this.seed);
+        this.encoder = new StateEncoder(this.keyframeInterval);
+    }
+
+    /**
+     * This benchmark measures one tick alone, for comparison.
+     */
+    @Benchmark
+    public long tick() {
+        this.step();
+        return this.world.getTicks();
+    }
+
+    /**
+     * This benchmark measures one tick and encoding it, and counts the bytes the frame took.
+     */
+    @Benchmark
+    public int tickAndEncode() {
+        this.step();
+        ByteBuffer frame = this.encoder.encode(this.world);
+        int size = frame.remaining();
+        this.ticks++;
+        this.bytes += size;
+        if (frame.get(0) == StateEncoder.KEYFRAME) {
+            this.keyframes++;
+            this.keyframeBytes += size;
+        }
+        return size;
+    }
+
+    /**
+     * This helper method ticks the World with the agent's input, starting a new game if it is over.
+     */
+    private void step() {
+        if (this.world.isGameOver()) {
+            this.world.close();
+            this.newGame();
+        }
+        this.observation.fill(this.world);
+        this.world.setInput(this.agent.act(this.observation));
+        this.world.update();
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        if (this.ticks == 0) {
+            return;
+        }
+        long deltas = this.ticks - this.keyframes;
+        System.out.printf("%nkeyframe interval %d: %.2f bytes/tick over %d ticks, keyframe %.1f bytes, delta %.2f bytes%n",
+                this.keyframeInterval, (double) this.bytes / this.ticks, this.ticks,
+                this.keyframes == 0 ? 0 : (double) this.keyframeBytes / this.keyframes,
+                deltas == 0 ? 0 : (double) (this.bytes - this.keyframeBytes) / deltas);
+    }
+}
@@ -0,0 +1,61 @@
+package doodlejump;
+
+/**
+ * This SyntheticWorlds class builds the worlds the benchmarks run against. A synthetic world is an
+ * ordinary headless World (so it already has a screen's worth of generated platforms) with extra
+ * platforms scattered over the visible screen, which is how our dense-platform and stress
+ * configurations look to the tick. The extra platforms are a mix of regular, moving and bouncy ones;
+ * disappearing platforms are left out so that a benchmark cannot change the world it is measuring by
+ * landing on one. For the entity benchmarks, projectiles can be scattered over the screen in the same
+ * way.
+ */
+final class SyntheticWorlds {
+
+    private SyntheticWorlds() {
+    }
+
+    /**
+     * This static method returns a World built from the given seed, with extraPlatforms more platforms
+     * placed at random on screen.
+     */
+    static World dense(long seed, int extraPlatforms) {
+        World world = new World(seed, WorldListener.NONE);
+        PlatformHandler handler = world.getPlatformHandler();
+        GameRandom random = new GameRandom(~seed);
+        for (int i = 0; i < extraPlatforms; i++) {
+            double x = random.nextDouble() * (Constants.SCENE_WIDTH - Constants.PLATFORM_WIDTH);
+            double y = random.nextDouble() * (Constants.SCENE_HEIGHT - Constants.PLATFORM_HEIGHT);
+            PlatformKind kind;
+            switch (i % 3) {
+                case 0:
+                    kind = PlatformKind.REGULAR;
+                    break;
+                case 1:
+                    kind = PlatformKind.MOVING;
+                    break;
+                default:
+                    kind = PlatformKind.BOUNCY;
+                    break;
+            }
+            handler.addPlatform(kind, x, y);
+        }
+        return world;
+    }
+
+    /**
+     * This static method returns a World built from the given seed, with the given number of projectiles
+     * placed at random on screen.
+     */
+    static World withProjectiles(long seed, int projectiles) {
+        World world = new World(seed, WorldListener.NONE);
+        EntityHandler entities = world.getPlatformHandler().getEntities();
+        GameRandom random = new GameRandom(~seed);
+        EntityKind kind = EntityKind.PROJECTILE;
+        for (int i = 0; i < projectiles; i++) {
+            double x = random.nextDouble() * (Constants.SCENE_WIDTH - kind.getWidth());
+            double y = random.nextDouble() * (Constants.SCENE_HEIGHT - kind.getHeight());
+            entities.addEntity(kind, x, y);
+        }
+        return world;
+    }
+}
@@ -0,0 +1,109 @@
+package doodlejump;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * This TickBenchmark class measures each stage of the game tick on its own, against synthetic worlds of
+ * 10 to 10,000 extra platforms (see SyntheticWorlds). Each benchmark first puts back whatever state the
+ * previous call changed (the Doodle's position and velocity, or the camera), so every call measures the
+ * same situation; that reset is a few field writes and is included in the figures. Run it with
+ * gradle :benchmarks:jmh, which also attaches the GC profiler so allocation per call is reported.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TickBenchmark {
+    private static final double DOODLE_X = Constants.DOODLE_STARTING_XLOC;
+    private static final double DOODLE_Y = 600;
+    private static final double FALLING_VELOCITY = 300;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int platformCount;
+
+    private PlatformHandler handler;
+    private Doodle doodle;
+    private long generateCalls;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        World world = SyntheticWorlds.dense(42, this.platformCount);
+        this.handler = world.getPlatformHandler();
+        this.doodle = world.getDoodle();
+    }
+
+    /**
+     * This benchmark measures the Doodle's part of a tick, running the stages of World.update that move
+     * it in the same order: gravity, the collision check, the scroll check (and generation if the camera
+     * moved) and culling, with the Doodle falling through the lower half of the screen.
+     */
+    @Benchmark
+    public double doodleStages() {
+        this.doodle.setState(DOODLE_X, DOODLE_Y, FALLING_VELOCITY);
+        this.handler.setCameraOffset(0);
+        this.doodle.setVelocity(this.handler.checkIntersection(this.doodle.applyGravity()));
+        if (this.handler.scrollCamera(this.doodle.getYLoc())) {
+            this.handler.generatePlatforms();
+        }
+        this.handler.checkOffscreen();
+        return this.doodle.getVelocity();
+    }
+
+    /**
+     * This benchmark measures PlatformHandler.checkIntersection for a falling Doodle, sweeping the path
+     * it fell along in one tick of gravity.
+     */
+    @Benchmark
+    public double checkIntersection() {
+        this.doodle.setState(DOODLE_X, DOODLE_Y, FALLING_VELOCITY);
+        return this.handler.checkIntersection(this.doodle.applyGravity());
+    }
+
+    /**
+     * This benchmark measures one scroll step: the scroll, generate and cull stages of World.update for a
+     * Doodle that has just climbed past the middle of the screen, with the camera put back afterwards.
+     */
+    @Benchmark
+    public double scrollStages() {
+        this.handler.setCameraOffset(0);
+        if (this.handler.scrollCamera(Constants.SCENE_HALF_HEIGHT - 1)) {
+            this.handler.generatePlatforms();
+        }
+        this.handler.checkOffscreen();
+        return this.handler.getCameraOffset();
+    }
+
+    /**
+     * This benchmark measures PlatformHandler.generatePlatforms when the camera has climbed by
+     * Y_OFFSET_MAX each call, so that a new PlatformChunk is added every CHUNK_HEIGHT / Y_OFFSET_MAX
+     * calls and the figure is that cost spread over the calls in between. The layouts are worked out
+     * on the calling thread, as in a headless World. So that the world does not grow
+     * forever, checkOffscreen is run every 1024 calls; its cost, spread over those calls, is included.
+     */
+    @Benchmark
+    public double generatePlatforms() {
+        this.handler.setCameraOffset(this.handler.getCameraOffset() + Constants.Y_OFFSET_MAX);
+        this.handler.generatePlatforms();
+        if ((++this.generateCalls & 1023) == 0) {
+            this.handler.checkOffscreen();
+        }
+        return this.handler.getCameraOffset();
+    }
+
+    /**
+     * This benchmark measures PlatformHandler.checkOffscreen when every platform is still on screen,
+     * which is the common case on most ticks.
+     */
+    @Benchmark
+    public void checkOffscreen() {
+        this.handler.checkOffscreen();
+    }
+}